@@ -0,0 +1,12 @@
+package com.lifeflow.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled maintenance jobs such as FeedCounterReconciler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,59 @@
+package com.lifeflow.backend.config;
+
+import com.lifeflow.backend.repository.UserRepository;
+import com.lifeflow.backend.security.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions from the JWT in the CONNECT frame's Authorization header.
+ * The session principal is the user id, so @MessageMapping handlers know the sender and
+ * /user/queue destinations reach that user. Sessions without a valid token stay anonymous.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
+
+    public StompAuthChannelInterceptor(JwtTokenProvider jwtTokenProvider, UserRepository userRepository) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+        String token = authHeader.substring(7);
+        if (!jwtTokenProvider.validateToken(token)) {
+            logger.warn("Rejected STOMP authentication with an invalid token");
+            return message;
+        }
+
+        userRepository.findByEmail(jwtTokenProvider.getEmailFromToken(token)).ifPresent(user -> {
+            String userId = user.getId();
+            Principal principal = () -> userId;
+            accessor.setUser(principal);
+        });
+        return message;
+    }
+}
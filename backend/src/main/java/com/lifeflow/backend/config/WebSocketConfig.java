@@ -1,6 +1,7 @@
 package com.lifeflow.backend.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -14,6 +15,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor authChannelInterceptor;
+
+    public WebSocketConfig(StompAuthChannelInterceptor authChannelInterceptor) {
+        this.authChannelInterceptor = authChannelInterceptor;
+    }
+
     /**
      * Configure the message broker for distributing messages to clients
      */
@@ -30,6 +37,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // Configure the prefix for messages sent to specific users
         config.setUserDestinationPrefix("/user");
+
+        // Deliver messages to each session in publish order (chat ordering relies on it)
+        config.setPreservePublishOrder(true);
+    }
+
+    /**
+     * Attach the sender's identity to STOMP sessions that connect with a JWT
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authChannelInterceptor);
     }
 
     /**
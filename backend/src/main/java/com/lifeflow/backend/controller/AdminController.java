@@ -3,11 +3,17 @@ package com.lifeflow.backend.controller;
 import com.lifeflow.backend.dto.AuthResponse;
 import com.lifeflow.backend.model.User;
 import com.lifeflow.backend.services.AuthService;
+import com.lifeflow.backend.services.ConversationMembershipCache;
+import com.lifeflow.backend.services.FeedPageCache;
+import com.lifeflow.backend.services.NotificationRetentionSweeper;
+import com.lifeflow.backend.services.UserSummaryResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -16,6 +22,18 @@ public class AdminController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ConversationMembershipCache membershipCache;
+
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private FeedPageCache feedPageCache;
+
+    @Autowired
+    private NotificationRetentionSweeper notificationRetentionSweeper;
+
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers(@RequestHeader("Authorization") String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -144,4 +162,49 @@ public class AdminController {
         AuthResponse response = authService.deleteUser(userId);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats(@RequestHeader("Authorization") String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String token = authHeader.substring(7);
+        AuthResponse validation = authService.validateToken(token);
+
+        if (validation.getUserId() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (!"ADMIN".equals(validation.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("conversationMembership", membershipCache.stats());
+        stats.put("userSummary", userSummaryResolver.stats());
+        stats.put("feedPages", feedPageCache.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/notification-retention")
+    public ResponseEntity<Map<String, Object>> getNotificationRetention(
+            @RequestHeader("Authorization") String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String token = authHeader.substring(7);
+        AuthResponse validation = authService.validateToken(token);
+
+        if (validation.getUserId() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (!"ADMIN".equals(validation.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(notificationRetentionSweeper.stats());
+    }
 }
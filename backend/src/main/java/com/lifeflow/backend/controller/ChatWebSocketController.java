@@ -2,7 +2,10 @@ package com.lifeflow.backend.controller;
 
 import com.lifeflow.backend.dto.MessageDTO;
 import com.lifeflow.backend.dto.SendMessageRequest;
+import com.lifeflow.backend.services.MessageIngestPipeline;
 import com.lifeflow.backend.services.MessagingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -19,16 +22,22 @@ import java.security.Principal;
 @Controller
 public class ChatWebSocketController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketController.class);
+
     @Autowired
     private MessagingService messagingService;
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private MessageIngestPipeline ingestPipeline;
+
     /**
      * Handle incoming chat messages via WebSocket
      * Message sent to /app/chat/send/{conversationId}
      * Broadcasts to /topic/conversation/{conversationId}
+     * The sender also gets a persisted/failed/rejected frame on /user/queue/chat/ack
      */
     @MessageMapping("/chat/send/{conversationId}")
     public void sendMessage(
@@ -36,21 +45,34 @@ public class ChatWebSocketController {
             @Payload SendMessageRequest request,
             Principal principal) {
 
+        // Only authenticated sessions may post; there is no one to attribute the message to otherwise
+        if (principal == null) {
+            logger.warn("Rejected chat message to conversation {} from an unauthenticated session", conversationId);
+            return;
+        }
+        String userId = principal.getName();
+
         try {
-            // Extract user ID (in production, extract from JWT in principal)
-            String userId = "1"; // TODO: Extract from JWT token
+            if (ingestPipeline.isEnabled()) {
+                // Broadcast now, persist in the next group commit, acknowledge on /user/queue/chat/ack
+                ingestPipeline.submit(conversationId, userId, request.getContent(), request.getClientMessageId());
+                return;
+            }
 
             // Save message to database via existing service
             MessageDTO message = messagingService.sendMessage(conversationId, userId, request.getContent());
+            message.setClientMessageId(request.getClientMessageId());
 
             // Broadcast to all participants in the conversation
             messagingTemplate.convertAndSend(
                     "/topic/conversation/" + conversationId,
                     message);
+            ingestPipeline.acknowledgeSaved(message, request.getClientMessageId());
 
         } catch (Exception e) {
             // Log error and send error message back to sender
-            System.err.println("Error sending message: " + e.getMessage());
+            logger.error("Error sending message to conversation {}", conversationId, e);
+            ingestPipeline.reject(userId, conversationId, request.getClientMessageId(), e.getMessage());
         }
     }
 
@@ -1,22 +1,34 @@
 package com.lifeflow.backend.controller;
 
+import com.lifeflow.backend.dto.FeedAuthorDTO;
+import com.lifeflow.backend.dto.FeedItemDetailDTO;
+import com.lifeflow.backend.dto.TagCountDTO;
+import com.lifeflow.backend.event.FeedItemChangedEvent;
 import com.lifeflow.backend.model.Comment;
 import com.lifeflow.backend.model.FeedItem;
-import com.lifeflow.backend.model.FeedLike;
 import com.lifeflow.backend.model.Page;
 import com.lifeflow.backend.model.User;
 import com.lifeflow.backend.repository.CommentRepository;
 import com.lifeflow.backend.repository.FeedItemRepository;
-import com.lifeflow.backend.repository.FeedLikeRepository;
 import com.lifeflow.backend.repository.PageRepository;
 import com.lifeflow.backend.repository.UserRepository;
 import com.lifeflow.backend.security.JwtTokenProvider;
+import com.lifeflow.backend.services.CommentService;
+import com.lifeflow.backend.services.FeedPageCache;
+import com.lifeflow.backend.services.FeedService;
+import com.lifeflow.backend.services.HomeTimelineService;
+import com.lifeflow.backend.services.NotificationTriggerService;
+import com.lifeflow.backend.services.PageBodyService;
+import com.lifeflow.backend.services.TagIndexService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,26 +39,51 @@ import java.util.UUID;
 @CrossOrigin(origins = { "http://localhost:3000", "http://localhost:5000", "http://localhost:5173" })
 public class FeedController {
 
+    private static final String CURSOR_NEXT_HEADER = "X-Next-Cursor";
+    private static final String SORT_NEW = "new";
+    private static final String SORT_HOT = "hot";
+
     private final FeedItemRepository feedRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final PageRepository pageRepository;
-    private final FeedLikeRepository feedLikeRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final FeedService feedService;
+    private final HomeTimelineService homeTimelineService;
+    private final FeedPageCache feedPageCache;
+    private final TagIndexService tagIndexService;
+    private final PageBodyService pageBodyService;
+    private final CommentService commentService;
+    private final NotificationTriggerService notificationTriggerService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FeedController(
             FeedItemRepository feedRepository,
             UserRepository userRepository,
             CommentRepository commentRepository,
             PageRepository pageRepository,
-            FeedLikeRepository feedLikeRepository,
-            JwtTokenProvider jwtTokenProvider) {
+            JwtTokenProvider jwtTokenProvider,
+            FeedService feedService,
+            HomeTimelineService homeTimelineService,
+            FeedPageCache feedPageCache,
+            TagIndexService tagIndexService,
+            PageBodyService pageBodyService,
+            CommentService commentService,
+            NotificationTriggerService notificationTriggerService,
+            ApplicationEventPublisher eventPublisher) {
         this.feedRepository = feedRepository;
         this.userRepository = userRepository;
         this.commentRepository = commentRepository;
         this.pageRepository = pageRepository;
-        this.feedLikeRepository = feedLikeRepository;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.feedService = feedService;
+        this.homeTimelineService = homeTimelineService;
+        this.feedPageCache = feedPageCache;
+        this.tagIndexService = tagIndexService;
+        this.pageBodyService = pageBodyService;
+        this.commentService = commentService;
+        this.notificationTriggerService = notificationTriggerService;
+        this.eventPublisher = eventPublisher;
     }
 
     // Helper method to extract user from JWT token
@@ -62,77 +99,128 @@ public class FeedController {
         return userRepository.findByEmail(email).orElse(null);
     }
 
+    // If-None-Match may list several tags, possibly weak
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Feed page, newest first. Pass the X-Next-Cursor response header back as cursor to
+     * load the next page; the header is absent on the last page.
+     * Pages come from FeedPageCache and carry an ETag; a matching If-None-Match gets a 304.
+     * Filter with authorId or tag (one of them), or pass sort=hot for the engagement ranking.
+     */
     @GetMapping
     public ResponseEntity<?> getAllPosts(
             @RequestParam(required = false) String authorId,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "new") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             User currentUser = getUserFromToken(authHeader);
-
-            List<FeedItem> items;
-            if (authorId != null && !authorId.isEmpty()) {
-                items = feedRepository.findByAuthorIdOrderByCreatedAtDesc(authorId);
-            } else {
-                items = feedRepository.findAllByOrderByCreatedAtDesc();
-            }
-            List<Map<String, Object>> response = new ArrayList<>();
-
-            for (FeedItem item : items) {
-                Map<String, Object> itemData = new HashMap<>();
-                itemData.put("id", item.getId());
-                itemData.put("title", item.getTitle());
-                itemData.put("description", item.getDescription());
-                itemData.put("type", item.getType());
-                itemData.put("sourcePageId", item.getSourcePageId());
-                itemData.put("tags", item.getTags());
-                itemData.put("createdAt", item.getCreatedAt());
-
-                // Get actual author information
-                User author = item.getAuthor();
-                if (author != null) {
-                    Map<String, String> authorData = new HashMap<>();
-                    authorData.put("id", author.getId());
-                    authorData.put("name", author.getName());
-                    authorData.put("email", author.getEmail());
-                    authorData.put("avatar", author.getAvatar() != null ? author.getAvatar()
-                            : author.getName().substring(0, Math.min(2, author.getName().length())).toUpperCase());
-                    itemData.put("author", authorData);
-                } else {
-                    Map<String, String> authorData = new HashMap<>();
-                    authorData.put("id", "");
-                    authorData.put("name", "Anonymous");
-                    authorData.put("email", "anonymous@example.com");
-                    authorData.put("avatar", "AN");
-                    itemData.put("author", authorData);
+            String viewerId = currentUser != null ? currentUser.getId() : null;
+            if (SORT_HOT.equals(sort)) {
+                if ((authorId != null && !authorId.isEmpty()) || (tag != null && !tag.isEmpty())) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "sort=hot does not take filters"));
                 }
-
-                // Get like count and user's like status
-                int likeCount = feedLikeRepository.countByFeedItemId(item.getId());
-                itemData.put("likes", likeCount);
-
-                if (currentUser != null) {
-                    boolean isLiked = feedLikeRepository.existsByFeedItemIdAndUserId(
-                            item.getId(), currentUser.getId());
-                    itemData.put("isLiked", isLiked);
-                } else {
-                    itemData.put("isLiked", false);
+                // Hot order shifts with every like, so it is not page-cached
+                FeedService.FeedPage hot = feedService.getHotPage(viewerId, cursor, limit);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (hot.getNextCursor() != null) {
+                    response.header(CURSOR_NEXT_HEADER, hot.getNextCursor());
                 }
+                return response.body(hot.getItems());
+            }
+            if (!SORT_NEW.equals(sort)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "sort must be new or hot"));
+            }
 
-                // Get comment count
-                int commentCount = commentRepository.countByFeedItemId(item.getId());
-                itemData.put("commentCount", commentCount);
+            FeedService.FeedPage page = feedPageCache.getPage(viewerId, authorId, tag, cursor, limit);
+
+            boolean notModified = etagMatches(ifNoneMatch, page.getEtag());
+            ResponseEntity.BodyBuilder response = notModified
+                    ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    : ResponseEntity.ok();
+            response.eTag(page.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.AUTHORIZATION);
+            if (page.getNextCursor() != null) {
+                response.header(CURSOR_NEXT_HEADER, page.getNextCursor());
+            }
+            if (notModified) {
+                return response.build();
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Failed to load feed: " + e.getMessage()));
+        }
+    }
 
-                response.add(itemData);
+    /**
+     * Home timeline: posts from the caller and the authors they follow (excluding muted),
+     * newest first, paged like the global feed.
+     */
+    @GetMapping("/home")
+    public ResponseEntity<?> getHomeTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader(value = "Authorization", required = true) String authHeader) {
+        try {
+            User currentUser = getUserFromToken(authHeader);
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
 
-            return ResponseEntity.ok(response);
+            FeedService.FeedPage page = homeTimelineService.getHomeTimeline(currentUser.getId(), cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CURSOR_NEXT_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Failed to load feed: " + e.getMessage()));
+                    .body(Map.of("error", "Failed to load home timeline: " + e.getMessage()));
         }
     }
 
+    /**
+     * Most used tags with their post counts.
+     */
+    @GetMapping("/tags")
+    public List<TagCountDTO> getTopTags(@RequestParam(defaultValue = "20") int limit) {
+        return tagIndexService.getTopTags(limit);
+    }
+
+    /**
+     * Most used tags among recent posts.
+     */
+    @GetMapping("/tags/trending")
+    public List<TagCountDTO> getTrendingTags(@RequestParam(defaultValue = "10") int limit) {
+        return tagIndexService.getTrendingTags(limit);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getFeedItem(
             @PathVariable String id,
@@ -146,59 +234,42 @@ public class FeedController {
             }
 
             FeedItem item = itemOpt.get();
-            Map<String, Object> itemData = new HashMap<>();
-            itemData.put("id", item.getId());
-            itemData.put("title", item.getTitle());
-            itemData.put("description", item.getDescription());
-            itemData.put("type", item.getType());
-            itemData.put("sourcePageId", item.getSourcePageId());
-            itemData.put("tags", item.getTags());
-            itemData.put("createdAt", item.getCreatedAt());
-
-            // Get author information
-            User author = item.getAuthor();
-            if (author != null) {
-                Map<String, String> authorData = new HashMap<>();
-                authorData.put("id", author.getId());
-                authorData.put("name", author.getName());
-                authorData.put("email", author.getEmail());
-                authorData.put("avatar", author.getAvatar() != null ? author.getAvatar()
-                        : author.getName().substring(0, Math.min(2, author.getName().length())).toUpperCase());
-                itemData.put("author", authorData);
-            }
-
-            // Get like count and user's like status
-            int likeCount = feedLikeRepository.countByFeedItemId(item.getId());
-            itemData.put("likes", likeCount);
-
-            if (currentUser != null) {
-                boolean isLiked = feedLikeRepository.existsByFeedItemIdAndUserId(
-                        item.getId(), currentUser.getId());
-                itemData.put("isLiked", isLiked);
-            } else {
-                itemData.put("isLiked", false);
-            }
 
-            // Get comment count
-            int commentCount = commentRepository.countByFeedItemId(item.getId());
-            itemData.put("commentCount", commentCount);
+            // Counters are read from the row; only the viewer's like needs a lookup
+            boolean isLiked = currentUser != null && feedService.isLiked(item.getId(), currentUser.getId());
 
-            // If it has a sourcePageId, get the page content
+            // If it has a sourcePageId, pass the page content through as raw JSON
+            String content = null;
+            String icon = null;
+            String coverImage = null;
             if (item.getSourcePageId() != null) {
                 Optional<Page> pageOpt = pageRepository.findById(item.getSourcePageId());
                 if (pageOpt.isPresent()) {
                     Page page = pageOpt.get();
-                    String content = page.getEditorContentJson();
+                    content = page.getEditorContentJson();
                     if (content == null || content.trim().isEmpty() || "null".equals(content) || "[]".equals(content)) {
                         content = page.getBlocksJson();
                     }
-                    itemData.put("content", content);
-                    itemData.put("icon", page.getIcon());
-                    itemData.put("coverImage", page.getCoverImage());
+                    icon = page.getIcon();
+                    coverImage = page.getCoverImage();
                 }
             }
 
-            return ResponseEntity.ok(itemData);
+            return ResponseEntity.ok(new FeedItemDetailDTO(
+                    item.getId(),
+                    item.getTitle(),
+                    item.getDescription(),
+                    item.getType(),
+                    item.getSourcePageId(),
+                    item.getTags(),
+                    item.getCreatedAt(),
+                    FeedAuthorDTO.of(item.getAuthor()),
+                    feedService.getLikes(item),
+                    isLiked,
+                    item.getCommentCount(),
+                    FeedItemDetailDTO.rawContent(content),
+                    icon,
+                    coverImage));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError()
@@ -207,6 +278,7 @@ public class FeedController {
     }
 
     @PostMapping
+    @Transactional
     public ResponseEntity<?> createPost(
             @RequestBody Map<String, Object> payload,
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
@@ -258,6 +330,11 @@ public class FeedController {
 
             item.setAuthor(author);
             FeedItem savedItem = feedRepository.save(item);
+            homeTimelineService.fanOut(savedItem);
+            notificationTriggerService.triggerNewPostNotifications(author, savedItem.getId());
+            tagIndexService.index(savedItem);
+            eventPublisher.publishEvent(new FeedItemChangedEvent(
+                    savedItem.getId(), author.getId(), FeedItemChangedEvent.Change.CREATED));
 
             return ResponseEntity.ok(savedItem);
         } catch (Exception e) {
@@ -266,61 +343,110 @@ public class FeedController {
         }
     }
 
+    /**
+     * Toggle a like. Kept for existing clients; each direction is idempotent, so racing
+     * toggles from the same user cannot leave duplicate likes.
+     */
     @PostMapping("/{id}/like")
-    @Transactional
     public ResponseEntity<?> likePost(
             @PathVariable String id,
             @RequestHeader(value = "Authorization", required = true) String authHeader) {
-        try {
-            User currentUser = getUserFromToken(authHeader);
-            if (currentUser == null) {
-                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
-            }
-
-            Optional<FeedItem> feedItemOpt = feedRepository.findById(id);
-            if (feedItemOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
+        User currentUser = getUserFromToken(authHeader);
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+        boolean liked = feedService.isLiked(id, currentUser.getId());
+        return setLike(id, currentUser, !liked);
+    }
 
-            FeedItem feedItem = feedItemOpt.get();
+    /**
+     * Idempotent like: PUT any number of times, the post stays liked once.
+     */
+    @PutMapping("/{id}/like")
+    public ResponseEntity<?> addLike(
+            @PathVariable String id,
+            @RequestHeader(value = "Authorization", required = true) String authHeader) {
+        User currentUser = getUserFromToken(authHeader);
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+        return setLike(id, currentUser, true);
+    }
 
-            // Check if user already liked this post
-            Optional<FeedLike> existingLike = feedLikeRepository
-                    .findByFeedItemIdAndUserId(id, currentUser.getId());
-
-            if (existingLike.isPresent()) {
-                // Unlike
-                feedLikeRepository.delete(existingLike.get());
-            } else {
-                // Like
-                FeedLike like = new FeedLike();
-                like.setFeedItem(feedItem);
-                like.setUser(currentUser);
-                feedLikeRepository.save(like);
-
-                // TODO: Create notification for post author
-            }
+    /**
+     * Idempotent unlike.
+     */
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<?> removeLike(
+            @PathVariable String id,
+            @RequestHeader(value = "Authorization", required = true) String authHeader) {
+        User currentUser = getUserFromToken(authHeader);
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+        return setLike(id, currentUser, false);
+    }
 
-            // Return updated like count and status
-            int likeCount = feedLikeRepository.countByFeedItemId(id);
-            boolean isLiked = feedLikeRepository.existsByFeedItemIdAndUserId(id, currentUser.getId());
+    private ResponseEntity<?> setLike(String id, User currentUser, boolean like) {
+        try {
+            int likeCount = like
+                    ? feedService.like(id, currentUser.getId())
+                    : feedService.unlike(id, currentUser.getId());
 
             return ResponseEntity.ok(Map.of(
                     "likes", likeCount,
-                    "isLiked", isLiked));
+                    "isLiked", like));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Failed to toggle like: " + e.getMessage()));
+                    .body(Map.of("error", "Failed to update like: " + e.getMessage()));
         }
     }
 
+    /**
+     * Top-level comments of a post, newest first, each with its replyCount.
+     * Paged like the feed: pass the X-Next-Cursor header back as cursor.
+     */
     @GetMapping("/{id}/comments")
-    public List<Comment> getComments(@PathVariable String id) {
-        return commentRepository.findByFeedItemIdOrderByCreatedAtDesc(id);
+    public ResponseEntity<?> getComments(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return commentPageResponse(commentService.getComments(id, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Replies to a top-level comment, oldest first, paged the same way.
+     */
+    @GetMapping("/{id}/comments/{commentId}/replies")
+    public ResponseEntity<?> getReplies(
+            @PathVariable String id,
+            @PathVariable String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return commentPageResponse(commentService.getReplies(id, commentId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> commentPageResponse(CommentService.CommentPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CURSOR_NEXT_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PostMapping("/{id}/comments")
+    @Transactional
     public ResponseEntity<?> addComment(
             @PathVariable String id,
             @RequestBody Map<String, String> payload,
@@ -341,16 +467,10 @@ public class FeedController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Comment text is required"));
             }
 
-            Comment comment = new Comment();
-            comment.setText(text);
-            comment.setAuthor(currentUser);
-            comment.setFeedItem(feedItemOpt.get());
-
-            Comment savedComment = commentRepository.save(comment);
-
-            // TODO: Create notification for post author
-
-            return ResponseEntity.ok(savedComment);
+            return ResponseEntity.ok(commentService.addComment(feedItemOpt.get(), currentUser, text,
+                    payload.get("parentId")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError()
@@ -359,6 +479,7 @@ public class FeedController {
     }
 
     @PostMapping("/{id}/clone")
+    @Transactional
     public ResponseEntity<?> cloneTemplate(
             @PathVariable String id,
             @RequestHeader(value = "Authorization", required = true) String authHeader) {
@@ -395,8 +516,8 @@ public class FeedController {
             newPage.setId(UUID.randomUUID().toString());
             newPage.setTitle(sourcePage.getTitle() + " (Copy)");
             newPage.setIcon(sourcePage.getIcon());
-            newPage.setCoverImage(sourcePage.getCoverImage());
-            newPage.setBlocksJson(sourcePage.getBlocksJson());
+            // Blocks and cover image are shared with the template until the copy is edited
+            pageBodyService.shareContent(sourcePage, newPage);
             newPage.setParentId(null);
             newPage.setFavorite(false);
             newPage.setDeleted(false);
@@ -416,6 +537,7 @@ public class FeedController {
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> deletePost(
             @PathVariable String id,
             @RequestHeader(value = "Authorization", required = true) String authHeader) {
@@ -439,12 +561,14 @@ public class FeedController {
             }
 
             // Delete associated comments and likes
-            commentRepository.deleteAll(commentRepository.findByFeedItemIdOrderByCreatedAtDesc(id));
-            feedLikeRepository.deleteAll(feedLikeRepository.findAll().stream()
-                    .filter(like -> like.getFeedItem().getId().equals(id))
-                    .toList());
+            commentService.deleteAllForFeedItem(id);
+            feedService.deleteAllLikes(id);
 
+            homeTimelineService.removeFeedItem(id);
+            tagIndexService.remove(id);
             feedRepository.delete(feedItem);
+            eventPublisher.publishEvent(new FeedItemChangedEvent(
+                    id, currentUser.getId(), FeedItemChangedEvent.Change.DELETED));
             return ResponseEntity.ok(Map.of("success", true));
         } catch (Exception e) {
             e.printStackTrace();
@@ -454,6 +578,7 @@ public class FeedController {
     }
 
     @DeleteMapping("/{feedId}/comments/{commentId}")
+    @Transactional
     public ResponseEntity<?> deleteComment(
             @PathVariable String feedId,
             @PathVariable String commentId,
@@ -477,7 +602,7 @@ public class FeedController {
                 return ResponseEntity.status(403).body(Map.of("error", "You can only delete your own comments"));
             }
 
-            commentRepository.delete(comment);
+            commentService.deleteComment(comment);
             return ResponseEntity.ok(Map.of("success", true));
         } catch (Exception e) {
             e.printStackTrace();
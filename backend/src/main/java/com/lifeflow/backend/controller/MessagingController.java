@@ -3,13 +3,21 @@ package com.lifeflow.backend.controller;
 import com.lifeflow.backend.dto.*;
 import com.lifeflow.backend.model.User;
 import com.lifeflow.backend.repository.UserRepository;
+import com.lifeflow.backend.services.ConversationExportService;
 import com.lifeflow.backend.services.MessagingService;
 import com.lifeflow.backend.security.JwtTokenProvider;
+import com.lifeflow.backend.util.KeysetCursor;
+import com.lifeflow.backend.util.Paging;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,6 +25,9 @@ import java.util.List;
 @CrossOrigin(origins = { "http://localhost:3000", "http://localhost:5000", "http://localhost:5173" })
 public class MessagingController {
 
+    private static final String CURSOR_NEXT_HEADER = "X-Next-Cursor";
+    private static final String CURSOR_PREV_HEADER = "X-Prev-Cursor";
+
     @Autowired
     private MessagingService messagingService;
 
@@ -26,6 +37,12 @@ public class MessagingController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ConversationExportService exportService;
+
     // Extract userId from JWT token
     private String getUserIdFromToken(@RequestHeader("Authorization") String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -56,13 +73,15 @@ public class MessagingController {
 
     /**
      * Endpoint 2: GET /api/messages/conversations/preview
-     * Get conversation previews
+     * Get conversation previews, one page at a time
      */
     @GetMapping("/conversations/preview")
     public ResponseEntity<List<ConversationPreviewDTO>> getConversationPreviews(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") int offset,
             @RequestHeader("Authorization") String authHeader) {
         String userId = getUserIdFromToken(authHeader);
-        List<ConversationPreviewDTO> previews = messagingService.getConversationPreviews(userId);
+        List<ConversationPreviewDTO> previews = messagingService.getConversationPreviews(userId, limit, offset);
         return ResponseEntity.ok(previews);
     }
 
@@ -155,17 +174,47 @@ public class MessagingController {
 
     /**
      * Endpoint 9: GET /api/messages/conversations/:conversationId/messages
-     * Get messages from a conversation
+     * Get messages from a conversation, newest first.
+     * Pass the X-Next-Cursor header back as "before" to scroll back, or X-Prev-Cursor as "after"
+     * to catch up on newer messages. Cursor pages never run a COUNT or OFFSET scan.
      */
     @GetMapping("/conversations/{conversationId}/messages")
     public ResponseEntity<List<MessageDTO>> getMessages(
             @PathVariable String conversationId,
             @RequestParam(defaultValue = "50") int limit,
             @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
             @RequestHeader("Authorization") String authHeader) {
         String userId = getUserIdFromToken(authHeader);
-        List<MessageDTO> messages = messagingService.getMessages(conversationId, userId, limit, offset);
-        return ResponseEntity.ok(messages);
+        int size = Paging.pageSize(limit);
+        List<MessageDTO> messages;
+        try {
+            if (after != null && !after.isEmpty()) {
+                messages = messagingService.getMessagesAfter(conversationId, userId, after, size);
+            } else if (before != null && !before.isEmpty()) {
+                messages = messagingService.getMessagesBefore(conversationId, userId, before, size);
+            } else {
+                messages = messagingService.getMessages(conversationId, userId, size, offset);
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed before/after cursor
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!messages.isEmpty()) {
+            MessageDTO newest = messages.get(0);
+            MessageDTO oldest = messages.get(messages.size() - 1);
+            response.header(CURSOR_PREV_HEADER, KeysetCursor.of(newest.getCreatedAt(), newest.getId()).encode());
+            if (messages.size() == size) {
+                response.header(CURSOR_NEXT_HEADER, KeysetCursor.of(oldest.getCreatedAt(), oldest.getId()).encode());
+            }
+        } else if (after != null && !after.isEmpty()) {
+            // Caught up: hand the same cursor back so the client can keep polling from it
+            response.header(CURSOR_PREV_HEADER, after);
+        }
+        return response.body(messages);
     }
 
     /**
@@ -234,14 +283,15 @@ public class MessagingController {
      * Add reaction to message
      */
     @PostMapping("/conversations/{conversationId}/messages/{messageId}/reactions")
-    public ResponseEntity<MessageDTO> addReaction(
+    public ResponseEntity<ReactionDeltaDTO> addReaction(
             @PathVariable String conversationId,
             @PathVariable String messageId,
             @RequestBody AddReactionRequest request,
             @RequestHeader("Authorization") String authHeader) {
         String userId = getUserIdFromToken(authHeader);
-        MessageDTO message = messagingService.addReaction(conversationId, messageId, userId, request.getEmoji());
-        return ResponseEntity.status(HttpStatus.CREATED).body(message);
+        ReactionDeltaDTO delta = messagingService.addReaction(conversationId, messageId, userId, request.getEmoji());
+        broadcastReactionDelta(delta);
+        return ResponseEntity.status(HttpStatus.CREATED).body(delta);
     }
 
     /**
@@ -250,14 +300,22 @@ public class MessagingController {
      * Remove reaction from message
      */
     @DeleteMapping("/conversations/{conversationId}/messages/{messageId}/reactions/{emoji}")
-    public ResponseEntity<MessageDTO> removeReaction(
+    public ResponseEntity<ReactionDeltaDTO> removeReaction(
             @PathVariable String conversationId,
             @PathVariable String messageId,
             @PathVariable String emoji,
             @RequestHeader("Authorization") String authHeader) {
         String userId = getUserIdFromToken(authHeader);
-        MessageDTO message = messagingService.removeReaction(conversationId, messageId, userId, emoji);
-        return ResponseEntity.ok(message);
+        ReactionDeltaDTO delta = messagingService.removeReaction(conversationId, messageId, userId, emoji);
+        broadcastReactionDelta(delta);
+        return ResponseEntity.ok(delta);
+    }
+
+    // Only real changes go out, so repeated clicks cost no frames
+    private void broadcastReactionDelta(ReactionDeltaDTO delta) {
+        if (delta.getDelta() != 0) {
+            messagingTemplate.convertAndSend("/topic/conversation/" + delta.getConversationId() + "/reactions", delta);
+        }
     }
 
     // INBOX STATS ENDPOINT (1 total)
@@ -277,15 +335,41 @@ public class MessagingController {
 
     /**
      * Endpoint 17: GET /api/messages/search
-     * Search messages
+     * Full-text search over the caller's conversations, best match first
      */
     @GetMapping("/search")
     public ResponseEntity<List<MessageDTO>> searchMessages(
             @RequestParam(name = "q") String query,
             @RequestParam(required = false) String conversationId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int offset,
             @RequestHeader("Authorization") String authHeader) {
         String userId = getUserIdFromToken(authHeader);
-        List<MessageDTO> results = messagingService.searchMessages(userId, query, conversationId);
+        List<MessageDTO> results = messagingService.searchMessages(userId, query, conversationId, limit, offset);
         return ResponseEntity.ok(results);
     }
+
+    // EXPORT ENDPOINT (1 total)
+
+    /**
+     * Endpoint 18: GET /api/messages/conversations/:conversationId/export
+     * Stream the full history, oldest first, as NDJSON (default) or CSV
+     */
+    @GetMapping("/conversations/{conversationId}/export")
+    public ResponseEntity<StreamingResponseBody> exportConversation(
+            @PathVariable String conversationId,
+            @RequestParam(defaultValue = ConversationExportService.FORMAT_NDJSON) String format,
+            @RequestHeader("Authorization") String authHeader) {
+        String userId = getUserIdFromToken(authHeader);
+        exportService.checkExport(conversationId, userId, format);
+
+        boolean csv = ConversationExportService.FORMAT_CSV.equals(format);
+        StreamingResponseBody body = out -> exportService.export(conversationId, format, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"conversation-" + conversationId + "." + format + "\"")
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .body(body);
+    }
 }
@@ -17,6 +17,8 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5000", "http://localhost:5173"})
 public class NotificationController {
     
+    private static final String CURSOR_NEXT_HEADER = "X-Next-Cursor";
+
     private final NotificationService notificationService;
     
     public NotificationController(NotificationService notificationService) {
@@ -84,6 +86,33 @@ public class NotificationController {
         }
     }
     
+    /**
+     * Inbox page, newest first, optionally filtered by read state and type. Pass the
+     * X-Next-Cursor response header back as cursor to load the next page.
+     */
+    @GetMapping("/{userId}/inbox")
+    public ResponseEntity<?> getInbox(
+            @PathVariable String userId,
+            @RequestParam(required = false) Boolean read,
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            NotificationService.NotificationPage page = notificationService.getInbox(userId, read, type, cursor,
+                    limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CURSOR_NEXT_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     /**
      * Get unread notification count
      */
@@ -2,8 +2,10 @@ package com.lifeflow.backend.controller;
 
 import com.lifeflow.backend.model.Page;
 import com.lifeflow.backend.repository.PageRepository;
+import com.lifeflow.backend.services.PageBodyService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -15,9 +17,11 @@ import java.util.Optional;
 public class PageController {
 
     private final PageRepository repository;
+    private final PageBodyService pageBodyService;
 
-    public PageController(PageRepository repository) {
+    public PageController(PageRepository repository, PageBodyService pageBodyService) {
         this.repository = repository;
+        this.pageBodyService = pageBodyService;
     }
 
     @GetMapping
@@ -36,6 +40,7 @@ public class PageController {
     }
 
     @PostMapping
+    @Transactional
     public ResponseEntity<?> savePage(@RequestBody Page page,
             @RequestHeader(value = "X-User-Id", required = false) String headerUserId) {
         if (headerUserId == null || headerUserId.isEmpty()) {
@@ -43,6 +48,18 @@ public class PageController {
                     .body(Map.of("error", "User ID is required to create pages"));
         }
 
+        Optional<Page> existingOpt = page.getId() != null ? repository.findById(page.getId()) : Optional.empty();
+        if (existingOpt.isPresent()) {
+            Page existingPage = existingOpt.get();
+            if (existingPage.getUserId() != null && !existingPage.getUserId().equals(headerUserId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "You don't have permission to modify this page"));
+            }
+            // The editor saves existing pages here too; keep shared clone content copy-on-write
+            page.setUserId(headerUserId);
+            return ResponseEntity.ok(pageBodyService.updatePage(existingPage, page));
+        }
+
         page.setUserId(headerUserId);
         return ResponseEntity.ok(repository.save(page));
     }
@@ -68,6 +85,7 @@ public class PageController {
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> updatePage(@PathVariable String id,
             @RequestBody Page updatedPage,
             @RequestHeader(value = "X-User-Id", required = false) String headerUserId) {
@@ -87,7 +105,8 @@ public class PageController {
 
         updatedPage.setId(id);
         updatedPage.setUserId(existingPage.getUserId());
-        return ResponseEntity.ok(repository.save(updatedPage));
+        // Cloned pages share their content until this edit changes it
+        return ResponseEntity.ok(pageBodyService.updatePage(existingPage, updatedPage));
     }
 
     @DeleteMapping("/{id}")
@@ -9,6 +9,7 @@ import com.lifeflow.backend.repository.UserRepository;
 import com.lifeflow.backend.repository.UserPreferencesRepository;
 import com.lifeflow.backend.repository.WorkspaceSettingsRepository;
 import com.lifeflow.backend.repository.TeamspaceRepository;
+import com.lifeflow.backend.services.UserSummaryResolver;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,16 +27,19 @@ public class SettingsController {
     private final UserPreferencesRepository userPreferencesRepository;
     private final WorkspaceSettingsRepository workspaceSettingsRepository;
     private final TeamspaceRepository teamspaceRepository;
+    private final UserSummaryResolver userSummaryResolver;
 
     public SettingsController(
             UserRepository userRepository,
             UserPreferencesRepository userPreferencesRepository,
             WorkspaceSettingsRepository workspaceSettingsRepository,
-            TeamspaceRepository teamspaceRepository) {
+            TeamspaceRepository teamspaceRepository,
+            UserSummaryResolver userSummaryResolver) {
         this.userRepository = userRepository;
         this.userPreferencesRepository = userPreferencesRepository;
         this.workspaceSettingsRepository = workspaceSettingsRepository;
         this.teamspaceRepository = teamspaceRepository;
+        this.userSummaryResolver = userSummaryResolver;
     }
 
     // ==================== ACCOUNT SETTINGS ====================
@@ -81,6 +85,7 @@ public class SettingsController {
         }
 
         User updatedUser = userRepository.save(user);
+        userSummaryResolver.invalidate(updatedUser.getId());
         
         AccountSettingsDTO response = AccountSettingsDTO.builder()
                 .id(updatedUser.getId())
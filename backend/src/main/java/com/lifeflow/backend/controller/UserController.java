@@ -1,12 +1,16 @@
 package com.lifeflow.backend.controller;
 
+import com.lifeflow.backend.dto.UserProfileDTO;
 import com.lifeflow.backend.model.FeedItem;
 import com.lifeflow.backend.model.User;
-import com.lifeflow.backend.repository.CommentRepository;
 import com.lifeflow.backend.repository.FeedItemRepository;
 import com.lifeflow.backend.repository.UserRepository;
+import com.lifeflow.backend.services.FeedStreamWriter;
+import com.lifeflow.backend.services.UserSummaryResolver;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -20,15 +24,18 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final FeedItemRepository feedItemRepository;
-    private final CommentRepository commentRepository;
+    private final UserSummaryResolver userSummaryResolver;
+    private final FeedStreamWriter feedStreamWriter;
 
     public UserController(
             UserRepository userRepository,
             FeedItemRepository feedItemRepository,
-            CommentRepository commentRepository) {
+            UserSummaryResolver userSummaryResolver,
+            FeedStreamWriter feedStreamWriter) {
         this.userRepository = userRepository;
         this.feedItemRepository = feedItemRepository;
-        this.commentRepository = commentRepository;
+        this.userSummaryResolver = userSummaryResolver;
+        this.feedStreamWriter = feedStreamWriter;
     }
 
     @GetMapping("/{id}")
@@ -57,13 +64,12 @@ public class UserController {
                 .filter(item -> "template".equals(item.getType()))
                 .toList();
 
-        for (FeedItem item : templates) {
-            item.setCommentCount(commentRepository.countByFeedItemId(item.getId()));
-        }
-
         return ResponseEntity.ok(templates);
     }
 
+    /**
+     * Public profile with all of the user's posts, streamed page by page as they are read.
+     */
     @GetMapping("/{id}/profile")
     public ResponseEntity<?> getUserProfile(@PathVariable String id) {
         Optional<User> userOpt = userRepository.findById(id);
@@ -71,18 +77,11 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
 
-        User user = userOpt.get();
-        List<FeedItem> feedItems = feedItemRepository.findByAuthorIdOrderByCreatedAtDesc(id);
-
-        for (FeedItem item : feedItems) {
-            item.setCommentCount(commentRepository.countByFeedItemId(item.getId()));
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("user", user);
-        response.put("posts", feedItems);
-
-        return ResponseEntity.ok(response);
+        UserProfileDTO user = UserProfileDTO.of(userOpt.get());
+        StreamingResponseBody body = out -> feedStreamWriter.writeProfile(user, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
@@ -100,7 +99,9 @@ public class UserController {
         if (payload.containsKey("avatar"))
             user.setAvatar(payload.get("avatar"));
 
-        return ResponseEntity.ok(userRepository.save(user));
+        User saved = userRepository.save(user);
+        userSummaryResolver.invalidate(saved.getId());
+        return ResponseEntity.ok(saved);
     }
 
     @GetMapping("/by-email")
@@ -0,0 +1,28 @@
+package com.lifeflow.backend.dto;
+
+import com.lifeflow.backend.model.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * A comment as returned by the comment endpoints. Replies are not embedded; a thread
+ * carries its replyCount and replies are paged separately.
+ */
+public record CommentDTO(
+        String id,
+        String text,
+        FeedAuthorDTO author,
+        LocalDateTime createdAt,
+        String parentId,
+        int replyCount) {
+
+    public static CommentDTO of(Comment comment) {
+        return new CommentDTO(
+                comment.getId(),
+                comment.getText(),
+                FeedAuthorDTO.of(comment.getAuthor()),
+                comment.getCreatedAt(),
+                comment.getParentId(),
+                comment.getReplyCount());
+    }
+}
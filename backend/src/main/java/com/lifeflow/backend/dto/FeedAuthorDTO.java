@@ -0,0 +1,22 @@
+package com.lifeflow.backend.dto;
+
+import com.lifeflow.backend.model.User;
+
+/**
+ * Author block embedded in feed responses. Posts without an author render as Anonymous.
+ */
+public record FeedAuthorDTO(String id, String name, String email, String avatar) {
+
+    public static final FeedAuthorDTO ANONYMOUS = new FeedAuthorDTO("", "Anonymous", "anonymous@example.com", "AN");
+
+    public static FeedAuthorDTO of(User author) {
+        if (author == null) {
+            return ANONYMOUS;
+        }
+        String name = author.getName();
+        String avatar = author.getAvatar() != null ? author.getAvatar()
+                : name != null && !name.isEmpty() ? name.substring(0, Math.min(2, name.length())).toUpperCase()
+                : ANONYMOUS.avatar();
+        return new FeedAuthorDTO(author.getId(), author.getName(), author.getEmail(), avatar);
+    }
+}
@@ -0,0 +1,31 @@
+package com.lifeflow.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One feed card: the post, its author and counters, and whether the viewer liked it.
+ */
+public record FeedItemDTO(
+        String id,
+        String title,
+        String description,
+        String type,
+        String sourcePageId,
+        List<String> tags,
+        LocalDateTime createdAt,
+        FeedAuthorDTO author,
+        int likes,
+        @JsonProperty("isLiked") boolean isLiked,
+        int commentCount) {
+
+    public FeedItemDTO withLiked(boolean liked) {
+        if (liked == isLiked) {
+            return this;
+        }
+        return new FeedItemDTO(id, title, description, type, sourcePageId, tags, createdAt, author, likes, liked,
+                commentCount);
+    }
+}
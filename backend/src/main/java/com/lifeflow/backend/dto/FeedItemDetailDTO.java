@@ -0,0 +1,61 @@
+package com.lifeflow.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Single post view. content is the source page's stored editor JSON, written into the
+ * response verbatim rather than parsed and re-escaped as a string.
+ */
+public record FeedItemDetailDTO(
+        String id,
+        String title,
+        String description,
+        String type,
+        String sourcePageId,
+        List<String> tags,
+        LocalDateTime createdAt,
+        FeedAuthorDTO author,
+        int likes,
+        @JsonProperty("isLiked") boolean isLiked,
+        int commentCount,
+        @JsonRawValue String content,
+        String icon,
+        String coverImage) {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Prepare stored page content for raw output. Editor JSON (an array or object) passes
+     * through untouched; anything else, including truncated or malformed JSON, is quoted so
+     * the response stays valid JSON.
+     */
+    public static String rawContent(String content) {
+        if (content == null) {
+            return null;
+        }
+        String trimmed = content.strip();
+        if ((trimmed.startsWith("[") || trimmed.startsWith("{")) && isSingleJsonValue(trimmed)) {
+            return trimmed;
+        }
+        return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(content)) + "\"";
+    }
+
+    // Streams the tokens without building a tree; trailing content after the value is rejected
+    private static boolean isSingleJsonValue(String text) {
+        try (JsonParser parser = JSON_FACTORY.createParser(text)) {
+            parser.nextToken();
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -13,7 +13,9 @@ public class MessageDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Boolean isEdited;
-    private List<MessageReactionDTO> reactions;
+    private List<ReactionSummaryDTO> reactionSummary;
+    // Set only on WebSocket broadcasts, so the sender can match its optimistic copy
+    private String clientMessageId;
 
     public MessageDTO() {
     }
@@ -98,11 +100,19 @@ public class MessageDTO {
         this.isEdited = isEdited;
     }
 
-    public List<MessageReactionDTO> getReactions() {
-        return reactions;
+    public List<ReactionSummaryDTO> getReactionSummary() {
+        return reactionSummary;
     }
 
-    public void setReactions(List<MessageReactionDTO> reactions) {
-        this.reactions = reactions;
+    public void setReactionSummary(List<ReactionSummaryDTO> reactionSummary) {
+        this.reactionSummary = reactionSummary;
+    }
+
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
     }
 }
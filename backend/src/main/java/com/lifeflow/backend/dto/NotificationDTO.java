@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,4 +25,6 @@ public class NotificationDTO {
     private Boolean isRead;
     private String createdAt;
     private String readAt;
+    private Integer actorCount;
+    private List<String> recentActorIds;
 }
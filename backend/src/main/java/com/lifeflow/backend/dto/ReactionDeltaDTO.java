@@ -0,0 +1,65 @@
+package com.lifeflow.backend.dto;
+
+/**
+ * Change to one emoji count on one message, broadcast on /topic/conversation/{id}/reactions.
+ * A delta of 0 means the request was a no-op (already reacted, or nothing to remove).
+ */
+public class ReactionDeltaDTO {
+    private String conversationId;
+    private String messageId;
+    private String userId;
+    private String emoji;
+    private Integer delta;
+
+    public ReactionDeltaDTO() {
+    }
+
+    public ReactionDeltaDTO(String conversationId, String messageId, String userId, String emoji, Integer delta) {
+        this.conversationId = conversationId;
+        this.messageId = messageId;
+        this.userId = userId;
+        this.emoji = emoji;
+        this.delta = delta;
+    }
+
+    // Getters and Setters
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    public void setConversationId(String conversationId) {
+        this.conversationId = conversationId;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public void setEmoji(String emoji) {
+        this.emoji = emoji;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,44 @@
+package com.lifeflow.backend.dto;
+
+/**
+ * Aggregated reactions for one emoji on one message.
+ */
+public class ReactionSummaryDTO {
+    private String emoji;
+    private Long count;
+    private Boolean reactedByMe;
+
+    public ReactionSummaryDTO() {
+    }
+
+    public ReactionSummaryDTO(String emoji, Long count, Boolean reactedByMe) {
+        this.emoji = emoji;
+        this.count = count;
+        this.reactedByMe = reactedByMe;
+    }
+
+    // Getters and Setters
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public void setEmoji(String emoji) {
+        this.emoji = emoji;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Boolean getReactedByMe() {
+        return reactedByMe;
+    }
+
+    public void setReactedByMe(Boolean reactedByMe) {
+        this.reactedByMe = reactedByMe;
+    }
+}
@@ -2,6 +2,7 @@ package com.lifeflow.backend.dto;
 
 public class SendMessageRequest {
     private String content;
+    private String clientMessageId; // optional, echoed back in WebSocket acknowledgements
 
     public SendMessageRequest() {
     }
@@ -17,4 +18,12 @@ public class SendMessageRequest {
     public void setContent(String content) {
         this.content = content;
     }
+
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
 }
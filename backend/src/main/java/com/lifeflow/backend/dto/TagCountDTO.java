@@ -0,0 +1,7 @@
+package com.lifeflow.backend.dto;
+
+/**
+ * A tag and the number of posts carrying it.
+ */
+public record TagCountDTO(String tag, long count) {
+}
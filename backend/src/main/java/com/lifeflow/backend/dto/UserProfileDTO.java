@@ -0,0 +1,22 @@
+package com.lifeflow.backend.dto;
+
+import com.lifeflow.backend.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public profile fields of a user; never carries credentials or role.
+ */
+public record UserProfileDTO(
+        String id,
+        String name,
+        String email,
+        String avatar,
+        String bio,
+        LocalDateTime createdAt) {
+
+    public static UserProfileDTO of(User user) {
+        return new UserProfileDTO(user.getId(), user.getName(), user.getEmail(), user.getAvatar(), user.getBio(),
+                user.getCreatedAt());
+    }
+}
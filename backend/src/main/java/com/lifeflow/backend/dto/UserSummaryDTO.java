@@ -0,0 +1,36 @@
+package com.lifeflow.backend.dto;
+
+/**
+ * Immutable snapshot of the user fields shown next to messages and conversations.
+ * Safe to share across requests from UserSummaryResolver's cache.
+ */
+public final class UserSummaryDTO {
+    private final String id;
+    private final String name;
+    private final String email;
+    private final String avatar;
+
+    public UserSummaryDTO(String id, String name, String email, String avatar) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.avatar = avatar;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getAvatar() {
+        return avatar;
+    }
+}
@@ -0,0 +1,64 @@
+package com.lifeflow.backend.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published whenever a feed item is created, deleted, liked or commented on.
+ * Listeners that cache feed data use it to drop what the change made stale; delta is
+ * +1 for a like or comment added and -1 for one taken back. occurredAt holds the times of the
+ * likes or comments taken back, so time-weighted listeners can remove exactly what they added;
+ * it is empty when the change happens now.
+ */
+public class FeedItemChangedEvent {
+
+    public enum Change {
+        CREATED,
+        DELETED,
+        LIKED,
+        COMMENTED
+    }
+
+    private final String feedItemId;
+    private final String authorId;
+    private final Change change;
+    private final int delta;
+    private final List<LocalDateTime> occurredAt;
+
+    public FeedItemChangedEvent(String feedItemId, String authorId, Change change) {
+        this(feedItemId, authorId, change, 1);
+    }
+
+    public FeedItemChangedEvent(String feedItemId, String authorId, Change change, int delta) {
+        this(feedItemId, authorId, change, delta, List.of());
+    }
+
+    public FeedItemChangedEvent(String feedItemId, String authorId, Change change, int delta,
+            List<LocalDateTime> occurredAt) {
+        this.feedItemId = feedItemId;
+        this.authorId = authorId;
+        this.change = change;
+        this.delta = delta;
+        this.occurredAt = occurredAt;
+    }
+
+    public String getFeedItemId() {
+        return feedItemId;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public List<LocalDateTime> getOccurredAt() {
+        return occurredAt;
+    }
+}
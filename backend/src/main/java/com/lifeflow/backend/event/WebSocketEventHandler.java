@@ -1,34 +1,29 @@
 package com.lifeflow.backend.event;
 
+import com.lifeflow.backend.services.PresenceService;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.security.Principal;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * WebSocket Event Handler
- * Manages user connection and disconnection events
+ * Feeds user connection and disconnection events into the PresenceService
  */
 @Component
 public class WebSocketEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventHandler.class);
     
-    private final SimpMessagingTemplate messagingTemplate;
-    
-    // Track online users: userId -> sessionId
-    private final Map<String, String> connectedUsers = new ConcurrentHashMap<>();
+    private final PresenceService presenceService;
 
-    public WebSocketEventHandler(SimpMessagingTemplate messagingTemplate) {
-        this.messagingTemplate = messagingTemplate;
+    public WebSocketEventHandler(PresenceService presenceService) {
+        this.presenceService = presenceService;
     }
 
     /**
@@ -42,11 +37,8 @@ public class WebSocketEventHandler {
             
             if (principal != null) {
                 String userId = principal.getName();
-                connectedUsers.put(userId, sessionId);
-                logger.info("User connected: {} with session: {}", userId, sessionId);
-                
-                // Notify others that user is online
-                broadcastUserStatus(userId, "online");
+                presenceService.sessionConnected(userId, sessionId);
+                logger.debug("User connected: {} with session: {}", userId, sessionId);
             }
         } catch (Exception e) {
             logger.error("Error handling WebSocket connect", e);
@@ -60,15 +52,12 @@ public class WebSocketEventHandler {
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         try {
             Principal principal = event.getUser();
-            String sessionId = event.getMessage().getHeaders().get("simpSessionId", String.class);
+            String sessionId = event.getSessionId();
             
             if (principal != null) {
                 String userId = principal.getName();
-                connectedUsers.remove(userId);
-                logger.info("User disconnected: {} from session: {}", userId, sessionId);
-                
-                // Notify others that user is offline
-                broadcastUserStatus(userId, "offline");
+                presenceService.sessionDisconnected(userId, sessionId);
+                logger.debug("User disconnected: {} from session: {}", userId, sessionId);
             }
         } catch (Exception e) {
             logger.error("Error handling WebSocket disconnect", e);
@@ -79,28 +68,6 @@ public class WebSocketEventHandler {
      * Check if a user is online
      */
     public boolean isUserOnline(String userId) {
-        return connectedUsers.containsKey(userId);
-    }
-
-    /**
-     * Get all connected users
-     */
-    public Map<String, String> getConnectedUsers() {
-        return new ConcurrentHashMap<>(connectedUsers);
-    }
-
-    /**
-     * Broadcast user status to all connected clients
-     */
-    private void broadcastUserStatus(String userId, String status) {
-        try {
-            Map<String, String> statusUpdate = new ConcurrentHashMap<>();
-            statusUpdate.put("userId", userId);
-            statusUpdate.put("status", status);
-            
-            messagingTemplate.convertAndSend("/topic/users/status", statusUpdate);
-        } catch (Exception e) {
-            logger.error("Error broadcasting user status", e);
-        }
+        return presenceService.isOnline(userId);
     }
 }
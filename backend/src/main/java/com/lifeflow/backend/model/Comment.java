@@ -3,13 +3,16 @@ package com.lifeflow.backend.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_feed_item_parent_created", columnList = "feed_item_id, parent_id, created_at, id")
+})
 public class Comment {
 
     @Id
@@ -19,7 +22,9 @@ public class Comment {
     @Column(columnDefinition = "TEXT")
     private String text;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Loaded with a fetch join by the paged queries in CommentRepository
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
 
@@ -28,6 +33,17 @@ public class Comment {
     @JoinColumn(name = "feed_item_id")
     private FeedItem feedItem;
 
+    // Top-level comment this one replies to; null for top-level comments.
+    // Threads are one level deep, replies to replies attach to the same top-level comment.
+    @Column(name = "parent_id")
+    private String parentId;
+
+    // Denormalized number of replies, kept in step by CommentRepository.adjustReplyCount
+    // and corrected by FeedCounterReconciler
+    @ColumnDefault("0")
+    @Column(name = "reply_count", nullable = false)
+    private int replyCount;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 }
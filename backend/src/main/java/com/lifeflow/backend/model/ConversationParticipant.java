@@ -1,10 +1,14 @@
 package com.lifeflow.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "conversation_participants")
+@Table(name = "conversation_participants", indexes = {
+        @Index(name = "idx_participants_conversation_user", columnList = "conversation_id, user_id"),
+        @Index(name = "idx_participants_user", columnList = "user_id")
+})
 public class ConversationParticipant {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -26,6 +30,11 @@ public class ConversationParticipant {
     @Column(name = "is_pinned", nullable = false)
     private Boolean isPinned = false;
 
+    // Maintained with atomic UPDATEs by MessagingService, never read-modify-write
+    @ColumnDefault("0")
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+
     public ConversationParticipant() {
     }
 
@@ -82,4 +91,12 @@ public class ConversationParticipant {
     public void setIsPinned(Boolean isPinned) {
         this.isPinned = isPinned;
     }
+
+    public Integer getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
 }
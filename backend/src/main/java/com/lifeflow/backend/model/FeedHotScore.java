@@ -0,0 +1,31 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpointed hot-ranking score of a feed item, written periodically by HotRankingService
+ * so a restart reloads scores instead of recomputing them from every like and comment.
+ */
+@Data
+@Entity
+@Table(name = "feed_hot_scores")
+public class FeedHotScore {
+
+    @Id
+    @Column(name = "feed_item_id")
+    private String feedItemId;
+
+    // Natural log of the decayed engagement, see HotRankingService
+    @Column(nullable = false)
+    private double score;
+
+    // Lower bound the score never drops below: the post's own creation weight
+    @Column(name = "floor_score", nullable = false)
+    private double floorScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -3,6 +3,7 @@ package com.lifeflow.backend.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -10,7 +11,10 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "feed_items")
+@Table(name = "feed_items", indexes = {
+        @Index(name = "idx_feed_items_created", columnList = "created_at, id"),
+        @Index(name = "idx_feed_items_author_created", columnList = "author_id, created_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class FeedItem {
 
@@ -24,8 +28,16 @@ public class FeedItem {
     private String description;
     
     private String type;
+
+    // Denormalized counters, kept in step by FeedItemRepository's atomic updates
+    // (likes via FeedLikeCounter's batched flush) and corrected by FeedCounterReconciler
+    @ColumnDefault("0")
     private int likes;
 
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false)
+    private int commentCount;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "author_id")
     private User author;
@@ -37,7 +49,4 @@ public class FeedItem {
 
     @CreationTimestamp
     private LocalDateTime createdAt;
-    
-    @Transient
-    private int commentCount;
 }
@@ -0,0 +1,36 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tag index entry: one normalized tag on one feed item.
+ * Maintained by TagIndexService alongside FeedItem.tags; createdAt is the post's own
+ * timestamp so a tag page is a single range scan over idx_feed_tag_index_tag_created.
+ */
+@Data
+@Entity
+@Table(name = "feed_tag_index", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_feed_tag_index_tag_item", columnNames = { "tag", "feed_item_id" })
+}, indexes = {
+        @Index(name = "idx_feed_tag_index_tag_created", columnList = "tag, created_at, feed_item_id"),
+        @Index(name = "idx_feed_tag_index_feed_item", columnList = "feed_item_id"),
+        @Index(name = "idx_feed_tag_index_created", columnList = "created_at")
+})
+public class FeedItemTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String tag;
+
+    @Column(name = "feed_item_id", nullable = false)
+    private String feedItemId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
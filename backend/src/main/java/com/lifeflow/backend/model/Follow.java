@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "follows", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "follower_id", "following_id" })
+}, indexes = {
+        @Index(name = "idx_follows_following_muted_follower", columnList = "following_id, is_muted, follower_id")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,38 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One feed item in one user's materialized home timeline.
+ * Written by HomeTimelineService when followed authors post; createdAt is the post's own
+ * timestamp so a timeline page is a single range scan over idx_home_timeline_user_created.
+ */
+@Data
+@Entity
+@Table(name = "home_timeline", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_home_timeline_user_item", columnNames = { "user_id", "feed_item_id" })
+}, indexes = {
+        @Index(name = "idx_home_timeline_user_created", columnList = "user_id, created_at, feed_item_id"),
+        @Index(name = "idx_home_timeline_feed_item", columnList = "feed_item_id")
+})
+public class HomeTimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "feed_item_id", nullable = false)
+    private String feedItemId;
+
+    @Column(name = "author_id", nullable = false)
+    private String authorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
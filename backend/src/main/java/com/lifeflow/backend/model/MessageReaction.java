@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+// One reaction per (message, user, emoji) is enforced by uk_message_reactions_message_user_emoji in db/indexes.sql
 @Table(name = "message_reactions")
 public class MessageReaction {
     @Id
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import com.lifeflow.backend.enums.NotificationType;
 
@@ -13,9 +14,10 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "notifications", indexes = {
-        @Index(name = "idx_recipient", columnList = "recipient_id"),
-        @Index(name = "idx_is_read", columnList = "is_read"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        @Index(name = "idx_notifications_recipient_created", columnList = "recipient_id, created_at, id"),
+        @Index(name = "idx_notifications_recipient_read_created", columnList = "recipient_id, is_read, created_at, id"),
+        @Index(name = "idx_notifications_recipient_type_created", columnList = "recipient_id, type, created_at, id"),
+        @Index(name = "idx_notifications_type_created", columnList = "type, created_at")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,4 +59,14 @@ public class Notification {
 
     @Column(name = "read_at")
     private LocalDateTime readAt;
+
+    // Coalesced notifications: how many distinct actors the row stands for, and the ids of the
+    // most recent ones (newest first, comma-separated). See NotificationAggregator.
+    @Column(name = "actor_count", nullable = false)
+    @ColumnDefault("1")
+    @Builder.Default
+    private Integer actorCount = 1;
+
+    @Column(name = "recent_actor_ids", columnDefinition = "TEXT")
+    private String recentActorIds;
 }
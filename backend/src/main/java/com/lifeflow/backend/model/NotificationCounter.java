@@ -0,0 +1,25 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Per-user unread notification count, maintained by UnreadNotificationCounter alongside every
+ * change to a notification's read state. version increases with every change so cached copies
+ * can tell which of two values is newer.
+ */
+@Data
+@Entity
+@Table(name = "user_notification_counters")
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+
+    @Column(nullable = false)
+    private long version;
+}
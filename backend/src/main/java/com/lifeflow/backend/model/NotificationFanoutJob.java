@@ -0,0 +1,53 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one new-post notification fan-out, written by NotificationFanoutService.
+ * Followers are visited in follower_id order; lastFollowerId and sentCount advance in the
+ * same transaction as each chunk of notifications, so a restarted job resumes exactly
+ * after the last committed chunk.
+ */
+@Data
+@Entity
+@Table(name = "notification_fanout_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notification_fanout_jobs_feed_item", columnNames = { "feed_item_id" })
+}, indexes = {
+        @Index(name = "idx_notification_fanout_jobs_status_updated", columnList = "status, updated_at")
+})
+public class NotificationFanoutJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+
+    @Id
+    private String id;
+
+    @Column(name = "feed_item_id", nullable = false)
+    private String feedItemId;
+
+    @Column(name = "author_id", nullable = false)
+    private String authorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "last_follower_id")
+    private String lastFollowerId;
+
+    @Column(name = "sent_count", nullable = false)
+    private long sentCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
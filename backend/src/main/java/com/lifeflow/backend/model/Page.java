@@ -1,8 +1,11 @@
 package com.lifeflow.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -31,6 +34,19 @@ public class Page {
     @Column(columnDefinition = "TEXT")
     private String editorContentJson;
 
+    // Set on cloned pages: blocks and cover image live in a shared PageBody instead of the
+    // columns above until the clone is first edited (copy-on-write, see PageBodyService)
+    @JsonIgnore
+    @Column(name = "body_hash", length = 64)
+    private String bodyHash;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "body_hash", insertable = false, updatable = false)
+    private PageBody body;
+
     private String parentId;
 
     private boolean favorite = false;
@@ -41,4 +57,12 @@ public class Page {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    public String getCoverImage() {
+        return coverImage == null && body != null ? body.getCoverImage() : coverImage;
+    }
+
+    public String getBlocksJson() {
+        return blocksJson == null && body != null ? body.getBlocksJson() : blocksJson;
+    }
+}
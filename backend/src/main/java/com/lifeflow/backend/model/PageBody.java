@@ -0,0 +1,35 @@
+package com.lifeflow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed page content shared by cloned pages.
+ * Keyed by the SHA-256 of its blocks and cover image; refCount is the number of pages
+ * pointing at it, and the row is removed once that reaches zero. See PageBodyService.
+ */
+@Data
+@Entity
+@Table(name = "page_bodies")
+@BatchSize(size = 50)
+public class PageBody {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "blocks_json", columnDefinition = "TEXT")
+    private String blocksJson;
+
+    @Column(name = "cover_image", columnDefinition = "TEXT")
+    private String coverImage;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,11 +1,56 @@
 package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, String> {
     List<Comment> findByFeedItemIdOrderByCreatedAtDesc(String feedItemId);
     int countByFeedItemId(String feedItemId);
+
+    // Top-level comments of a post, newest first, keyset over (createdAt, id) with authors fetched
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.author WHERE c.feedItem.id = :feedItemId "
+            + "AND c.parentId IS NULL ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestTopLevel(@Param("feedItemId") String feedItemId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.author WHERE c.feedItem.id = :feedItemId "
+            + "AND c.parentId IS NULL "
+            + "AND c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelBefore(@Param("feedItemId") String feedItemId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    // Replies to one comment, oldest first so a thread reads in order
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.author WHERE c.feedItem.id = :feedItemId "
+            + "AND c.parentId = :parentId ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findFirstReplies(@Param("feedItemId") String feedItemId, @Param("parentId") String parentId,
+            Pageable pageable);
+
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.author WHERE c.feedItem.id = :feedItemId "
+            + "AND c.parentId = :parentId "
+            + "AND c.createdAt >= :createdAt AND (c.createdAt > :createdAt OR c.id > :id) "
+            + "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesAfter(@Param("feedItemId") String feedItemId, @Param("parentId") String parentId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :id")
+    int adjustReplyCount(@Param("id") String id, @Param("delta") int delta);
+
+    @Query("SELECT c.createdAt FROM Comment c WHERE c.feedItem.id = :feedItemId AND c.parentId = :parentId")
+    List<LocalDateTime> findReplyTimes(@Param("feedItemId") String feedItemId, @Param("parentId") String parentId);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.feedItem.id = :feedItemId AND c.parentId = :parentId")
+    int deleteReplies(@Param("feedItemId") String feedItemId, @Param("parentId") String parentId);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.feedItem.id = :feedItemId")
+    int deleteByFeedItemId(@Param("feedItemId") String feedItemId);
 }
@@ -2,6 +2,7 @@ package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.ConversationParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -15,4 +16,19 @@ public interface ConversationParticipantRepository extends JpaRepository<Convers
 
     @Query("SELECT cp FROM ConversationParticipant cp WHERE cp.conversation.id = ?1 AND cp.userId = ?2")
     Optional<ConversationParticipant> findByConversationIdAndUserId(String conversationId, String userId);
+
+    @Query("SELECT cp.userId FROM ConversationParticipant cp WHERE cp.conversation.id = ?1")
+    List<String> findUserIdsByConversationId(String conversationId);
+
+    @Modifying
+    @Query("UPDATE ConversationParticipant cp SET cp.unreadCount = cp.unreadCount + 1 WHERE cp.conversation.id = ?1 AND cp.userId <> ?2")
+    int incrementUnreadCount(String conversationId, String senderId);
+
+    @Modifying
+    @Query("UPDATE ConversationParticipant cp SET cp.unreadCount = 0 WHERE cp.conversation.id = ?1 AND cp.userId = ?2")
+    int resetUnreadCount(String conversationId, String userId);
+
+    @Query("SELECT COUNT(cp) AS conversations, COALESCE(SUM(cp.unreadCount), 0) AS unread FROM ConversationParticipant cp "
+            + "WHERE cp.userId = ?1 AND cp.conversation.isArchived = false")
+    InboxCountsProjection getInboxCounts(String userId);
 }
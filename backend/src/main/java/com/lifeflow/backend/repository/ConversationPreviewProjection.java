@@ -0,0 +1,33 @@
+package com.lifeflow.backend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row returned by ConversationRepository.findPreviewsByUserId.
+ * One row per conversation, with the partner, latest message and participant count already joined in.
+ */
+public interface ConversationPreviewProjection {
+    String getId();
+
+    String getType();
+
+    String getName();
+
+    String getAvatar();
+
+    Boolean getIsPinned();
+
+    Integer getUnreadCount();
+
+    Long getParticipantCount();
+
+    String getPartnerName();
+
+    String getPartnerAvatar();
+
+    String getLastMessage();
+
+    LocalDateTime getLastMessageAt();
+
+    String getLastMessageAuthor();
+}
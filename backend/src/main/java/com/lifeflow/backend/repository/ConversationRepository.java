@@ -14,5 +14,23 @@ public interface ConversationRepository extends JpaRepository<Conversation, Stri
 
     @Query("SELECT c FROM Conversation c JOIN c.participants p WHERE p.userId = ?1 AND c.type = 'direct' AND EXISTS (SELECT 1 FROM ConversationParticipant cp WHERE cp.conversation = c AND cp.userId = ?2)")
     Conversation findDirectConversation(String userId1, String userId2);
+
+    @Query(value = "SELECT c.id AS \"id\", c.type AS \"type\", c.name AS \"name\", c.avatar AS \"avatar\", "
+            + "cp.is_pinned AS \"isPinned\", cp.unread_count AS \"unreadCount\", "
+            + "(SELECT COUNT(*) FROM conversation_participants pc WHERE pc.conversation_id = c.id) AS \"participantCount\", "
+            + "partner.name AS \"partnerName\", partner.avatar AS \"partnerAvatar\", "
+            + "lm.content AS \"lastMessage\", lm.created_at AS \"lastMessageAt\", author.name AS \"lastMessageAuthor\" "
+            + "FROM conversations c "
+            + "JOIN conversation_participants cp ON cp.conversation_id = c.id AND cp.user_id = ?1 "
+            + "LEFT JOIN LATERAL (SELECT m.content, m.created_at, m.sender_id FROM messages m "
+            + "WHERE m.conversation_id = c.id ORDER BY m.created_at DESC, m.id DESC LIMIT 1) lm ON true "
+            + "LEFT JOIN users author ON author.id = lm.sender_id "
+            + "LEFT JOIN LATERAL (SELECT u.name, u.avatar FROM conversation_participants po "
+            + "JOIN users u ON u.id = po.user_id "
+            + "WHERE po.conversation_id = c.id AND po.user_id <> ?1 LIMIT 1) partner ON c.type = 'direct' "
+            + "WHERE c.is_archived = false "
+            + "ORDER BY c.updated_at DESC, c.id "
+            + "LIMIT ?2 OFFSET ?3", nativeQuery = true)
+    List<ConversationPreviewProjection> findPreviewsByUserId(String userId, int limit, int offset);
 }
 
@@ -1,10 +1,69 @@
 package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.FeedItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface FeedItemRepository extends JpaRepository<FeedItem, String> {
     List<FeedItem> findAllByOrderByCreatedAtDesc();
     List<FeedItem> findByAuthorIdOrderByCreatedAtDesc(String authorId);
-}
\ No newline at end of file
+
+    // Keyset pages over (createdAt, id), newest first, author fetched in the same query
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findLatest(Pageable pageable);
+
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author "
+            + "WHERE f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.id < :id) "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author WHERE f.author.id = :authorId "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findLatestByAuthor(@Param("authorId") String authorId, Pageable pageable);
+
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author WHERE f.author.id = :authorId "
+            + "AND f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.id < :id) "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findBeforeByAuthor(@Param("authorId") String authorId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author WHERE f.id IN :ids")
+    List<FeedItem> findWithAuthorByIdIn(@Param("ids") Collection<String> ids);
+
+    // Posts by several authors, used to merge high-follower authors into home timelines at read time
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author WHERE f.author.id IN :authorIds "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findLatestByAuthors(@Param("authorIds") Collection<String> authorIds, Pageable pageable);
+
+    @Query("SELECT f FROM FeedItem f LEFT JOIN FETCH f.author WHERE f.author.id IN :authorIds "
+            + "AND f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.id < :id) "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedItem> findBeforeByAuthors(@Param("authorIds") Collection<String> authorIds,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    // Counter updates are single-row atomic increments, so concurrent likes never lose updates
+    @Modifying
+    @Query("UPDATE FeedItem f SET f.likes = f.likes + :delta WHERE f.id = :id")
+    int adjustLikes(@Param("id") String id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE FeedItem f SET f.commentCount = f.commentCount + :delta WHERE f.id = :id")
+    int adjustCommentCount(@Param("id") String id, @Param("delta") int delta);
+
+    @Query("SELECT f.author.id FROM FeedItem f WHERE f.id = :id")
+    String findAuthorId(@Param("id") String id);
+
+    @Query("SELECT f.likes FROM FeedItem f WHERE f.id = :id")
+    Integer findLikes(@Param("id") String id);
+
+    // Tags for a whole page as (feedItemId, tag) rows
+    @Query("SELECT f.id, t FROM FeedItem f JOIN f.tags t WHERE f.id IN :ids")
+    List<Object[]> findTagsByFeedItemIds(@Param("ids") Collection<String> ids);
+}
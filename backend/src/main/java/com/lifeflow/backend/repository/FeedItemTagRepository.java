@@ -0,0 +1,38 @@
+package com.lifeflow.backend.repository;
+
+import com.lifeflow.backend.model.FeedItemTag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FeedItemTagRepository extends JpaRepository<FeedItemTag, String> {
+
+    @Query("SELECT t FROM FeedItemTag t WHERE t.tag = :tag ORDER BY t.createdAt DESC, t.feedItemId DESC")
+    List<FeedItemTag> findLatestByTag(@Param("tag") String tag, Pageable pageable);
+
+    @Query("SELECT t FROM FeedItemTag t WHERE t.tag = :tag "
+            + "AND t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.feedItemId < :feedItemId) "
+            + "ORDER BY t.createdAt DESC, t.feedItemId DESC")
+    List<FeedItemTag> findBeforeByTag(@Param("tag") String tag, @Param("createdAt") LocalDateTime createdAt,
+            @Param("feedItemId") String feedItemId, Pageable pageable);
+
+    List<FeedItemTag> findByFeedItemId(String feedItemId);
+
+    @Modifying
+    @Query("DELETE FROM FeedItemTag t WHERE t.feedItemId = :feedItemId")
+    int deleteByFeedItemId(@Param("feedItemId") String feedItemId);
+
+    // Posts per tag as (tag, count) rows, read from the index alone
+    @Query("SELECT t.tag, COUNT(t) FROM FeedItemTag t GROUP BY t.tag")
+    List<Object[]> countByTag();
+
+    @Query("SELECT t.tag, COUNT(t) FROM FeedItemTag t WHERE t.createdAt > :since GROUP BY t.tag")
+    List<Object[]> countByTagSince(@Param("since") LocalDateTime since);
+}
@@ -2,8 +2,14 @@ package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.FeedLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,27 @@ public interface FeedLikeRepository extends JpaRepository<FeedLike, String> {
     void deleteByFeedItemIdAndUserId(String feedItemId, String userId);
 
     boolean existsByFeedItemIdAndUserId(String feedItemId, String userId);
+
+    // Idempotent like: 1 if the like was added, 0 if it already existed (feed_item_id, user_id is unique)
+    @Modifying
+    @Query(value = "INSERT INTO feed_likes (id, feed_item_id, user_id, created_at) "
+            + "VALUES (:id, :feedItemId, :userId, :createdAt) "
+            + "ON CONFLICT (feed_item_id, user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("feedItemId") String feedItemId,
+            @Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt);
+
+    // Idempotent unlike: 1 if a like was removed, 0 if there was none
+    @Query("SELECT l.createdAt FROM FeedLike l WHERE l.feedItem.id = :feedItemId AND l.user.id = :userId")
+    Optional<LocalDateTime> findLikedAt(@Param("feedItemId") String feedItemId, @Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM FeedLike l WHERE l.feedItem.id = :feedItemId AND l.user.id = :userId")
+    int deleteLike(@Param("feedItemId") String feedItemId, @Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM FeedLike l WHERE l.feedItem.id = :feedItemId")
+    int deleteByFeedItemId(@Param("feedItemId") String feedItemId);
+
+    @Query("SELECT l.feedItem.id FROM FeedLike l WHERE l.user.id = :userId AND l.feedItem.id IN :ids")
+    List<String> findLikedFeedItemIds(@Param("userId") String userId, @Param("ids") Collection<String> ids);
 }
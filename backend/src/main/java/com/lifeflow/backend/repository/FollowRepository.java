@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +35,20 @@ public interface FollowRepository extends JpaRepository<Follow, String> {
     @Query("SELECT f.following FROM Follow f WHERE f.follower = :user AND f.isMuted = false")
     List<User> findActiveFollowingUsers(@Param("user") User user);
     
+    @Query("SELECT f.following.id FROM Follow f GROUP BY f.following.id HAVING COUNT(f) > :threshold")
+    List<String> findUserIdsWithMoreFollowersThan(@Param("threshold") long threshold);
+
+    @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :followerId AND f.isMuted = false "
+            + "AND f.following.id IN :userIds")
+    List<String> findActiveFollowingIdsAmong(@Param("followerId") String followerId,
+            @Param("userIds") Collection<String> userIds);
+
+    // One page of an author's unmuted followers in id order, after the last id of the previous page
+    @Query(value = "SELECT f.follower_id FROM follows f WHERE f.following_id = :authorId AND f.is_muted = false "
+            + "AND f.follower_id > :after ORDER BY f.follower_id LIMIT :limit", nativeQuery = true)
+    List<String> findActiveFollowerIdsAfter(@Param("authorId") String authorId, @Param("after") String after,
+            @Param("limit") int limit);
+
     @Query("SELECT f FROM Follow f WHERE f.follower = :user AND f.isMuted = true")
     List<Follow> findMutedFollows(@Param("user") User user);
     
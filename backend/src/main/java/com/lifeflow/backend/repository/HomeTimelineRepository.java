@@ -0,0 +1,65 @@
+package com.lifeflow.backend.repository;
+
+import com.lifeflow.backend.model.HomeTimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HomeTimelineRepository extends JpaRepository<HomeTimelineEntry, String> {
+
+    @Query("SELECT h FROM HomeTimelineEntry h WHERE h.userId = :userId "
+            + "ORDER BY h.createdAt DESC, h.feedItemId DESC")
+    List<HomeTimelineEntry> findLatest(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT h FROM HomeTimelineEntry h WHERE h.userId = :userId "
+            + "AND h.createdAt <= :createdAt AND (h.createdAt < :createdAt OR h.feedItemId < :feedItemId) "
+            + "ORDER BY h.createdAt DESC, h.feedItemId DESC")
+    List<HomeTimelineEntry> findBefore(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("feedItemId") String feedItemId, Pageable pageable);
+
+    // Fan-out on write: the author's own timeline plus every follower who has not muted them
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline (id, user_id, feed_item_id, author_id, created_at) "
+            + "SELECT gen_random_uuid()::text, r.user_id, :feedItemId, :authorId, :createdAt FROM ("
+            + "SELECT f.follower_id AS user_id FROM follows f WHERE f.following_id = :authorId AND f.is_muted = false "
+            + "UNION SELECT :authorId) r "
+            + "ON CONFLICT (user_id, feed_item_id) DO NOTHING", nativeQuery = true)
+    int fanOut(@Param("feedItemId") String feedItemId, @Param("authorId") String authorId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    // Copy an author's most recent posts into one follower's timeline (new follow or unmute)
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline (id, user_id, feed_item_id, author_id, created_at) "
+            + "SELECT gen_random_uuid()::text, :userId, i.id, i.author_id, i.created_at FROM feed_items i "
+            + "WHERE i.author_id = :authorId ORDER BY i.created_at DESC, i.id DESC LIMIT :limit "
+            + "ON CONFLICT (user_id, feed_item_id) DO NOTHING", nativeQuery = true)
+    int backfill(@Param("userId") String userId, @Param("authorId") String authorId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM HomeTimelineEntry h WHERE h.userId = :userId AND h.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") String userId, @Param("authorId") String authorId);
+
+    @Modifying
+    @Query("DELETE FROM HomeTimelineEntry h WHERE h.feedItemId = :feedItemId")
+    int deleteByFeedItemId(@Param("feedItemId") String feedItemId);
+
+    // Keep only the newest :cap entries of each listed user: one index probe per user finds the
+    // first entry past the cap, and everything at or below it goes
+    @Modifying
+    @Query(value = "DELETE FROM home_timeline h USING ("
+            + "SELECT c.user_id, c.created_at, c.feed_item_id FROM users u CROSS JOIN LATERAL ("
+            + "SELECT t.user_id, t.created_at, t.feed_item_id FROM home_timeline t WHERE t.user_id = u.id "
+            + "ORDER BY t.created_at DESC, t.feed_item_id DESC OFFSET :cap LIMIT 1) c "
+            + "WHERE u.id IN (:userIds)) cutoff "
+            + "WHERE h.user_id = cutoff.user_id "
+            + "AND (h.created_at, h.feed_item_id) <= (cutoff.created_at, cutoff.feed_item_id)", nativeQuery = true)
+    int trimToCap(@Param("userIds") Collection<String> userIds, @Param("cap") int cap);
+}
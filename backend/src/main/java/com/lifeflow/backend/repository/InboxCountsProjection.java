@@ -0,0 +1,10 @@
+package com.lifeflow.backend.repository;
+
+/**
+ * Conversation and unread totals for one user, read from conversation_participants in a single query.
+ */
+public interface InboxCountsProjection {
+    Long getConversations();
+
+    Long getUnread();
+}
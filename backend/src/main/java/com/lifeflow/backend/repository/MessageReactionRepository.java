@@ -2,13 +2,34 @@ package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.MessageReaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MessageReactionRepository extends JpaRepository<MessageReaction, String> {
     @Query("SELECT mr FROM MessageReaction mr WHERE mr.message.id = ?1 AND mr.userId = ?2 AND mr.emoji = ?3")
     Optional<MessageReaction> findByMessageIdAndUserIdAndEmoji(String messageId, String userId, String emoji);
+
+    // Returns 1 if the reaction was added, 0 if the user had already reacted with this emoji
+    @Modifying
+    @Query(value = "INSERT INTO message_reactions (id, message_id, user_id, emoji, created_at) "
+            + "VALUES (?1, ?2, ?3, ?4, ?5) ON CONFLICT (message_id, user_id, emoji) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String id, String messageId, String userId, String emoji, LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM MessageReaction mr WHERE mr.message.id = ?1 AND mr.userId = ?2 AND mr.emoji = ?3")
+    int deleteByMessageIdAndUserIdAndEmoji(String messageId, String userId, String emoji);
+
+    // Per-emoji counts for a page of messages, in order of first use
+    @Query("SELECT mr.message.id AS messageId, mr.emoji AS emoji, COUNT(mr) AS count, "
+            + "MAX(CASE WHEN mr.userId = ?2 THEN 1 ELSE 0 END) AS reactedByMe "
+            + "FROM MessageReaction mr WHERE mr.message.id IN ?1 "
+            + "GROUP BY mr.message.id, mr.emoji ORDER BY MIN(mr.createdAt)")
+    List<ReactionCountProjection> countByMessageIds(Collection<String> messageIds, String userId);
 }
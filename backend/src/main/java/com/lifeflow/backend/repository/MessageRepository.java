@@ -1,21 +1,48 @@
 package com.lifeflow.backend.repository;
 
 import com.lifeflow.backend.model.Message;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, String> {
-    Page<Message> findByConversationIdOrderByCreatedAtDesc(String conversationId, Pageable pageable);
+    // Keyset pagination over idx_messages_conversation_created; List return types skip the COUNT query
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = ?1 ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestByConversationId(String conversationId, Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE m.conversation.id = ?1 AND (LOWER(m.content) LIKE LOWER(CONCAT('%', ?2, '%')))")
-    List<Message> searchMessages(String conversationId, String query);
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = ?1 AND m.createdAt <= ?2 "
+            + "AND (m.createdAt < ?2 OR m.id < ?3) ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findBeforeCursor(String conversationId, LocalDateTime createdAt, String id, Pageable pageable);
 
-    @Query("SELECT m FROM Message m WHERE (LOWER(m.content) LIKE LOWER(CONCAT('%', ?1, '%')))")
-    List<Message> searchAllMessages(String query);
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = ?1 AND m.createdAt >= ?2 "
+            + "AND (m.createdAt > ?2 OR m.id > ?3) ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findAfterCursor(String conversationId, LocalDateTime createdAt, String id, Pageable pageable);
+
+    @Query(value = "SELECT * FROM messages WHERE conversation_id = ?1 ORDER BY created_at DESC, id DESC "
+            + "LIMIT ?2 OFFSET ?3", nativeQuery = true)
+    List<Message> findPageByConversationId(String conversationId, int limit, int offset);
+
+    // Full-text search served by the idx_messages_content_fts GIN index (see resources/db/indexes.sql)
+    @Query(value = "SELECT m.* FROM messages m "
+            + "WHERE m.conversation_id = ?1 AND to_tsvector('simple', m.content) @@ plainto_tsquery('simple', ?2) "
+            + "ORDER BY ts_rank(to_tsvector('simple', m.content), plainto_tsquery('simple', ?2)) DESC, "
+            + "m.created_at DESC, m.id DESC "
+            + "LIMIT ?3 OFFSET ?4", nativeQuery = true)
+    List<Message> searchMessages(String conversationId, String query, int limit, int offset);
+
+    @Query(value = "SELECT m.* FROM messages m "
+            + "JOIN conversation_participants cp ON cp.conversation_id = m.conversation_id AND cp.user_id = ?1 "
+            + "WHERE to_tsvector('simple', m.content) @@ plainto_tsquery('simple', ?2) "
+            + "ORDER BY ts_rank(to_tsvector('simple', m.content), plainto_tsquery('simple', ?2)) DESC, "
+            + "m.created_at DESC, m.id DESC "
+            + "LIMIT ?3 OFFSET ?4", nativeQuery = true)
+    List<Message> searchUserMessages(String userId, String query, int limit, int offset);
+
+    @Query("SELECT COUNT(m) > 0 FROM Message m WHERE m.id = ?1 AND m.conversation.id = ?2")
+    boolean existsInConversation(String messageId, String conversationId);
 }
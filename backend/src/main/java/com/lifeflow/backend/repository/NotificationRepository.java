@@ -13,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, String> {
@@ -23,9 +24,61 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     
     Page<Notification> findByRecipientAndTypeOrderByCreatedAtDesc(User recipient, NotificationType type, Pageable pageable);
     
+    // Inbox pages, newest first, keyset over (createdAt, id). One pair of queries per filter
+    // combination so each walks a (recipient_id, ..., created_at, id) index in order.
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInbox(@Param("recipientId") String recipientId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId "
+            + "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxBefore(@Param("recipientId") String recipientId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = :isRead "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByRead(@Param("recipientId") String recipientId, @Param("isRead") Boolean isRead,
+            Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = :isRead "
+            + "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByReadBefore(@Param("recipientId") String recipientId,
+            @Param("isRead") Boolean isRead, @Param("createdAt") LocalDateTime createdAt, @Param("id") String id,
+            Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByType(@Param("recipientId") String recipientId,
+            @Param("type") NotificationType type, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByTypeBefore(@Param("recipientId") String recipientId,
+            @Param("type") NotificationType type, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "AND n.isRead = :isRead ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByReadAndType(@Param("recipientId") String recipientId,
+            @Param("isRead") Boolean isRead, @Param("type") NotificationType type, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "AND n.isRead = :isRead "
+            + "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxByReadAndTypeBefore(@Param("recipientId") String recipientId,
+            @Param("isRead") Boolean isRead, @Param("type") NotificationType type,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
     long countByRecipientAndIsRead(User recipient, Boolean isRead);
     
     long countByRecipient(User recipient);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId")
+    long countByRecipientId(@Param("recipientId") String recipientId);
     
     List<Notification> findByRecipientAndIsRead(User recipient, Boolean isRead);
     
@@ -33,9 +86,18 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     @Query("UPDATE Notification n SET n.isRead = true, n.readAt = CURRENT_TIMESTAMP WHERE n.recipient = :recipient AND n.isRead = false")
     void markAllAsRead(@Param("recipient") User recipient);
     
-    @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = CURRENT_TIMESTAMP WHERE n.id = :notificationId")
-    void markAsRead(@Param("notificationId") String notificationId);
+    @Query("SELECT n.recipient.id FROM Notification n WHERE n.id = :notificationId")
+    Optional<String> findRecipientId(@Param("notificationId") String notificationId);
+
+    // 1 only for the call that actually flipped it from unread
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = CURRENT_TIMESTAMP "
+            + "WHERE n.id = :notificationId AND n.isRead = false")
+    int markAsRead(@Param("notificationId") String notificationId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.id = :notificationId AND n.isRead = :isRead")
+    int deleteByIdAndIsRead(@Param("notificationId") String notificationId, @Param("isRead") Boolean isRead);
     
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.recipient = :recipient AND n.createdAt < :beforeDate")
@@ -0,0 +1,30 @@
+package com.lifeflow.backend.repository;
+
+import com.lifeflow.backend.model.PageBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PageBodyRepository extends JpaRepository<PageBody, String> {
+
+    // Store the body if it is new, otherwise just take another reference to it
+    @Modifying
+    @Query(value = "INSERT INTO page_bodies (hash, blocks_json, cover_image, ref_count, created_at) "
+            + "VALUES (:hash, :blocksJson, :coverImage, 1, :createdAt) "
+            + "ON CONFLICT (hash) DO UPDATE SET ref_count = page_bodies.ref_count + 1", nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("blocksJson") String blocksJson,
+            @Param("coverImage") String coverImage, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE PageBody b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash")
+    int release(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM PageBody b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,14 @@
+package com.lifeflow.backend.repository;
+
+/**
+ * One (message, emoji) group returned by MessageReactionRepository.countByMessageIds.
+ */
+public interface ReactionCountProjection {
+    String getMessageId();
+
+    String getEmoji();
+
+    Long getCount();
+
+    Integer getReactedByMe();
+}
@@ -1,11 +1,18 @@
 package com.lifeflow.backend.repository;
 
+import com.lifeflow.backend.dto.UserSummaryDTO;
 import com.lifeflow.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.lifeflow.backend.dto.UserSummaryDTO(u.id, u.name, u.email, u.avatar) FROM User u WHERE u.id IN ?1")
+    List<UserSummaryDTO> findSummariesByIdIn(Collection<String> ids);
 }
@@ -25,6 +25,9 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
     public AuthResponse register(AuthRequest request) {
         // Check if user already exists
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -171,6 +174,7 @@ public class AuthService {
         }
 
         userRepository.deleteById(userId);
+        userSummaryResolver.invalidate(userId);
         return AuthResponse.builder()
                 .message("User deleted successfully")
                 .build();
@@ -0,0 +1,189 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.CommentDTO;
+import com.lifeflow.backend.event.FeedItemChangedEvent;
+import com.lifeflow.backend.model.Comment;
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.User;
+import com.lifeflow.backend.repository.CommentRepository;
+import com.lifeflow.backend.repository.FeedItemRepository;
+import com.lifeflow.backend.util.KeysetCursor;
+import com.lifeflow.backend.util.Paging;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Threaded comments. A post's top-level comments are paged newest first and each thread's
+ * replies oldest first, both by keyset over (createdAt, id) with the authors fetched in the
+ * same query, so a page costs one query whatever the length of the discussion.
+ * Threads expose their reply count as a counter instead of embedding the replies.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CommentService {
+
+    private final CommentRepository commentRepository;
+    private final FeedItemRepository feedRepository;
+    private final NotificationTriggerService notificationTriggerService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CommentService(
+            CommentRepository commentRepository,
+            FeedItemRepository feedRepository,
+            NotificationTriggerService notificationTriggerService,
+            ApplicationEventPublisher eventPublisher) {
+        this.commentRepository = commentRepository;
+        this.feedRepository = feedRepository;
+        this.notificationTriggerService = notificationTriggerService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * One page of a post's top-level comments, newest first.
+     * Pass the returned nextCursor back as cursor to continue; it is null on the last page.
+     */
+    public CommentPage getComments(String feedItemId, String cursor, int limit) {
+        int size = Paging.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size);
+        List<Comment> comments;
+        if (cursor == null || cursor.isEmpty()) {
+            comments = commentRepository.findLatestTopLevel(feedItemId, page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            comments = commentRepository.findTopLevelBefore(feedItemId, after.getCreatedAt(), after.getId(), page);
+        }
+        return toPage(comments, size);
+    }
+
+    /**
+     * One page of replies to a top-level comment, oldest first.
+     */
+    public CommentPage getReplies(String feedItemId, String commentId, String cursor, int limit) {
+        int size = Paging.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size);
+        List<Comment> replies;
+        if (cursor == null || cursor.isEmpty()) {
+            replies = commentRepository.findFirstReplies(feedItemId, commentId, page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            replies = commentRepository.findRepliesAfter(feedItemId, commentId, after.getCreatedAt(), after.getId(), page);
+        }
+        return toPage(replies, size);
+    }
+
+    /**
+     * Add a comment to a post, or a reply when parentId is given. A reply to a reply joins
+     * the same thread. Throws IllegalArgumentException if the parent is not on this post.
+     */
+    @Transactional
+    public CommentDTO addComment(FeedItem feedItem, User author, String text, String parentId) {
+        Comment parent = null;
+        if (parentId != null && !parentId.isEmpty()) {
+            parent = commentRepository.findById(parentId)
+                    .filter(c -> c.getFeedItem() != null && feedItem.getId().equals(c.getFeedItem().getId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Parent comment not found"));
+            if (parent.getParentId() != null) {
+                parent = commentRepository.findById(parent.getParentId())
+                        .orElseThrow(() -> new IllegalArgumentException("Parent comment not found"));
+            }
+        }
+
+        // Fails if the thread was deleted since it was read, rather than leaving an orphaned reply
+        if (parent != null && commentRepository.adjustReplyCount(parent.getId(), 1) == 0) {
+            throw new IllegalArgumentException("Parent comment not found");
+        }
+
+        Comment comment = new Comment();
+        comment.setText(text);
+        comment.setAuthor(author);
+        comment.setFeedItem(feedItem);
+        comment.setParentId(parent != null ? parent.getId() : null);
+        Comment saved = commentRepository.save(comment);
+
+        feedRepository.adjustCommentCount(feedItem.getId(), 1);
+        eventPublisher.publishEvent(new FeedItemChangedEvent(
+                feedItem.getId(), null, FeedItemChangedEvent.Change.COMMENTED, 1,
+                Collections.singletonList(saved.getCreatedAt())));
+
+        if (parent != null && parent.getAuthor() != null) {
+            notificationTriggerService.triggerCommentRepliedNotification(author, parent.getAuthor(),
+                    feedItem.getId(), parent.getId());
+        } else if (parent == null && feedItem.getAuthor() != null) {
+            notificationTriggerService.triggerPostCommentedNotification(author, feedItem.getAuthor(),
+                    feedItem.getId(), saved.getId());
+        }
+        return CommentDTO.of(saved);
+    }
+
+    /**
+     * Delete a comment. Deleting a top-level comment takes its replies with it; deleting a
+     * reply decrements its thread's reply count. Returns the number of comments removed.
+     */
+    @Transactional
+    public int deleteComment(Comment comment) {
+        String feedItemId = comment.getFeedItem() != null ? comment.getFeedItem().getId() : null;
+        int removed = 1;
+        List<LocalDateTime> removedAt = new ArrayList<>();
+        removedAt.add(comment.getCreatedAt());
+        if (comment.getParentId() != null) {
+            commentRepository.adjustReplyCount(comment.getParentId(), -1);
+        } else if (feedItemId != null) {
+            removedAt.addAll(commentRepository.findReplyTimes(feedItemId, comment.getId()));
+            removed += commentRepository.deleteReplies(feedItemId, comment.getId());
+        }
+        commentRepository.delete(comment);
+
+        if (feedItemId != null) {
+            feedRepository.adjustCommentCount(feedItemId, -removed);
+            eventPublisher.publishEvent(new FeedItemChangedEvent(
+                    feedItemId, null, FeedItemChangedEvent.Change.COMMENTED, -removed, removedAt));
+        }
+        return removed;
+    }
+
+    /**
+     * Remove every comment on a post in one statement, e.g. when the post is deleted.
+     */
+    @Transactional
+    public int deleteAllForFeedItem(String feedItemId) {
+        return commentRepository.deleteByFeedItemId(feedItemId);
+    }
+
+    private CommentPage toPage(List<Comment> comments, int size) {
+        List<CommentDTO> items = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            items.add(CommentDTO.of(comment));
+        }
+        String nextCursor = null;
+        if (comments.size() == size) {
+            Comment last = comments.get(comments.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CommentPage(items, nextCursor);
+    }
+
+    public static class CommentPage {
+        private final List<CommentDTO> items;
+        private final String nextCursor;
+
+        public CommentPage(List<CommentDTO> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<CommentDTO> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.lifeflow.backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a conversation's full history as NDJSON or CSV.
+ *
+ * Messages are read through a server-side cursor (fetch size rows at a time, inside a
+ * read-only transaction so PostgreSQL keeps the cursor open) and written straight to the
+ * output stream. Reactions and attachments are fetched per chunk of messages with one query
+ * each. Nothing goes through the persistence context, so memory use depends on the chunk
+ * size, not the length of the conversation.
+ */
+@Service
+public class ConversationExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final String SELECT_MESSAGES = "SELECT id, sender_id, content, is_edited, created_at, updated_at "
+            + "FROM messages WHERE conversation_id = ? ORDER BY created_at, id";
+    private static final String SELECT_REACTIONS = "SELECT message_id, user_id, emoji FROM message_reactions "
+            + "WHERE message_id IN (:ids) ORDER BY created_at, id";
+    private static final String SELECT_ATTACHMENTS = "SELECT message_id, file_name, file_type, file_size, file_url "
+            + "FROM attachments WHERE message_id IN (:ids) ORDER BY uploaded_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ConversationMembershipCache membershipCache;
+    private final int fetchSize;
+
+    public ConversationExportService(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            ConversationMembershipCache membershipCache,
+            @Value("${messaging.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.membershipCache = membershipCache;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Check access before the response is committed, so errors can still become a 4xx.
+     */
+    public void checkExport(String conversationId, String userId, String format) {
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        if (!membershipCache.isParticipant(conversationId, userId)) {
+            throw new RuntimeException("User is not a participant of this conversation");
+        }
+    }
+
+    public void export(String conversationId, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ChunkWriter chunkWriter = FORMAT_CSV.equals(format) ? new CsvChunkWriter(writer) : new NdjsonChunkWriter(writer);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ExportRow> chunk = new ArrayList<>(fetchSize);
+                RowCallbackHandler handler = rs -> {
+                    chunk.add(readMessage(rs));
+                    if (chunk.size() == fetchSize) {
+                        writeChunk(chunk, chunkWriter);
+                        chunk.clear();
+                    }
+                };
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(SELECT_MESSAGES, ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    ps.setString(1, conversationId);
+                    return ps;
+                }, handler);
+                if (!chunk.isEmpty()) {
+                    writeChunk(chunk, chunkWriter);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private ExportRow readMessage(ResultSet rs) throws SQLException {
+        ExportRow row = new ExportRow();
+        row.id = rs.getString("id");
+        row.senderId = rs.getString("sender_id");
+        row.content = rs.getString("content");
+        row.isEdited = rs.getBoolean("is_edited");
+        row.createdAt = toLocalDateTime(rs.getTimestamp("created_at"));
+        row.updatedAt = toLocalDateTime(rs.getTimestamp("updated_at"));
+        return row;
+    }
+
+    private void writeChunk(List<ExportRow> chunk, ChunkWriter chunkWriter) {
+        Map<String, ExportRow> byId = new HashMap<>();
+        for (ExportRow row : chunk) {
+            byId.put(row.id, row);
+        }
+        Map<String, Object> params = Map.of("ids", byId.keySet());
+
+        namedJdbcTemplate.query(SELECT_REACTIONS, params, (RowCallbackHandler) rs -> {
+            Map<String, Object> reaction = new HashMap<>();
+            reaction.put("userId", rs.getString("user_id"));
+            reaction.put("emoji", rs.getString("emoji"));
+            byId.get(rs.getString("message_id")).reactions.add(reaction);
+        });
+        namedJdbcTemplate.query(SELECT_ATTACHMENTS, params, (RowCallbackHandler) rs -> {
+            Map<String, Object> attachment = new HashMap<>();
+            attachment.put("fileName", rs.getString("file_name"));
+            attachment.put("fileType", rs.getString("file_type"));
+            attachment.put("fileSize", rs.getLong("file_size"));
+            attachment.put("fileUrl", rs.getString("file_url"));
+            byId.get(rs.getString("message_id")).attachments.add(attachment);
+        });
+
+        try {
+            for (ExportRow row : chunk) {
+                chunkWriter.write(row);
+            }
+            chunkWriter.flush();
+        } catch (IOException e) {
+            // Client went away; abort the cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static final class ExportRow {
+        private String id;
+        private String senderId;
+        private String content;
+        private boolean isEdited;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private final List<Map<String, Object>> reactions = new ArrayList<>();
+        private final List<Map<String, Object>> attachments = new ArrayList<>();
+    }
+
+    private interface ChunkWriter {
+        void write(ExportRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final class NdjsonChunkWriter implements ChunkWriter {
+        private final Writer writer;
+
+        private NdjsonChunkWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("id", row.id);
+            json.writeStringField("senderId", row.senderId);
+            json.writeStringField("content", row.content);
+            json.writeBooleanField("isEdited", row.isEdited);
+            json.writeStringField("createdAt", String.valueOf(row.createdAt));
+            json.writeStringField("updatedAt", String.valueOf(row.updatedAt));
+            json.writeObjectField("reactions", row.reactions);
+            json.writeObjectField("attachments", row.attachments);
+            json.writeEndObject();
+            json.close();
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class CsvChunkWriter implements ChunkWriter {
+        private final Writer writer;
+
+        // The header goes out up front, so an empty conversation still exports a valid CSV
+        private CsvChunkWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write("id,created_at,updated_at,sender_id,content,is_edited,reactions,attachments\r\n");
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            String reactions = row.reactions.stream()
+                    .map(r -> r.get("emoji") + ":" + r.get("userId"))
+                    .collect(Collectors.joining(" "));
+            String attachments = row.attachments.stream()
+                    .map(a -> String.valueOf(a.get("fileUrl")))
+                    .collect(Collectors.joining(" "));
+
+            writer.write(String.join(",",
+                    escape(row.id),
+                    escape(String.valueOf(row.createdAt)),
+                    escape(String.valueOf(row.updatedAt)),
+                    escape(row.senderId),
+                    escape(row.content),
+                    String.valueOf(row.isEdited),
+                    escape(reactions),
+                    escape(attachments)));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180 quoting
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
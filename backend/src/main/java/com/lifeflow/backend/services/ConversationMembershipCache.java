@@ -0,0 +1,56 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.repository.ConversationParticipantRepository;
+import com.lifeflow.backend.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process cache of conversation membership used to authorize messaging operations.
+ * Holds the full participant set per conversation, so every check after the first is a
+ * memory lookup. Must be invalidated whenever participants are added or removed.
+ */
+@Component
+public class ConversationMembershipCache {
+
+    private final ConversationParticipantRepository participantRepository;
+    private final BoundedCache<String, Set<String>> members;
+
+    public ConversationMembershipCache(
+            ConversationParticipantRepository participantRepository,
+            @Value("${messaging.membership-cache.max-size:10000}") int maxSize) {
+        this.participantRepository = participantRepository;
+        this.members = new BoundedCache<>(maxSize);
+    }
+
+    public boolean isParticipant(String conversationId, String userId) {
+        Set<String> participantIds = members.get(conversationId,
+                id -> Set.copyOf(participantRepository.findUserIdsByConversationId(id)));
+        return participantIds.contains(userId);
+    }
+
+    /**
+     * Drop the cached participant set now and again after the surrounding transaction commits,
+     * so a concurrent reader cannot re-cache the pre-commit membership.
+     */
+    public void invalidate(String conversationId) {
+        members.invalidate(conversationId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    members.invalidate(conversationId);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return members.stats();
+    }
+}
@@ -0,0 +1,108 @@
+package com.lifeflow.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically recomputes the denormalized likes and comment_count columns on feed_items
+ * from feed_likes and comments, and reply_count on their top-level comments. This fixes any
+ * drift from writes that bypassed the counters, manual deletes or failed transactions.
+ *
+ * Works through the table in id order, one short batch per statement, so no long
+ * transaction or table-wide lock is held. Only rows that are actually off are written.
+ */
+@Component
+public class FeedCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedCounterReconciler.class);
+
+    private static final String SELECT_BATCH = "SELECT id FROM feed_items WHERE id > ? ORDER BY id LIMIT ?";
+    // Taken before counting, so a concurrent counter increment either commits first and is seen
+    // by the count, or waits and lands on top of it; the count never overwrites it
+    private static final String LOCK_ITEMS = "SELECT id FROM feed_items WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    private static final String LOCK_THREADS = "SELECT id FROM comments "
+            + "WHERE feed_item_id IN (:ids) AND parent_id IS NULL ORDER BY id FOR UPDATE";
+    private static final String RECONCILE_BATCH = "UPDATE feed_items f "
+            + "SET likes = x.like_count, comment_count = x.comment_count "
+            + "FROM (SELECT i.id, "
+            + "(SELECT COUNT(*) FROM feed_likes l WHERE l.feed_item_id = i.id) AS like_count, "
+            + "(SELECT COUNT(*) FROM comments c WHERE c.feed_item_id = i.id) AS comment_count "
+            + "FROM feed_items i WHERE i.id IN (:ids)) x "
+            + "WHERE f.id = x.id AND (f.likes <> x.like_count OR f.comment_count <> x.comment_count)";
+    private static final String RECONCILE_REPLIES = "UPDATE comments c SET reply_count = x.reply_count "
+            + "FROM (SELECT p.id, "
+            + "(SELECT COUNT(*) FROM comments r WHERE r.feed_item_id = p.feed_item_id AND r.parent_id = p.id) "
+            + "AS reply_count "
+            + "FROM comments p WHERE p.feed_item_id IN (:ids) AND p.parent_id IS NULL) x "
+            + "WHERE c.id = x.id AND c.reply_count <> x.reply_count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedLikeCounter likeCounter;
+    private final int batchSize;
+
+    public FeedCounterReconciler(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            FeedLikeCounter likeCounter,
+            @Value("${feed.counters.reconcile-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.likeCounter = likeCounter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${feed.counters.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${feed.counters.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        try {
+            int fixed = reconcile();
+            if (fixed > 0) {
+                logger.warn("Feed counter reconciliation corrected {} feed items", fixed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Feed counter reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Run one full pass and return the number of rows corrected.
+     */
+    public int reconcile() {
+        int fixed = 0;
+        String lastId = "";
+        while (true) {
+            List<String> ids = jdbcTemplate.queryForList(SELECT_BATCH, String.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                return fixed;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            // Recount with the batch's likes held off and flushed; items that stay busy wait for a quieter pass
+            fixed += likeCounter.withQuiescedItems(ids, settled -> transactionTemplate.execute(status -> {
+                Map<String, Object> params = Map.of("ids", settled);
+                namedJdbcTemplate.queryForList(LOCK_ITEMS, params, String.class);
+                return namedJdbcTemplate.update(RECONCILE_BATCH, params);
+            }));
+            // Separate transaction, so the reconciler never holds feed_items and comments locks together
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Object> params = Map.of("ids", ids);
+                namedJdbcTemplate.queryForList(LOCK_THREADS, params, String.class);
+                namedJdbcTemplate.update(RECONCILE_REPLIES, params);
+            });
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.lifeflow.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory, striped like counters for feed items.
+ *
+ * Like and unlike record a +1/-1 in a per-item LongAdder instead of updating the
+ * feed_items row, so thousands of concurrent likes on one post never queue on its row lock.
+ * A scheduled flush folds the accumulated deltas into feed_items.likes with one batched
+ * UPDATE per interval. Readers add pendingDelta() to the stored column for an exact count.
+ *
+ * Deltas from a failed flush are put back and retried. An item's adder is dropped after it
+ * has been idle for a few flushes; FeedCounterReconciler repairs the tiny window where a
+ * delta races that eviction.
+ *
+ * A like row becomes visible when its transaction commits, but its delta only lands here
+ * after that. Each recording transaction holds its item's stripe lock (shared) across that
+ * window, so withQuiescedItems can take the stripes exclusively and recount from feed_likes
+ * without counting a like that is still on its way to the adder.
+ */
+@Component
+public class FeedLikeCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedLikeCounter.class);
+
+    private static final String ADJUST_LIKES = "UPDATE feed_items SET likes = likes + ? WHERE id = ?";
+    private static final int IDLE_FLUSHES_BEFORE_EVICT = 10;
+    private static final int STRIPES = 64;
+    private static final long QUIESCE_TIMEOUT_MS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Cell> pending = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+
+    public FeedLikeCounter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Record a like count change. Inside a transaction the delta is applied only once it commits.
+     */
+    public void record(String feedItemId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Held until the delta has been added, so a recount never sees the row without it
+            Lock lock = stripes[stripe(feedItemId)].readLock();
+            lock.lock();
+            try {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        add(feedItemId, delta);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        lock.unlock();
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.unlock();
+                throw e;
+            }
+        } else {
+            add(feedItemId, delta);
+        }
+    }
+
+    /**
+     * Forget an item's unflushed delta, e.g. once the item itself is deleted. Inside a
+     * transaction this happens only once it commits.
+     */
+    public void discard(String feedItemId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.remove(feedItemId);
+                }
+            });
+        } else {
+            pending.remove(feedItemId);
+        }
+    }
+
+    /**
+     * Likes recorded but not yet flushed to feed_items.likes.
+     */
+    public long pendingDelta(String feedItemId) {
+        Cell cell = pending.get(feedItemId);
+        return cell == null ? 0 : cell.delta.sum();
+    }
+
+    public boolean hasPending(String feedItemId) {
+        return pendingDelta(feedItemId) != 0;
+    }
+
+    /**
+     * Run work on the given items while no like change for them can commit, after flushing
+     * what they have already recorded. Items whose stripe stays busy past a short timeout, or
+     * that still have a delta because the flush failed, are left out of the list work gets.
+     */
+    public int withQuiescedItems(List<String> feedItemIds, Function<List<String>, Integer> work) {
+        Map<Integer, List<String>> byStripe = new TreeMap<>();
+        for (String id : feedItemIds) {
+            byStripe.computeIfAbsent(stripe(id), s -> new ArrayList<>()).add(id);
+        }
+
+        List<Lock> held = new ArrayList<>();
+        List<String> quiesced = new ArrayList<>();
+        try {
+            // Ascending stripe order, so two callers never wait on each other
+            for (Map.Entry<Integer, List<String>> entry : byStripe.entrySet()) {
+                Lock lock = stripes[entry.getKey()].writeLock();
+                if (lock.tryLock(QUIESCE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    held.add(lock);
+                    quiesced.addAll(entry.getValue());
+                }
+            }
+            flush();
+            List<String> settled = quiesced.stream().filter(id -> !hasPending(id)).toList();
+            return settled.isEmpty() ? 0 : work.apply(settled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            for (Lock lock : held) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${feed.likes.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Object[]> updates = new ArrayList<>();
+        for (Map.Entry<String, Cell> entry : pending.entrySet()) {
+            Cell cell = entry.getValue();
+            long delta = cell.delta.sumThenReset();
+            if (delta != 0) {
+                cell.idleFlushes = 0;
+            } else if (++cell.idleFlushes >= IDLE_FLUSHES_BEFORE_EVICT) {
+                pending.remove(entry.getKey(), cell);
+                delta = cell.delta.sumThenReset();
+            }
+            if (delta != 0) {
+                updates.add(new Object[] { delta, entry.getKey() });
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADJUST_LIKES, updates));
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush {} feed like counters, will retry", updates.size(), e);
+            for (Object[] update : updates) {
+                add((String) update[1], (Long) update[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static int stripe(String feedItemId) {
+        return Math.floorMod(feedItemId.hashCode(), STRIPES);
+    }
+
+    private void add(String feedItemId, long delta) {
+        pending.computeIfAbsent(feedItemId, id -> new Cell()).delta.add(delta);
+    }
+
+    private static final class Cell {
+        private final LongAdder delta = new LongAdder();
+        // Only touched by the flushing thread
+        private int idleFlushes;
+    }
+}
@@ -0,0 +1,125 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.FeedItemDTO;
+import com.lifeflow.backend.event.FeedItemChangedEvent;
+import com.lifeflow.backend.repository.FeedLikeRepository;
+import com.lifeflow.backend.util.BoundedCache;
+import com.lifeflow.backend.util.Paging;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cache of rendered feed pages, keyed by author or tag filter, cursor and page size.
+ *
+ * Pages are rendered once for an anonymous viewer and shared by everyone; for a signed-in
+ * viewer only the isLiked flags are overlaid, with one query over the page's ids. Each page
+ * carries an ETag so unchanged pages can be answered with 304.
+ *
+ * Entries are dropped on FeedItemChangedEvent after the change commits: a new post can only
+ * change first pages (keyset pages further down stay the same), while a delete, like or
+ * comment drops exactly the pages that contain the item. Size and TTL bound everything else,
+ * such as author profile edits.
+ */
+@Component
+public class FeedPageCache {
+
+    private final FeedService feedService;
+    private final FeedLikeRepository feedLikeRepository;
+    private final BoundedCache<PageKey, CachedPage> pages;
+
+    public FeedPageCache(
+            FeedService feedService,
+            FeedLikeRepository feedLikeRepository,
+            @Value("${feed.page-cache.max-size:1000}") int maxSize,
+            @Value("${feed.page-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.feedService = feedService;
+        this.feedLikeRepository = feedLikeRepository;
+        this.pages = new BoundedCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * Same contract as FeedService.getFeedPage, with an ETag on the returned page.
+     */
+    public FeedService.FeedPage getPage(String viewerId, String authorId, String tag, String cursor, int limit) {
+        String normalizedTag = tag != null && !tag.isEmpty() ? TagIndexService.normalize(tag) : "";
+        if (normalizedTag == null) {
+            throw new IllegalArgumentException("Invalid tag");
+        }
+        PageKey key = new PageKey(
+                authorId != null ? authorId : "",
+                normalizedTag,
+                cursor != null ? cursor : "",
+                Paging.pageSize(limit));
+        CachedPage page = pages.get(key, this::load);
+
+        if (viewerId == null || page.itemIds.isEmpty()) {
+            return new FeedService.FeedPage(page.items, page.nextCursor, page.etag);
+        }
+
+        Set<String> liked = new TreeSet<>(feedLikeRepository.findLikedFeedItemIds(viewerId, page.itemIds));
+        List<FeedItemDTO> items = new ArrayList<>(page.items.size());
+        for (FeedItemDTO cached : page.items) {
+            items.add(cached.withLiked(liked.contains(cached.id())));
+        }
+        String etag = liked.isEmpty() ? page.etag : etag(page.etag + liked);
+        return new FeedService.FeedPage(items, page.nextCursor, etag);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedItemChanged(FeedItemChangedEvent event) {
+        if (event.getChange() == FeedItemChangedEvent.Change.CREATED) {
+            pages.invalidateIf(key -> key.cursor.isEmpty()
+                    && (key.authorId.isEmpty() || key.authorId.equals(event.getAuthorId())));
+        } else {
+            pages.invalidateEntriesIf((key, page) -> page.itemIds.contains(event.getFeedItemId()));
+        }
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    public Map<String, Object> stats() {
+        return pages.stats();
+    }
+
+    private CachedPage load(PageKey key) {
+        FeedService.FeedPage page = feedService.getFeedPage(null, key.authorId, key.tag, key.cursor, key.size);
+        List<FeedItemDTO> items = List.copyOf(page.getItems());
+        Set<String> itemIds = new HashSet<>();
+        items.forEach(item -> itemIds.add(item.id()));
+        return new CachedPage(items, page.getNextCursor(), itemIds, etag(items + "|" + page.getNextCursor()));
+    }
+
+    private static String etag(String content) {
+        return "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private record PageKey(String authorId, String tag, String cursor, int size) {
+    }
+
+    private static final class CachedPage {
+        private final List<FeedItemDTO> items;
+        private final String nextCursor;
+        private final Set<String> itemIds;
+        private final String etag;
+
+        private CachedPage(List<FeedItemDTO> items, String nextCursor, Set<String> itemIds, String etag) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.itemIds = itemIds;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.FeedAuthorDTO;
+import com.lifeflow.backend.dto.FeedItemDTO;
+import com.lifeflow.backend.enums.NotificationType;
+import com.lifeflow.backend.event.FeedItemChangedEvent;
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.FeedItemTag;
+import com.lifeflow.backend.repository.FeedItemRepository;
+import com.lifeflow.backend.repository.FeedItemTagRepository;
+import com.lifeflow.backend.repository.FeedLikeRepository;
+import com.lifeflow.backend.util.KeysetCursor;
+import com.lifeflow.backend.util.Paging;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds feed pages from a fixed number of set-based queries, independent of page size:
+ * one keyset query for the items with their authors and counters, then one each for tags
+ * and the viewer's likes over the ids of that page.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FeedService {
+
+    private final FeedItemRepository feedRepository;
+    private final FeedLikeRepository feedLikeRepository;
+    private final FeedItemTagRepository tagRepository;
+    private final FeedLikeCounter likeCounter;
+    private final HotRankingService hotRanking;
+    private final NotificationAggregator notificationAggregator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FeedService(
+            FeedItemRepository feedRepository,
+            FeedLikeRepository feedLikeRepository,
+            FeedItemTagRepository tagRepository,
+            FeedLikeCounter likeCounter,
+            HotRankingService hotRanking,
+            NotificationAggregator notificationAggregator,
+            ApplicationEventPublisher eventPublisher) {
+        this.feedRepository = feedRepository;
+        this.feedLikeRepository = feedLikeRepository;
+        this.tagRepository = tagRepository;
+        this.likeCounter = likeCounter;
+        this.hotRanking = hotRanking;
+        this.notificationAggregator = notificationAggregator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * One page of the global feed (or one author's posts), newest first.
+     * Pass the returned nextCursor back as cursor to continue; it is null on the last page.
+     */
+    public FeedPage getFeedPage(String viewerId, String authorId, String cursor, int limit) {
+        return getFeedPage(viewerId, authorId, null, cursor, limit);
+    }
+
+    /**
+     * As above, optionally restricted to posts carrying a tag (by author or by tag, not both).
+     */
+    public FeedPage getFeedPage(String viewerId, String authorId, String tag, String cursor, int limit) {
+        int size = Paging.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size);
+        boolean byAuthor = authorId != null && !authorId.isEmpty();
+
+        List<FeedItem> items;
+        if (tag != null && !tag.isEmpty()) {
+            if (byAuthor) {
+                throw new IllegalArgumentException("Filter by author or by tag, not both");
+            }
+            items = findByTag(tag, cursor, page);
+        } else if (cursor == null || cursor.isEmpty()) {
+            items = byAuthor ? feedRepository.findLatestByAuthor(authorId, page) : feedRepository.findLatest(page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            items = byAuthor
+                    ? feedRepository.findBeforeByAuthor(authorId, after.getCreatedAt(), after.getId(), page)
+                    : feedRepository.findBefore(after.getCreatedAt(), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (items.size() == size) {
+            FeedItem last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new FeedPage(toResponse(items, viewerId), nextCursor);
+    }
+
+    /**
+     * One page of the feed ordered by hot score. The order comes from HotRankingService in
+     * memory; only the page's own items are loaded.
+     */
+    public FeedPage getHotPage(String viewerId, String cursor, int limit) {
+        HotRankingService.HotPage hot = hotRanking.page(cursor, Paging.pageSize(limit));
+        if (hot.getFeedItemIds().isEmpty()) {
+            return new FeedPage(new ArrayList<>(), null);
+        }
+
+        Map<String, FeedItem> byId = new HashMap<>();
+        feedRepository.findWithAuthorByIdIn(hot.getFeedItemIds()).forEach(item -> byId.put(item.getId(), item));
+        List<FeedItem> items = new ArrayList<>(hot.getFeedItemIds().size());
+        for (String id : hot.getFeedItemIds()) {
+            FeedItem item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return new FeedPage(toResponse(items, viewerId), hot.getNextCursor());
+    }
+
+    // Keyset page over the tag index, then one query for the posts with their authors
+    private List<FeedItem> findByTag(String tag, String cursor, PageRequest page) {
+        String normalized = TagIndexService.normalize(tag);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Invalid tag");
+        }
+        List<FeedItemTag> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = tagRepository.findLatestByTag(normalized, page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            entries = tagRepository.findBeforeByTag(normalized, after.getCreatedAt(), after.getId(), page);
+        }
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, FeedItem> byId = new HashMap<>();
+        feedRepository.findWithAuthorByIdIn(entries.stream().map(FeedItemTag::getFeedItemId).toList())
+                .forEach(item -> byId.put(item.getId(), item));
+        List<FeedItem> items = new ArrayList<>(entries.size());
+        for (FeedItemTag entry : entries) {
+            FeedItem item = byId.get(entry.getFeedItemId());
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Convert items to feed DTOs with all per-item data loaded in bulk.
+     */
+    public List<FeedItemDTO> toResponse(List<FeedItem> items, String viewerId) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> ids = items.stream().map(FeedItem::getId).toList();
+
+        Map<String, List<String>> tags = new HashMap<>();
+        for (Object[] row : feedRepository.findTagsByFeedItemIds(ids)) {
+            tags.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        Set<String> liked = viewerId != null
+                ? new HashSet<>(feedLikeRepository.findLikedFeedItemIds(viewerId, ids))
+                : Set.of();
+
+        List<FeedItemDTO> response = new ArrayList<>(items.size());
+        for (FeedItem item : items) {
+            response.add(new FeedItemDTO(
+                    item.getId(),
+                    item.getTitle(),
+                    item.getDescription(),
+                    item.getType(),
+                    item.getSourcePageId(),
+                    tags.getOrDefault(item.getId(), List.of()),
+                    item.getCreatedAt(),
+                    FeedAuthorDTO.of(item.getAuthor()),
+                    getLikes(item),
+                    liked.contains(item.getId()),
+                    item.getCommentCount()));
+        }
+        return response;
+    }
+
+    /**
+     * Like a post. Idempotent: liking twice leaves one like and returns the same count.
+     * A single conflict-ignoring insert, so concurrent likers never lock each other out.
+     */
+    @Transactional
+    public int like(String feedItemId, String userId) {
+        if (!feedRepository.existsById(feedItemId)) {
+            throw new IllegalArgumentException("Feed item not found");
+        }
+        LocalDateTime likedAt = LocalDateTime.now();
+        int added = feedLikeRepository.insertIfAbsent(UUID.randomUUID().toString(), feedItemId, userId, likedAt);
+        likeCounter.record(feedItemId, added);
+        if (added > 0) {
+            eventPublisher.publishEvent(new FeedItemChangedEvent(feedItemId, null, FeedItemChangedEvent.Change.LIKED,
+                    1, List.of(likedAt)));
+            notificationAggregator.record(feedRepository.findAuthorId(feedItemId), userId,
+                    NotificationType.POST_LIKED, feedItemId, "POST");
+        }
+        return currentLikes(feedItemId) + added;
+    }
+
+    /**
+     * Remove a like. Idempotent: unliking a post that is not liked changes nothing.
+     */
+    @Transactional
+    public int unlike(String feedItemId, String userId) {
+        if (!feedRepository.existsById(feedItemId)) {
+            throw new IllegalArgumentException("Feed item not found");
+        }
+        Optional<LocalDateTime> likedAt = feedLikeRepository.findLikedAt(feedItemId, userId);
+        int removed = feedLikeRepository.deleteLike(feedItemId, userId);
+        likeCounter.record(feedItemId, -removed);
+        if (removed > 0) {
+            eventPublisher.publishEvent(new FeedItemChangedEvent(feedItemId, null,
+                    FeedItemChangedEvent.Change.LIKED, -1, likedAt.map(List::of).orElse(List.of())));
+        }
+        return currentLikes(feedItemId) - removed;
+    }
+
+    /**
+     * Remove every like on a post in one statement, e.g. when the post is deleted. Its
+     * unflushed counter delta is dropped with it, since there is no row left to fold it into.
+     */
+    @Transactional
+    public int deleteAllLikes(String feedItemId) {
+        int removed = feedLikeRepository.deleteByFeedItemId(feedItemId);
+        likeCounter.discard(feedItemId);
+        return removed;
+    }
+
+    public boolean isLiked(String feedItemId, String userId) {
+        return userId != null && feedLikeRepository.existsByFeedItemIdAndUserId(feedItemId, userId);
+    }
+
+    /**
+     * Stored counter plus likes recorded since the last flush.
+     */
+    public int getLikes(FeedItem item) {
+        return (int) (item.getLikes() + likeCounter.pendingDelta(item.getId()));
+    }
+
+    // Count as of before this transaction's change, which is only recorded after commit
+    private int currentLikes(String feedItemId) {
+        Integer stored = feedRepository.findLikes(feedItemId);
+        return (int) ((stored != null ? stored : 0) + likeCounter.pendingDelta(feedItemId));
+    }
+
+    public static class FeedPage {
+        private final List<FeedItemDTO> items;
+        private final String nextCursor;
+        private final String etag;
+
+        public FeedPage(List<FeedItemDTO> items, String nextCursor) {
+            this(items, nextCursor, null);
+        }
+
+        public FeedPage(List<FeedItemDTO> items, String nextCursor, String etag) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.etag = etag;
+        }
+
+        public List<FeedItemDTO> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.lifeflow.backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.backend.dto.FeedItemDTO;
+import com.lifeflow.backend.dto.UserProfileDTO;
+import com.lifeflow.backend.util.Paging;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes large feed responses straight to the output stream with a Jackson generator.
+ *
+ * A profile lists every post of its author; instead of materialising them all, posts are
+ * pulled a keyset page at a time and each DTO is written and dropped, so memory per request
+ * stays at one page however prolific the author is.
+ */
+@Component
+public class FeedStreamWriter {
+
+    private final FeedService feedService;
+    private final ObjectMapper objectMapper;
+
+    public FeedStreamWriter(FeedService feedService, ObjectMapper objectMapper) {
+        this.feedService = feedService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write {"user": {...}, "posts": [...]} with the author's posts newest first.
+     */
+    public void writeProfile(UserProfileDTO user, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeFieldName("user");
+            objectMapper.writeValue(json, user);
+
+            json.writeArrayFieldStart("posts");
+            String cursor = null;
+            do {
+                FeedService.FeedPage page = feedService.getFeedPage(null, user.id(), cursor, Paging.MAX_PAGE_SIZE);
+                for (FeedItemDTO item : page.getItems()) {
+                    objectMapper.writeValue(json, item);
+                }
+                json.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+}
@@ -20,12 +20,15 @@ public class FollowService {
     
     private final FollowRepository followRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final NotificationTriggerService notificationTriggerService;
+    private final HomeTimelineService homeTimelineService;
     
-    public FollowService(FollowRepository followRepository, UserRepository userRepository, NotificationService notificationService) {
+    public FollowService(FollowRepository followRepository, UserRepository userRepository,
+            NotificationTriggerService notificationTriggerService, HomeTimelineService homeTimelineService) {
         this.followRepository = followRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.notificationTriggerService = notificationTriggerService;
+        this.homeTimelineService = homeTimelineService;
     }
     
     /**
@@ -58,9 +61,10 @@ public class FollowService {
                 .build();
         
         Follow saved = followRepository.save(follow);
+        homeTimelineService.authorFollowed(followerId, followingId);
         
         // Trigger notification for new follower
-        notificationService.createFollowerNotification(follower, following);
+        notificationTriggerService.triggerFollowerNotification(follower, following);
         
         return saved;
     }
@@ -82,6 +86,7 @@ public class FollowService {
         Optional<Follow> followOpt = followRepository.findByFollowerAndFollowing(follower, following);
         if (followOpt.isPresent()) {
             followRepository.delete(followOpt.get());
+            homeTimelineService.authorUnfollowed(followerId, followingId);
         }
     }
     
@@ -107,6 +112,7 @@ public class FollowService {
         Follow follow = followOpt.get();
         follow.setIsMuted(true);
         follow.setMutedAt(LocalDateTime.now());
+        homeTimelineService.authorUnfollowed(followerId, followingId);
         
         return followRepository.save(follow);
     }
@@ -133,6 +139,7 @@ public class FollowService {
         Follow follow = followOpt.get();
         follow.setIsMuted(false);
         follow.setMutedAt(null);
+        homeTimelineService.authorFollowed(followerId, followingId);
         
         return followRepository.save(follow);
     }
@@ -0,0 +1,237 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.HomeTimelineEntry;
+import com.lifeflow.backend.repository.FeedItemRepository;
+import com.lifeflow.backend.repository.FollowRepository;
+import com.lifeflow.backend.repository.HomeTimelineRepository;
+import com.lifeflow.backend.util.KeysetCursor;
+import com.lifeflow.backend.util.Paging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Materialized "following" timeline per user.
+ *
+ * Fan-out on write: when an author posts, the item id is copied into the home_timeline rows
+ * of the author and every follower who has not muted them, in one INSERT ... SELECT.
+ * Authors with more than fanoutThreshold followers are skipped at write time; their posts
+ * are merged in at read time instead (fan-out on read), so a single post never writes
+ * millions of rows. Timelines are capped at maxEntries per user by a periodic trim that only
+ * visits the timelines written since the previous run: authors whose posts were fanned out
+ * (walked through their followers in batches) and users who got a backfill. The set is kept
+ * in memory, so after a restart a timeline waits for its next write to be trimmed.
+ *
+ * A read is one range scan over the viewer's timeline, plus one query for followed
+ * high-follower authors when there are any.
+ */
+@Service
+@Transactional
+public class HomeTimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeTimelineService.class);
+
+    private static final Comparator<FeedItem> NEWEST_FIRST = Comparator
+            .comparing(FeedItem::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(FeedItem::getId, Comparator.reverseOrder());
+
+    private final HomeTimelineRepository timelineRepository;
+    private final FeedItemRepository feedRepository;
+    private final FollowRepository followRepository;
+    private final FeedService feedService;
+    private final long fanoutThreshold;
+    private final int maxEntries;
+    private final int backfillSize;
+    private final int trimBatchSize;
+    private final TransactionTemplate transactionTemplate;
+
+    // Authors above the fan-out threshold, refreshed periodically
+    private volatile Set<String> highFollowerAuthors = Set.of();
+    // Timelines written since the last trim: single users, and authors whose followers all got a post
+    private final Set<String> untrimmedUsers = ConcurrentHashMap.newKeySet();
+    private final Set<String> untrimmedAudiences = ConcurrentHashMap.newKeySet();
+
+    public HomeTimelineService(
+            HomeTimelineRepository timelineRepository,
+            FeedItemRepository feedRepository,
+            FollowRepository followRepository,
+            FeedService feedService,
+            @Value("${feed.timeline.fanout-threshold:10000}") long fanoutThreshold,
+            @Value("${feed.timeline.max-entries:800}") int maxEntries,
+            @Value("${feed.timeline.backfill-size:50}") int backfillSize,
+            @Value("${feed.timeline.trim-batch-size:500}") int trimBatchSize,
+            PlatformTransactionManager transactionManager) {
+        this.timelineRepository = timelineRepository;
+        this.feedRepository = feedRepository;
+        this.followRepository = followRepository;
+        this.feedService = feedService;
+        this.fanoutThreshold = fanoutThreshold;
+        this.maxEntries = maxEntries;
+        this.backfillSize = backfillSize;
+        this.trimBatchSize = trimBatchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Push a new post into its audience's timelines. High-follower authors only get it in
+     * their own timeline; followers see it through the read-time merge.
+     */
+    public void fanOut(FeedItem item) {
+        if (item.getAuthor() == null) {
+            return;
+        }
+        String authorId = item.getAuthor().getId();
+        untrimmedUsers.add(authorId);
+        if (highFollowerAuthors.contains(authorId)) {
+            timelineRepository.backfill(authorId, authorId, 1);
+            return;
+        }
+        timelineRepository.fanOut(item.getId(), authorId, item.getCreatedAt());
+        untrimmedAudiences.add(authorId);
+    }
+
+    public void removeFeedItem(String feedItemId) {
+        timelineRepository.deleteByFeedItemId(feedItemId);
+    }
+
+    /**
+     * New follow or unmute: seed the follower's timeline with the author's recent posts.
+     */
+    public void authorFollowed(String followerId, String authorId) {
+        if (!highFollowerAuthors.contains(authorId)) {
+            timelineRepository.backfill(followerId, authorId, backfillSize);
+            untrimmedUsers.add(followerId);
+        }
+    }
+
+    /**
+     * Unfollow or mute: drop the author's posts from the follower's timeline.
+     */
+    public void authorUnfollowed(String followerId, String authorId) {
+        timelineRepository.deleteByUserIdAndAuthorId(followerId, authorId);
+    }
+
+    /**
+     * One page of the viewer's home timeline, newest first, in the feed response shape.
+     */
+    @Transactional(readOnly = true)
+    public FeedService.FeedPage getHomeTimeline(String viewerId, String cursor, int limit) {
+        int size = Paging.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size);
+        KeysetCursor before = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+
+        List<HomeTimelineEntry> entries = before == null
+                ? timelineRepository.findLatest(viewerId, page)
+                : timelineRepository.findBefore(viewerId, before.getCreatedAt(), before.getId(), page);
+
+        Map<String, FeedItem> merged = new HashMap<>();
+        if (!entries.isEmpty()) {
+            for (FeedItem item : feedRepository.findWithAuthorByIdIn(
+                    entries.stream().map(HomeTimelineEntry::getFeedItemId).toList())) {
+                merged.put(item.getId(), item);
+            }
+        }
+
+        // Fan-out on read for followed high-follower authors
+        Set<String> candidates = highFollowerAuthors;
+        if (!candidates.isEmpty()) {
+            List<String> followed = followRepository.findActiveFollowingIdsAmong(viewerId, candidates);
+            if (!followed.isEmpty()) {
+                List<FeedItem> pulled = before == null
+                        ? feedRepository.findLatestByAuthors(followed, page)
+                        : feedRepository.findBeforeByAuthors(followed, before.getCreatedAt(), before.getId(), page);
+                pulled.forEach(item -> merged.putIfAbsent(item.getId(), item));
+            }
+        }
+
+        List<FeedItem> items = merged.values().stream()
+                .sorted(NEWEST_FIRST)
+                .limit(size)
+                .toList();
+
+        String nextCursor = null;
+        if (items.size() == size) {
+            FeedItem last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new FeedService.FeedPage(feedService.toResponse(items, viewerId), nextCursor);
+    }
+
+    @Scheduled(initialDelayString = "${feed.timeline.refresh-initial-delay-ms:0}",
+            fixedDelayString = "${feed.timeline.refresh-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void refreshHighFollowerAuthors() {
+        highFollowerAuthors = Set.copyOf(followRepository.findUserIdsWithMoreFollowersThan(fanoutThreshold));
+    }
+
+    @Scheduled(initialDelayString = "${feed.timeline.trim-initial-delay-ms:300000}",
+            fixedDelayString = "${feed.timeline.trim-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void trimTimelines() {
+        int removed = trim(drain(untrimmedUsers));
+        for (String authorId : drain(untrimmedAudiences)) {
+            String after = "";
+            List<String> followers;
+            do {
+                try {
+                    followers = followRepository.findActiveFollowerIdsAfter(authorId, after, trimBatchSize);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not list followers of {} to trim their timelines: {}", authorId,
+                            e.getMessage());
+                    untrimmedAudiences.add(authorId);
+                    break;
+                }
+                removed += trim(followers);
+                if (!followers.isEmpty()) {
+                    after = followers.get(followers.size() - 1);
+                }
+            } while (followers.size() == trimBatchSize);
+        }
+        if (removed > 0) {
+            logger.info("Trimmed {} home timeline entries beyond {} per user", removed, maxEntries);
+        }
+    }
+
+    // Each batch commits on its own; a failed one is retried by the next run
+    private int trim(List<String> userIds) {
+        int removed = 0;
+        for (int from = 0; from < userIds.size(); from += trimBatchSize) {
+            List<String> batch = userIds.subList(from, Math.min(from + trimBatchSize, userIds.size()));
+            try {
+                Integer deleted = transactionTemplate.execute(
+                        status -> timelineRepository.trimToCap(batch, maxEntries));
+                removed += deleted != null ? deleted : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Home timeline trim of {} users failed: {}", batch.size(), e.getMessage());
+                untrimmedUsers.addAll(batch);
+            }
+        }
+        return removed;
+    }
+
+    private static List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>(pending);
+        pending.removeAll(drained);
+        return drained;
+    }
+
+    public Set<String> getHighFollowerAuthors() {
+        return highFollowerAuthors;
+    }
+}
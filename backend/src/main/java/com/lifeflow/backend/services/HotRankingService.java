@@ -0,0 +1,381 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.event.FeedItemChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Time-decayed "hot" ranking of feed items.
+ *
+ * Each event (post created, like, comment) contributes weight * 2^(-age / halfLife). Rather
+ * than decaying every score as time passes, an event at time t adds weight * 2^(t / halfLife)
+ * measured from a fixed epoch; all scores then shrink by the same factor, so their order never
+ * changes and nothing has to be rescored. Scores are kept as natural logs so the growing
+ * exponent never overflows.
+ *
+ * Scores live in a concurrent skip list ordered by score, updated incrementally from
+ * FeedItemChangedEvent after commit, so a page is a seek plus pageSize steps. Changed scores are
+ * checkpointed to feed_hot_scores periodically and on shutdown; startup reloads the checkpoint
+ * and only recomputes from likes and comments when there is none.
+ *
+ * Pages are keyed by (score, id). Scores move while a client pages, so an item can
+ * occasionally repeat or be skipped between pages; that is accepted for a hot feed.
+ */
+@Component
+public class HotRankingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotRankingService.class);
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String SEPARATOR = "|";
+
+    private static final String UPSERT_SCORE = "INSERT INTO feed_hot_scores "
+            + "(feed_item_id, score, floor_score, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (feed_item_id) DO UPDATE SET score = EXCLUDED.score, "
+            + "floor_score = EXCLUDED.floor_score, updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_SCORE = "DELETE FROM feed_hot_scores WHERE feed_item_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final double secondsPerE;
+    private final int maxEntries;
+    private final Duration recomputeHorizon;
+
+    private final Map<String, Score> scores = new ConcurrentHashMap<>();
+    private final NavigableSet<Ranked> ranking = new ConcurrentSkipListSet<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public HotRankingService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${feed.hot.like-weight:1.0}") double likeWeight,
+            @Value("${feed.hot.comment-weight:3.0}") double commentWeight,
+            @Value("${feed.hot.half-life-hours:12}") double halfLifeHours,
+            @Value("${feed.hot.max-entries:10000}") int maxEntries,
+            @Value("${feed.hot.recompute-horizon-days:30}") long recomputeHorizonDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.secondsPerE = halfLifeHours * 3600 / Math.log(2);
+        this.maxEntries = maxEntries;
+        this.recomputeHorizon = Duration.ofDays(recomputeHorizonDays);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedItemChanged(FeedItemChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (event.getChange()) {
+            case CREATED -> recordCreated(event.getFeedItemId(), now);
+            case DELETED -> remove(event.getFeedItemId());
+            case LIKED -> recordEngagement(event, likeWeight, now);
+            case COMMENTED -> recordEngagement(event, commentWeight, now);
+        }
+    }
+
+    // Taking back engagement subtracts it at the time it was added, not now
+    private void recordEngagement(FeedItemChangedEvent event, double weight, LocalDateTime now) {
+        if (event.getOccurredAt().isEmpty()) {
+            recordEngagement(event.getFeedItemId(), weight * event.getDelta(), now);
+            return;
+        }
+        double signed = Math.signum(event.getDelta()) * weight;
+        for (LocalDateTime at : event.getOccurredAt()) {
+            recordEngagement(event.getFeedItemId(), signed, at != null ? at : now);
+        }
+    }
+
+    /**
+     * A new post starts with weight 1 at its creation time; engagement can never take it lower.
+     */
+    public void recordCreated(String feedItemId, LocalDateTime createdAt) {
+        double base = logWeight(1, createdAt);
+        update(feedItemId, current -> current == null
+                ? new Score(base, base)
+                : new Score(logAdd(current.value, base), Math.max(current.floor, base)));
+    }
+
+    /**
+     * Add (or, for a negative weight, take back) engagement at the given time.
+     */
+    public void recordEngagement(String feedItemId, double weight, LocalDateTime at) {
+        if (weight == 0) {
+            return;
+        }
+        double contribution = logWeight(Math.abs(weight), at);
+        update(feedItemId, current -> {
+            if (weight > 0) {
+                return current == null
+                        ? new Score(contribution, Double.NEGATIVE_INFINITY)
+                        : new Score(logAdd(current.value, contribution), current.floor);
+            }
+            if (current == null) {
+                return null;
+            }
+            double value = Math.max(logSubtract(current.value, contribution), current.floor);
+            return value == Double.NEGATIVE_INFINITY ? null : new Score(value, current.floor);
+        });
+    }
+
+    public void remove(String feedItemId) {
+        update(feedItemId, current -> null);
+    }
+
+    /**
+     * Current log score, or null when the item is not ranked.
+     */
+    public Double getScore(String feedItemId) {
+        Score score = scores.get(feedItemId);
+        return score != null ? score.value : null;
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * Up to limit item ids, hottest first, after the given cursor.
+     */
+    public HotPage page(String cursor, int limit) {
+        Iterator<Ranked> iterator = cursor == null || cursor.isEmpty()
+                ? ranking.iterator()
+                : ranking.tailSet(decodeCursor(cursor), false).iterator();
+        List<String> ids = new ArrayList<>(limit);
+        Ranked last = null;
+        while (ids.size() < limit && iterator.hasNext()) {
+            last = iterator.next();
+            ids.add(last.feedItemId);
+        }
+        String nextCursor = ids.size() == limit && iterator.hasNext() ? encodeCursor(last) : null;
+        return new HotPage(ids, nextCursor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT feed_item_id, score, floor_score FROM feed_hot_scores");
+        if (rows.isEmpty()) {
+            recompute();
+            return;
+        }
+        for (Map<String, Object> row : rows) {
+            String id = (String) row.get("feed_item_id");
+            Score score = new Score(((Number) row.get("score")).doubleValue(),
+                    ((Number) row.get("floor_score")).doubleValue());
+            update(id, current -> score);
+        }
+        dirty.clear();
+        logger.info("Loaded {} hot ranking scores from checkpoint", rows.size());
+    }
+
+    @Scheduled(initialDelayString = "${feed.hot.checkpoint-interval-ms:60000}",
+            fixedDelayString = "${feed.hot.checkpoint-interval-ms:60000}")
+    public synchronized void checkpoint() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> changed = new ArrayList<>(dirty);
+        dirty.removeAll(changed);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (String id : changed) {
+            Score score = scores.get(id);
+            if (score != null) {
+                upserts.add(new Object[] { id, score.value, score.floor, now });
+            } else {
+                deletes.add(new Object[] { id });
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_SCORE, upserts);
+                jdbcTemplate.batchUpdate(DELETE_SCORE, deletes);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to checkpoint {} hot ranking scores, will retry", changed.size(), e);
+            dirty.addAll(changed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    // No checkpoint yet: replay recent posts, likes and comments once, then checkpoint them
+    private void recompute() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(recomputeHorizon));
+        jdbcTemplate.query("SELECT id, created_at FROM feed_items WHERE created_at > ?",
+                rs -> {
+                    recordCreated(rs.getString(1), rs.getTimestamp(2).toLocalDateTime());
+                }, since);
+        jdbcTemplate.query("SELECT l.feed_item_id, l.created_at FROM feed_likes l "
+                + "JOIN feed_items f ON f.id = l.feed_item_id WHERE f.created_at > ? AND l.created_at IS NOT NULL",
+                rs -> {
+                    recordEngagement(rs.getString(1), likeWeight, rs.getTimestamp(2).toLocalDateTime());
+                }, since);
+        jdbcTemplate.query("SELECT c.feed_item_id, c.created_at FROM comments c "
+                + "JOIN feed_items f ON f.id = c.feed_item_id WHERE f.created_at > ? AND c.created_at IS NOT NULL",
+                rs -> {
+                    recordEngagement(rs.getString(1), commentWeight, rs.getTimestamp(2).toLocalDateTime());
+                }, since);
+        logger.info("Recomputed {} hot ranking scores", scores.size());
+        checkpoint();
+    }
+
+    // Swap the item's score atomically and keep the skip list in step
+    private void update(String feedItemId, UnaryOperator<Score> change) {
+        scores.compute(feedItemId, (id, current) -> {
+            Score updated = change.apply(current);
+            if (current != null) {
+                ranking.remove(new Ranked(current.value, id));
+            }
+            if (updated != null) {
+                ranking.add(new Ranked(updated.value, id));
+            }
+            dirty.add(id);
+            return updated;
+        });
+        while (scores.size() > maxEntries) {
+            Ranked coldest = ranking.pollLast();
+            if (coldest == null) {
+                break;
+            }
+            scores.computeIfPresent(coldest.feedItemId, (id, current) -> {
+                ranking.remove(new Ranked(current.value, id));
+                dirty.add(id);
+                return null;
+            });
+        }
+    }
+
+    private double logWeight(double weight, LocalDateTime at) {
+        double seconds = at.toEpochSecond(ZoneOffset.UTC) - EPOCH.toEpochSecond(ZoneOffset.UTC);
+        return Math.log(weight) + seconds / secondsPerE;
+    }
+
+    // log(e^a + e^b) without overflow
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // log(e^a - e^b), or negative infinity when b >= a
+    private static double logSubtract(double a, double b) {
+        if (b >= a) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return a + Math.log1p(-Math.exp(b - a));
+    }
+
+    private static String encodeCursor(Ranked ranked) {
+        String raw = Long.toHexString(Double.doubleToLongBits(ranked.score)) + SEPARATOR + ranked.feedItemId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Ranked decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split <= 0 || split == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            double score = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, split), 16));
+            return new Ranked(score, raw.substring(split + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public static class HotPage {
+        private final List<String> feedItemIds;
+        private final String nextCursor;
+
+        public HotPage(List<String> feedItemIds, String nextCursor) {
+            this.feedItemIds = feedItemIds;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<String> getFeedItemIds() {
+            return feedItemIds;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    private static final class Score {
+        private final double value;
+        private final double floor;
+
+        private Score(double value, double floor) {
+            this.value = value;
+            this.floor = floor;
+        }
+    }
+
+    // Skip list key: highest score first, id as tie-breaker
+    private static final class Ranked implements Comparable<Ranked> {
+        private static final Comparator<Ranked> ORDER = Comparator
+                .comparingDouble((Ranked r) -> r.score).reversed()
+                .thenComparing(r -> r.feedItemId);
+
+        private final double score;
+        private final String feedItemId;
+
+        private Ranked(double score, String feedItemId) {
+            this.score = score;
+            this.feedItemId = feedItemId;
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Ranked other && compareTo(other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(score) * 31 + feedItemId.hashCode();
+        }
+    }
+}
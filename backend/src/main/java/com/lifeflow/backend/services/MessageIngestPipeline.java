@@ -0,0 +1,293 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.MessageDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for WebSocket chat messages.
+ *
+ * A message is validated, given its id and timestamp, and broadcast to the conversation
+ * topic immediately. It is then queued and group-committed to PostgreSQL by a single writer
+ * thread using JDBC batch inserts. Once the batch commits, the sender receives an
+ * acknowledgement on /user/queue/chat/ack carrying its clientMessageId. A message that cannot be
+ * persisted is retracted: a {type: "retracted"} frame on the conversation topic tells every
+ * participant to drop it again.
+ *
+ * Ordering: id, timestamp, broadcast and enqueue happen under a lock striped by conversation,
+ * so within a conversation the broadcast order, the queue order and the (createdAt, id)
+ * sort key all agree.
+ */
+@Component
+public class MessageIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestPipeline.class);
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long ENQUEUE_TIMEOUT_MS = 1000;
+
+    private static final String INSERT_MESSAGE = "INSERT INTO messages "
+            + "(id, conversation_id, sender_id, content, is_edited, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, false, ?, ?)";
+    private static final String UPDATE_LAST_MESSAGE = "UPDATE conversations "
+            + "SET last_message_at = ?, updated_at = ? WHERE id = ?";
+    private static final String INCREMENT_UNREAD = "UPDATE conversation_participants "
+            + "SET unread_count = unread_count + ? WHERE conversation_id = ? AND user_id <> ?";
+
+    private final MessagingService messagingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final LocalDateTime[] lastTimestamps = new LocalDateTime[LOCK_STRIPES];
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public MessageIngestPipeline(
+            MessagingService messagingService,
+            SimpMessagingTemplate messagingTemplate,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${messaging.ingest.pipelined:false}") boolean enabled,
+            @Value("${messaging.ingest.batch-size:500}") int batchSize,
+            @Value("${messaging.ingest.flush-interval-ms:20}") long flushIntervalMs,
+            @Value("${messaging.ingest.queue-capacity:10000}") int queueCapacity) {
+        this.messagingService = messagingService;
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "message-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Message ingest pipeline started (batch size {}, flush interval {} ms)", batchSize,
+                flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept a message: validate, assign id and timestamp, broadcast, and queue it for the writer.
+     * Returns the broadcast DTO; persistence is acknowledged later on /user/queue/chat/ack.
+     */
+    public MessageDTO submit(String conversationId, String userId, String content, String clientMessageId) {
+        MessageDTO message = messagingService.prepareMessage(conversationId, userId, content);
+
+        int stripe = Math.floorMod(conversationId.hashCode(), LOCK_STRIPES);
+        synchronized (locks[stripe]) {
+            // PostgreSQL keeps microseconds; keep the key strictly increasing at that precision
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            LocalDateTime last = lastTimestamps[stripe];
+            if (last != null && !now.isAfter(last)) {
+                now = last.plus(1, ChronoUnit.MICROS);
+            }
+            lastTimestamps[stripe] = now;
+
+            message.setId(UUID.randomUUID().toString());
+            message.setCreatedAt(now);
+            message.setUpdatedAt(now);
+            message.setClientMessageId(clientMessageId);
+
+            try {
+                if (!queue.offer(new PendingMessage(message, clientMessageId), ENQUEUE_TIMEOUT_MS,
+                        TimeUnit.MILLISECONDS)) {
+                    throw new RuntimeException("Message queue is full, try again");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while queueing message", e);
+            }
+
+            messagingTemplate.convertAndSend("/topic/conversation/" + conversationId, message);
+        }
+        return message;
+    }
+
+    /**
+     * Acknowledge a message that was saved synchronously, outside the pipeline, so clients
+     * see the same ack protocol whichever mode is on.
+     */
+    public void acknowledgeSaved(MessageDTO message, String clientMessageId) {
+        acknowledge(List.of(new PendingMessage(message, clientMessageId)), "persisted");
+    }
+
+    /**
+     * Tell the sender a message was not accepted.
+     */
+    public void reject(String userId, String conversationId, String clientMessageId, String reason) {
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("conversationId", conversationId);
+        ack.put("clientMessageId", clientMessageId);
+        ack.put("status", "rejected");
+        ack.put("error", reason);
+        ack.put("timestamp", System.currentTimeMillis());
+        messagingTemplate.convertAndSendToUser(userId, "/queue/chat/ack", ack);
+    }
+
+    private void runWriter() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Shutting down: flush whatever is still queued
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingMessage> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            acknowledge(batch, "persisted");
+        } catch (RuntimeException e) {
+            logger.error("Batch insert of {} messages failed, retrying one by one", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                List<PendingMessage> single = List.of(pending);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(single));
+                    acknowledge(single, "persisted");
+                } catch (RuntimeException ex) {
+                    logger.error("Failed to persist message {}", pending.message.getId(), ex);
+                    acknowledge(single, "failed");
+                    retract(pending.message);
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingMessage> batch) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch, batch.size(), (ps, pending) -> {
+            MessageDTO message = pending.message;
+            ps.setString(1, message.getId());
+            ps.setString(2, message.getConversationId());
+            ps.setString(3, message.getSenderId());
+            ps.setString(4, message.getContent());
+            ps.setTimestamp(5, Timestamp.valueOf(message.getCreatedAt()));
+            ps.setTimestamp(6, Timestamp.valueOf(message.getUpdatedAt()));
+        });
+
+        // Fold the batch into one conversation update and one unread bump per sender
+        Map<String, LocalDateTime> lastMessageAt = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> sentCounts = new LinkedHashMap<>();
+        for (PendingMessage pending : batch) {
+            MessageDTO message = pending.message;
+            lastMessageAt.merge(message.getConversationId(), message.getCreatedAt(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+            sentCounts.computeIfAbsent(message.getConversationId(), id -> new LinkedHashMap<>())
+                    .merge(message.getSenderId(), 1, Integer::sum);
+        }
+
+        List<Object[]> conversationUpdates = new ArrayList<>();
+        lastMessageAt.forEach((conversationId, at) -> conversationUpdates.add(
+                new Object[] { Timestamp.valueOf(at), Timestamp.valueOf(at), conversationId }));
+        jdbcTemplate.batchUpdate(UPDATE_LAST_MESSAGE, conversationUpdates);
+
+        List<Object[]> unreadUpdates = new ArrayList<>();
+        sentCounts.forEach((conversationId, bySender) -> bySender.forEach((senderId, count) -> unreadUpdates.add(
+                new Object[] { count, conversationId, senderId })));
+        jdbcTemplate.batchUpdate(INCREMENT_UNREAD, unreadUpdates);
+    }
+
+    private void acknowledge(List<PendingMessage> messages, String status) {
+        for (PendingMessage pending : messages) {
+            Map<String, Object> ack = new HashMap<>();
+            ack.put("messageId", pending.message.getId());
+            ack.put("conversationId", pending.message.getConversationId());
+            ack.put("clientMessageId", pending.clientMessageId);
+            ack.put("status", status);
+            ack.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSendToUser(pending.message.getSenderId(), "/queue/chat/ack", ack);
+        }
+    }
+
+    // Everyone already received the broadcast; tell them the message does not exist after all
+    private void retract(MessageDTO message) {
+        Map<String, Object> retraction = new HashMap<>();
+        retraction.put("type", "retracted");
+        retraction.put("messageId", message.getId());
+        retraction.put("conversationId", message.getConversationId());
+        retraction.put("timestamp", System.currentTimeMillis());
+        messagingTemplate.convertAndSend("/topic/conversation/" + message.getConversationId(), retraction);
+    }
+
+    private static final class PendingMessage {
+        private final MessageDTO message;
+        private final String clientMessageId;
+
+        private PendingMessage(MessageDTO message, String clientMessageId) {
+            this.message = message;
+            this.clientMessageId = clientMessageId;
+        }
+    }
+}
@@ -3,10 +3,9 @@ package com.lifeflow.backend.services;
 import com.lifeflow.backend.dto.*;
 import com.lifeflow.backend.model.*;
 import com.lifeflow.backend.repository.*;
+import com.lifeflow.backend.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +17,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class MessagingService {
 
+    private static final int MAX_EMOJI_LENGTH = 32;
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -34,21 +35,28 @@ public class MessagingService {
     private MessageReactionRepository reactionRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ConversationMembershipCache membershipCache;
 
     // CONVERSATION OPERATIONS
 
     public List<ConversationDTO> getConversations(String userId) {
         List<Conversation> conversations = conversationRepository.findByUserId(userId);
         return conversations.stream()
-                .map(this::convertToConversationDTO)
+                .map(c -> convertToConversationDTO(c, userId))
                 .collect(Collectors.toList());
     }
 
-    public List<ConversationPreviewDTO> getConversationPreviews(String userId) {
-        List<Conversation> conversations = conversationRepository.findByUserId(userId);
-        return conversations.stream()
-                .map(c -> convertToPreviewDTO(c, userId))
+    public List<ConversationPreviewDTO> getConversationPreviews(String userId, int limit, int offset) {
+        // Single set-based query: latest message, partner and participant count are joined per row
+        List<ConversationPreviewProjection> rows = conversationRepository.findPreviewsByUserId(userId, limit, offset);
+        return rows.stream()
+                .map(this::convertToPreviewDTO)
                 .collect(Collectors.toList());
     }
 
@@ -59,14 +67,14 @@ public class MessagingService {
         // Verify user is participant
         verifyUserIsParticipant(conversationId, userId);
 
-        return convertToConversationDTO(conversation);
+        return convertToConversationDTO(conversation, userId);
     }
 
     public ConversationDTO createDirectConversation(String userId, String targetUserId) {
         // Check if direct conversation already exists
         Conversation existing = conversationRepository.findDirectConversation(userId, targetUserId);
         if (existing != null) {
-            return convertToConversationDTO(existing);
+            return convertToConversationDTO(existing, userId);
         }
 
         Conversation conversation = new Conversation("direct", userId);
@@ -75,8 +83,9 @@ public class MessagingService {
         // Add participants
         participantRepository.save(new ConversationParticipant(saved, userId));
         participantRepository.save(new ConversationParticipant(saved, targetUserId));
+        membershipCache.invalidate(saved.getId());
 
-        return convertToConversationDTO(saved);
+        return convertToConversationDTO(saved, userId);
     }
 
     public ConversationDTO createGroupConversation(String name, String description, List<String> participantIds,
@@ -93,8 +102,9 @@ public class MessagingService {
         for (String participantId : allParticipants) {
             participantRepository.save(new ConversationParticipant(saved, participantId));
         }
+        membershipCache.invalidate(saved.getId());
 
-        return convertToConversationDTO(saved);
+        return convertToConversationDTO(saved, creatorId);
     }
 
     public ConversationDTO updateConversation(String conversationId, String userId, ConversationDTO updates) {
@@ -119,7 +129,7 @@ public class MessagingService {
         conversation.setUpdatedAt(LocalDateTime.now());
         Conversation saved = conversationRepository.save(conversation);
 
-        return convertToConversationDTO(saved);
+        return convertToConversationDTO(saved, userId);
     }
 
     public void archiveConversation(String conversationId, String userId) {
@@ -140,6 +150,7 @@ public class MessagingService {
         verifyUserIsParticipant(conversationId, userId);
 
         conversationRepository.delete(conversation);
+        membershipCache.invalidate(conversationId);
     }
 
     // MESSAGE OPERATIONS
@@ -147,12 +158,44 @@ public class MessagingService {
     public List<MessageDTO> getMessages(String conversationId, String userId, int limit, int offset) {
         verifyUserIsParticipant(conversationId, userId);
 
-        Pageable pageable = PageRequest.of(offset / limit, limit);
-        Page<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtDesc(conversationId, pageable);
+        List<Message> messages = offset > 0
+                ? messageRepository.findPageByConversationId(conversationId, limit, offset)
+                : messageRepository.findLatestByConversationId(conversationId, PageRequest.of(0, limit));
 
-        return messages.getContent().stream()
-                .map(this::convertToMessageDTO)
-                .collect(Collectors.toList());
+        return convertToMessageDTOs(messages, userId);
+    }
+
+    /**
+     * Page of messages older than the cursor, newest first.
+     * A null cursor returns the latest page.
+     */
+    public List<MessageDTO> getMessagesBefore(String conversationId, String userId, String before, int limit) {
+        verifyUserIsParticipant(conversationId, userId);
+
+        List<Message> messages;
+        if (before == null || before.isEmpty()) {
+            messages = messageRepository.findLatestByConversationId(conversationId, PageRequest.of(0, limit));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            messages = messageRepository.findBeforeCursor(conversationId, cursor.getCreatedAt(), cursor.getId(),
+                    PageRequest.of(0, limit));
+        }
+
+        return convertToMessageDTOs(messages, userId);
+    }
+
+    /**
+     * Page of messages newer than the cursor, newest first so both directions share one ordering.
+     */
+    public List<MessageDTO> getMessagesAfter(String conversationId, String userId, String after, int limit) {
+        verifyUserIsParticipant(conversationId, userId);
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<Message> messages = new ArrayList<>(messageRepository.findAfterCursor(conversationId,
+                cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, limit)));
+        Collections.reverse(messages);
+
+        return convertToMessageDTOs(messages, userId);
     }
 
     public MessageDTO sendMessage(String conversationId, String userId, String content) {
@@ -174,12 +217,38 @@ public class MessagingService {
 
         Message saved = messageRepository.save(message);
 
+        // Bump every other participant's unread counter in one statement
+        participantRepository.incrementUnreadCount(conversationId, userId);
+
         // Update conversation last message time
         conversation.setLastMessageAt(LocalDateTime.now());
         conversation.setUpdatedAt(LocalDateTime.now());
         conversationRepository.save(conversation);
 
-        return convertToMessageDTO(saved);
+        return convertToMessageDTO(saved, userId);
+    }
+
+    /**
+     * Validate a message and build its DTO without persisting it.
+     * Used by MessageIngestPipeline, which assigns id and timestamps and writes in batches.
+     */
+    @Transactional(readOnly = true)
+    public MessageDTO prepareMessage(String conversationId, String userId, String content) {
+        verifyUserIsParticipant(conversationId, userId);
+
+        if (content == null || content.trim().isEmpty()) {
+            throw new RuntimeException("Message content cannot be empty");
+        }
+
+        MessageDTO dto = new MessageDTO();
+        dto.setConversationId(conversationId);
+        dto.setSenderId(userId);
+        dto.setSender(convertToChatUserDTO(userId, userSummaryResolver.resolve(userId)));
+        dto.setContent(content);
+        dto.setIsEdited(false);
+        dto.setReactionSummary(new ArrayList<>());
+        dto.setAttachments(new ArrayList<>());
+        return dto;
     }
 
     public MessageDTO editMessage(String conversationId, String messageId, String userId, String newContent) {
@@ -197,7 +266,7 @@ public class MessagingService {
         message.setUpdatedAt(LocalDateTime.now());
 
         Message updated = messageRepository.save(message);
-        return convertToMessageDTO(updated);
+        return convertToMessageDTO(updated, userId);
     }
 
     public void deleteMessage(String conversationId, String messageId, String userId) {
@@ -229,87 +298,82 @@ public class MessagingService {
             ConversationRead read = new ConversationRead(conversation, userId);
             readRepository.save(read);
         }
+
+        participantRepository.resetUnreadCount(conversationId, userId);
     }
 
     // REACTION OPERATIONS
 
-    public MessageDTO addReaction(String conversationId, String messageId, String userId, String emoji) {
+    /**
+     * Add a reaction without reloading the message: one existence check and one
+     * conflict-ignoring insert. Returns the count change (+1, or 0 if already reacted).
+     */
+    public ReactionDeltaDTO addReaction(String conversationId, String messageId, String userId, String emoji) {
         verifyUserIsParticipant(conversationId, userId);
+        verifyReaction(conversationId, messageId, emoji);
 
-        Message message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
-
-        Optional<MessageReaction> existing = reactionRepository.findByMessageIdAndUserIdAndEmoji(messageId, userId,
-                emoji);
-
-        if (existing.isEmpty()) {
-            MessageReaction reaction = new MessageReaction(message, userId, emoji);
-            reactionRepository.save(reaction);
-        }
-
-        Message updated = messageRepository.findById(messageId).get();
-        return convertToMessageDTO(updated);
+        int added = reactionRepository.insertIfAbsent(UUID.randomUUID().toString(), messageId, userId, emoji,
+                LocalDateTime.now());
+        return new ReactionDeltaDTO(conversationId, messageId, userId, emoji, added);
     }
 
-    public MessageDTO removeReaction(String conversationId, String messageId, String userId, String emoji) {
+    /**
+     * Remove a reaction with a single delete. Returns the count change (-1, or 0 if there was none).
+     */
+    public ReactionDeltaDTO removeReaction(String conversationId, String messageId, String userId, String emoji) {
         verifyUserIsParticipant(conversationId, userId);
+        verifyReaction(conversationId, messageId, emoji);
 
-        Optional<MessageReaction> reaction = reactionRepository.findByMessageIdAndUserIdAndEmoji(messageId, userId,
-                emoji);
-
-        if (reaction.isPresent()) {
-            reactionRepository.delete(reaction.get());
-        }
-
-        Message message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
-        return convertToMessageDTO(message);
+        int removed = reactionRepository.deleteByMessageIdAndUserIdAndEmoji(messageId, userId, emoji);
+        return new ReactionDeltaDTO(conversationId, messageId, userId, emoji, -removed);
     }
 
     // SEARCH
 
-    public List<MessageDTO> searchMessages(String userId, String query, String conversationId) {
+    public List<MessageDTO> searchMessages(String userId, String query, String conversationId, int limit, int offset) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
         List<Message> results;
 
         if (conversationId != null && !conversationId.isEmpty()) {
             verifyUserIsParticipant(conversationId, userId);
-            results = messageRepository.searchMessages(conversationId, query);
+            results = messageRepository.searchMessages(conversationId, query, limit, offset);
         } else {
-            results = messageRepository.searchAllMessages(query);
+            // Only conversations the caller participates in
+            results = messageRepository.searchUserMessages(userId, query, limit, offset);
         }
 
-        return results.stream()
-                .map(this::convertToMessageDTO)
-                .collect(Collectors.toList());
+        return convertToMessageDTOs(results, userId);
     }
 
     // STATS
 
     public InboxStatsDTO getInboxStats(String userId) {
-        List<Conversation> conversations = conversationRepository.findByUserId(userId);
+        InboxCountsProjection counts = participantRepository.getInboxCounts(userId);
 
-        int totalUnread = 0;
-        for (Conversation conv : conversations) {
-            Optional<ConversationRead> read = readRepository.findByConversationIdAndUserId(conv.getId(), userId);
-            if (read.isEmpty() && !conv.getMessages().isEmpty()) {
-                totalUnread += conv.getMessages().size();
-            }
-        }
-
-        return new InboxStatsDTO(totalUnread, conversations.size(), 0);
+        return new InboxStatsDTO(counts.getUnread().intValue(), counts.getConversations().intValue(), 0);
     }
 
     // HELPER METHODS
 
     private void verifyUserIsParticipant(String conversationId, String userId) {
-        Optional<ConversationParticipant> participant = participantRepository
-                .findByConversationIdAndUserId(conversationId, userId);
-        if (participant.isEmpty()) {
+        if (!membershipCache.isParticipant(conversationId, userId)) {
             throw new RuntimeException("User is not a participant of this conversation");
         }
     }
 
-    private ConversationDTO convertToConversationDTO(Conversation conversation) {
+    private void verifyReaction(String conversationId, String messageId, String emoji) {
+        if (emoji == null || emoji.isBlank() || emoji.length() > MAX_EMOJI_LENGTH) {
+            throw new RuntimeException("Invalid emoji");
+        }
+        if (!messageRepository.existsInConversation(messageId, conversationId)) {
+            throw new RuntimeException("Message not found");
+        }
+    }
+
+    private ConversationDTO convertToConversationDTO(Conversation conversation, String currentUserId) {
         ConversationDTO dto = new ConversationDTO();
         dto.setId(conversation.getId());
         dto.setType(conversation.getType());
@@ -321,101 +385,115 @@ public class MessagingService {
         dto.setCreatedAt(conversation.getCreatedAt());
         dto.setUpdatedAt(conversation.getUpdatedAt());
         dto.setLastMessageAt(conversation.getLastMessageAt());
-        dto.setUnreadCount(0);
+
+        Message lastMsg = conversation.getMessages().stream()
+                .max(Comparator.comparing(Message::getCreatedAt))
+                .orElse(null);
+
+        // Participants and the last sender resolved together in one lookup
+        List<String> userIds = conversation.getParticipants().stream()
+                .map(ConversationParticipant::getUserId)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (lastMsg != null) {
+            userIds.add(lastMsg.getSenderId());
+        }
+        Map<String, UserSummaryDTO> users = userSummaryResolver.resolveAll(userIds);
 
         // Set participants
         List<ChatUserDTO> participants = conversation.getParticipants().stream()
-                .map(p -> convertToChatUserDTO(p.getUserId()))
+                .map(p -> convertToChatUserDTO(p.getUserId(), users.get(p.getUserId())))
                 .collect(Collectors.toList());
         dto.setParticipants(participants);
 
+        // Unread count comes from the caller's own participant row, already loaded above
+        dto.setUnreadCount(conversation.getParticipants().stream()
+                .filter(p -> p.getUserId().equals(currentUserId))
+                .map(ConversationParticipant::getUnreadCount)
+                .findFirst()
+                .orElse(0));
+
         // Set last message
-        if (!conversation.getMessages().isEmpty()) {
-            Message lastMsg = conversation.getMessages().stream()
-                    .max(Comparator.comparing(Message::getCreatedAt))
-                    .orElse(null);
-            if (lastMsg != null) {
-                dto.setLastMessage(convertToMessageDTO(lastMsg));
-            }
+        if (lastMsg != null) {
+            dto.setLastMessage(convertToMessageDTOs(List.of(lastMsg), currentUserId, users).get(0));
         }
 
         return dto;
     }
 
-    private ConversationPreviewDTO convertToPreviewDTO(Conversation conversation, String currentUserId) {
+    private ConversationPreviewDTO convertToPreviewDTO(ConversationPreviewProjection row) {
         ConversationPreviewDTO dto = new ConversationPreviewDTO();
-        dto.setId(conversation.getId());
+        dto.setId(row.getId());
 
         // Resolve conversation name
-        if ("direct".equals(conversation.getType())) {
-            // Find the other participant
-            String partnerId = conversation.getParticipants().stream()
-                    .map(ConversationParticipant::getUserId)
-                    .filter(id -> !id.equals(currentUserId))
-                    .findFirst()
-                    .orElse(null);
-
-            if (partnerId != null) {
-                userRepository.findById(partnerId).ifPresent(user -> {
-                    dto.setName(user.getName());
-                    dto.setAvatar(user.getAvatar());
-                });
-            } else {
-                dto.setName("Direct Message");
-            }
+        if ("direct".equals(row.getType())) {
+            dto.setName(row.getPartnerName() != null ? row.getPartnerName() : "Direct Message");
+            dto.setAvatar(row.getPartnerAvatar());
         } else {
-            dto.setName(conversation.getName() != null ? conversation.getName() : "Group Chat");
-            dto.setAvatar(conversation.getAvatar());
+            dto.setName(row.getName() != null ? row.getName() : "Group Chat");
+            dto.setAvatar(row.getAvatar());
         }
 
-        dto.setParticipantCount(conversation.getParticipants().size());
-        dto.setIsPinned(false);
-        dto.setUnreadCount(0);
-
-        if (!conversation.getMessages().isEmpty()) {
-            Message lastMsg = conversation.getMessages().stream()
-                    .max(Comparator.comparing(Message::getCreatedAt))
-                    .orElse(null);
-            if (lastMsg != null) {
-                dto.setLastMessage(lastMsg.getContent());
-
-                // Resolve last message author name
-                String authorName = userRepository.findById(lastMsg.getSenderId())
-                        .map(User::getName)
-                        .orElse("Unknown");
-                dto.setLastMessageAuthor(authorName);
-
-                dto.setLastMessageTime(lastMsg.getCreatedAt().toString());
-            }
+        dto.setParticipantCount(row.getParticipantCount() != null ? row.getParticipantCount().intValue() : 0);
+        dto.setIsPinned(Boolean.TRUE.equals(row.getIsPinned()));
+        dto.setUnreadCount(row.getUnreadCount() != null ? row.getUnreadCount() : 0);
+
+        if (row.getLastMessageAt() != null) {
+            dto.setLastMessage(row.getLastMessage());
+            dto.setLastMessageAuthor(row.getLastMessageAuthor() != null ? row.getLastMessageAuthor() : "Unknown");
+            dto.setLastMessageTime(row.getLastMessageAt().toString());
         }
 
         return dto;
     }
 
-    private MessageDTO convertToMessageDTO(Message message) {
+    /**
+     * Convert a page of messages, resolving each distinct sender once and aggregating
+     * reactions for the whole page in one grouped query.
+     */
+    private List<MessageDTO> convertToMessageDTOs(List<Message> messages, String viewerId) {
+        Map<String, UserSummaryDTO> users = userSummaryResolver.resolveAll(messages.stream()
+                .map(Message::getSenderId)
+                .collect(Collectors.toSet()));
+        return convertToMessageDTOs(messages, viewerId, users);
+    }
+
+    private List<MessageDTO> convertToMessageDTOs(List<Message> messages, String viewerId,
+            Map<String, UserSummaryDTO> users) {
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, List<ReactionSummaryDTO>> reactions = new HashMap<>();
+        List<String> messageIds = messages.stream().map(Message::getId).collect(Collectors.toList());
+        for (ReactionCountProjection row : reactionRepository.countByMessageIds(messageIds, viewerId)) {
+            reactions.computeIfAbsent(row.getMessageId(), id -> new ArrayList<>())
+                    .add(new ReactionSummaryDTO(row.getEmoji(), row.getCount(),
+                            row.getReactedByMe() != null && row.getReactedByMe() > 0));
+        }
+
+        return messages.stream()
+                .map(m -> convertToMessageDTO(m, users.get(m.getSenderId()),
+                        reactions.getOrDefault(m.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private MessageDTO convertToMessageDTO(Message message, String viewerId) {
+        return convertToMessageDTOs(List.of(message), viewerId).get(0);
+    }
+
+    private MessageDTO convertToMessageDTO(Message message, UserSummaryDTO sender,
+            List<ReactionSummaryDTO> reactions) {
         MessageDTO dto = new MessageDTO();
         dto.setId(message.getId());
         dto.setConversationId(message.getConversation().getId());
         dto.setSenderId(message.getSenderId());
-        dto.setSender(convertToChatUserDTO(message.getSenderId()));
+        dto.setSender(convertToChatUserDTO(message.getSenderId(), sender));
         dto.setContent(message.getContent());
         dto.setCreatedAt(message.getCreatedAt());
         dto.setUpdatedAt(message.getUpdatedAt());
         dto.setIsEdited(message.getIsEdited());
 
-        // Convert reactions
-        List<MessageReactionDTO> reactions = message.getReactions().stream()
-                .map(r -> {
-                    MessageReactionDTO rDto = new MessageReactionDTO();
-                    rDto.setId(r.getId());
-                    rDto.setMessageId(r.getMessage().getId());
-                    rDto.setUserId(r.getUserId());
-                    rDto.setEmoji(r.getEmoji());
-                    rDto.setCreatedAt(r.getCreatedAt());
-                    return rDto;
-                })
-                .collect(Collectors.toList());
-        dto.setReactions(reactions);
+        dto.setReactionSummary(reactions);
 
         // Convert attachments
         List<AttachmentDTO> attachments = message.getAttachments().stream()
@@ -436,23 +514,19 @@ public class MessagingService {
         return dto;
     }
 
-    private ChatUserDTO convertToChatUserDTO(String userId) {
-        return userRepository.findById(userId)
-                .map(user -> {
-                    ChatUserDTO dto = new ChatUserDTO();
-                    dto.setId(user.getId());
-                    dto.setName(user.getName());
-                    dto.setEmail(user.getEmail());
-                    dto.setAvatar(user.getAvatar());
-                    dto.setStatus("online");
-                    return dto;
-                })
-                .orElseGet(() -> {
-                    ChatUserDTO dto = new ChatUserDTO();
-                    dto.setId(userId);
-                    dto.setName("Unknown User");
-                    dto.setStatus("offline");
-                    return dto;
-                });
+    private ChatUserDTO convertToChatUserDTO(String userId, UserSummaryDTO user) {
+        ChatUserDTO dto = new ChatUserDTO();
+        if (user == null) {
+            dto.setId(userId);
+            dto.setName("Unknown User");
+            dto.setStatus("offline");
+            return dto;
+        }
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setAvatar(user.getAvatar());
+        dto.setStatus(presenceService.getStatus(userId));
+        return dto;
     }
 }
@@ -0,0 +1,367 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.UserSummaryDTO;
+import com.lifeflow.backend.enums.NotificationType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces engagement notifications (likes, comments, replies, follows) into one row per
+ * recipient, type and target, e.g. "Alice and 41 others liked your post".
+ *
+ * Events are buffered in memory per (recipient, type, relatedEntityId) and a scheduled flush
+ * folds each group into the recipient's newest unread notification for that group within the
+ * window, or inserts a new one. A row carries the total actorCount and the ids of the most
+ * recent actors, and is moved to the top of the inbox. Once read, further activity starts a
+ * new row. Follows are grouped per recipient rather than per follower.
+ *
+ * A flush costs one lookup query, one batched UPDATE and one batched INSERT per batchSize
+ * groups, however many events arrived. Actor counts are approximate for actors who act on
+ * the same target again after dropping out of the recent list.
+ */
+@Component
+public class NotificationAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationAggregator.class);
+
+    public static final int MAX_RECENT_ACTORS = 3;
+
+    private static final Set<NotificationType> COALESCED = EnumSet.of(
+            NotificationType.POST_LIKED,
+            NotificationType.POST_COMMENTED,
+            NotificationType.COMMENT_REPLIED,
+            NotificationType.NEW_FOLLOWER);
+    // Types grouped per recipient; the others are grouped per related entity
+    private static final Set<NotificationType> BY_RECIPIENT = EnumSet.of(NotificationType.NEW_FOLLOWER);
+
+    private static final String SELECT_OPEN = "SELECT DISTINCT ON (recipient_id, type, group_key) "
+            + "id, recipient_id, type, group_key, actor_count, recent_actor_ids FROM ("
+            + "SELECT n.id, n.recipient_id, n.type, n.actor_count, n.recent_actor_ids, n.created_at, "
+            + "CASE WHEN n.type IN (:byRecipient) THEN '' ELSE COALESCE(n.related_entity_id, '') END AS group_key "
+            + "FROM notifications n WHERE n.recipient_id IN (:recipients) AND n.type IN (:types) "
+            + "AND n.is_read = false AND n.created_at > :since) candidates "
+            + "ORDER BY recipient_id, type, group_key, created_at DESC";
+    private static final String UPDATE_OPEN = "UPDATE notifications SET actor_id = ?, actor_count = ?, "
+            + "recent_actor_ids = ?, message = ?, related_entity_id = ?, created_at = ? "
+            + "WHERE id = ? AND is_read = false";
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notifications "
+            + "(id, recipient_id, actor_id, type, message, related_entity_id, related_entity_type, is_read, "
+            + "created_at, actor_count, recent_actor_ids) VALUES (?, ?, ?, ?, ?, ?, ?, false, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSummaryResolver userSummaryResolver;
+    private final UnreadNotificationCounter unreadCounter;
+    private final Duration window;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    public NotificationAggregator(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UserSummaryResolver userSummaryResolver,
+            UnreadNotificationCounter unreadCounter,
+            @Value("${notifications.coalesce.window-hours:24}") long windowHours,
+            @Value("${notifications.coalesce.batch-size:500}") int batchSize,
+            @Value("${notifications.coalesce.max-pending:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userSummaryResolver = userSummaryResolver;
+        this.unreadCounter = unreadCounter;
+        this.window = Duration.ofHours(windowHours);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    public static boolean isCoalesced(NotificationType type) {
+        return COALESCED.contains(type);
+    }
+
+    /**
+     * Record that actorId did something notifiable to recipientId. Inside a transaction the
+     * event is buffered only once it commits. Acting on yourself is ignored.
+     */
+    public void record(String recipientId, String actorId, NotificationType type,
+            String relatedEntityId, String relatedEntityType) {
+        if (!COALESCED.contains(type)) {
+            throw new IllegalArgumentException("Notification type " + type + " is not coalesced");
+        }
+        if (recipientId == null || actorId == null || recipientId.equals(actorId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(recipientId, actorId, type, relatedEntityId, relatedEntityType);
+                }
+            });
+        } else {
+            add(recipientId, actorId, type, relatedEntityId, relatedEntityType);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write every buffered group. Returns the number of notification rows inserted or updated.
+     */
+    @Scheduled(fixedDelayString = "${notifications.coalesce.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Key, Pending>> drained = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            Pending group = pending.remove(key);
+            if (group != null) {
+                drained.add(Map.entry(key, group));
+            }
+        }
+
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<Key, Pending>> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                Integer rows = transactionTemplate.execute(status -> write(batch));
+                written += rows != null ? rows : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush {} notification groups, retrying them one by one", batch.size(), e);
+                written += writeEach(batch);
+            }
+        }
+        return written;
+    }
+
+    // Isolate the failing groups so they cannot hold back the rest of their batch. A group that
+    // breaks a constraint (its recipient or actor was deleted) never will succeed and is dropped;
+    // anything else is put back for the next flush.
+    private int writeEach(List<Map.Entry<Key, Pending>> batch) {
+        int written = 0;
+        for (Map.Entry<Key, Pending> entry : batch) {
+            List<Map.Entry<Key, Pending>> single = List.of(entry);
+            try {
+                Integer rows = transactionTemplate.execute(status -> write(single));
+                written += rows != null ? rows : 0;
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Dropping {} notification for {} from {} actors: {}", entry.getKey().type,
+                        entry.getKey().recipientId, entry.getValue().actorIds.size(), e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush {} notification for {}, will retry", entry.getKey().type,
+                        entry.getKey().recipientId, e);
+                pending.merge(entry.getKey(), entry.getValue(), (newer, older) -> older.followedBy(newer));
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Buffer one event; package-private so tests can skip the after-commit hop
+    void add(String recipientId, String actorId, NotificationType type, String relatedEntityId,
+            String relatedEntityType) {
+        String groupKey = BY_RECIPIENT.contains(type) || relatedEntityId == null ? "" : relatedEntityId;
+        pending.compute(new Key(recipientId, type, groupKey), (key, group) -> {
+            if (group == null) {
+                group = new Pending();
+            }
+            group.add(actorId, relatedEntityId, relatedEntityType);
+            return group;
+        });
+        if (pending.size() > maxPending) {
+            flush();
+        }
+    }
+
+    private int write(List<Map.Entry<Key, Pending>> batch) {
+        Set<String> recipients = new HashSet<>();
+        Set<String> latestActors = new HashSet<>();
+        Set<String> types = new HashSet<>();
+        for (Map.Entry<Key, Pending> entry : batch) {
+            recipients.add(entry.getKey().recipientId);
+            types.add(entry.getKey().type.name());
+            latestActors.add(entry.getValue().latestActor());
+        }
+
+        Map<Key, OpenRow> open = new HashMap<>();
+        Map<String, Object> params = new HashMap<>();
+        params.put("recipients", recipients);
+        params.put("types", types);
+        params.put("byRecipient", BY_RECIPIENT.stream().map(Enum::name).toList());
+        params.put("since", Timestamp.valueOf(LocalDateTime.now().minus(window)));
+        namedJdbcTemplate.query(SELECT_OPEN, params, rs -> {
+            Key key = new Key(rs.getString("recipient_id"), NotificationType.valueOf(rs.getString("type")),
+                    rs.getString("group_key"));
+            open.put(key, new OpenRow(rs.getString("id"), rs.getInt("actor_count"),
+                    parseActorIds(rs.getString("recent_actor_ids"))));
+        });
+        Map<String, UserSummaryDTO> actors = userSummaryResolver.resolveAll(latestActors);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Map.Entry<Key, Pending>> updated = new ArrayList<>();
+        List<Map.Entry<Key, Pending>> inserts = new ArrayList<>();
+        for (Map.Entry<Key, Pending> entry : batch) {
+            OpenRow row = open.get(entry.getKey());
+            if (row == null) {
+                inserts.add(entry);
+                continue;
+            }
+            Pending group = entry.getValue();
+            List<String> recent = group.mergeRecent(row.recentActorIds);
+            int added = group.countNew(row.recentActorIds);
+            if (added == 0 && recent.equals(row.recentActorIds)) {
+                // The same actors again (e.g. like, unlike, like): nothing to write
+                continue;
+            }
+            int count = row.actorCount + added;
+            updates.add(new Object[] { group.latestActor(), count, String.join(",", recent),
+                    message(entry.getKey().type, actors.get(group.latestActor()), count),
+                    group.relatedEntityId, now, row.id });
+            updated.add(entry);
+        }
+
+        int written = 0;
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_OPEN, updates);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                // Read since the lookup: start a new row instead
+                inserts.add(updated.get(i));
+            } else {
+                written++;
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Key, Pending> entry : inserts) {
+            Pending group = entry.getValue();
+            int count = group.actorIds.size();
+            rows.add(new Object[] { UUID.randomUUID().toString(), entry.getKey().recipientId, group.latestActor(),
+                    entry.getKey().type.name(), message(entry.getKey().type, actors.get(group.latestActor()), count),
+                    group.relatedEntityId, group.relatedEntityType, now, count,
+                    String.join(",", group.mergeRecent(List.of())) });
+        }
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, rows);
+        // Folding into an open row leaves it a single unread notification; only new rows count
+        Map<String, Integer> unread = new HashMap<>();
+        inserts.forEach(entry -> unread.merge(entry.getKey().recipientId, 1, Integer::sum));
+        unreadCounter.adjust(unread);
+        return written + rows.size();
+    }
+
+    static List<String> parseActorIds(String recentActorIds) {
+        if (recentActorIds == null || recentActorIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(recentActorIds.split(","));
+    }
+
+    static String message(NotificationType type, UserSummaryDTO actor, int actorCount) {
+        String name = actor != null && actor.getName() != null ? actor.getName() : "Someone";
+        String who = switch (actorCount) {
+            case 1 -> name;
+            case 2 -> name + " and 1 other";
+            default -> name + " and " + (actorCount - 1) + " others";
+        };
+        String what = switch (type) {
+            case POST_LIKED -> "liked your post";
+            case POST_COMMENTED -> "commented on your post";
+            case COMMENT_REPLIED -> "replied to your comment";
+            case NEW_FOLLOWER -> "started following you";
+            default -> throw new IllegalArgumentException("Notification type " + type + " is not coalesced");
+        };
+        return who + " " + what;
+    }
+
+    private record Key(String recipientId, NotificationType type, String groupKey) {
+    }
+
+    private record OpenRow(String id, int actorCount, List<String> recentActorIds) {
+    }
+
+    // Events of one group since the last flush; only mutated inside ConcurrentHashMap.compute
+    private static final class Pending {
+        // Oldest first, an actor who acts again moves to the end
+        private final LinkedHashSet<String> actorIds = new LinkedHashSet<>();
+        private String relatedEntityId;
+        private String relatedEntityType;
+
+        private void add(String actorId, String relatedEntityId, String relatedEntityType) {
+            actorIds.remove(actorId);
+            actorIds.add(actorId);
+            this.relatedEntityId = relatedEntityId;
+            this.relatedEntityType = relatedEntityType;
+        }
+
+        private String latestActor() {
+            String latest = null;
+            for (String actorId : actorIds) {
+                latest = actorId;
+            }
+            return latest;
+        }
+
+        // Newest first: this group's actors, then the row's previous ones, capped
+        private List<String> mergeRecent(List<String> previous) {
+            List<String> newestFirst = new ArrayList<>(actorIds);
+            Collections.reverse(newestFirst);
+            LinkedHashSet<String> merged = new LinkedHashSet<>(newestFirst);
+            merged.addAll(previous);
+            return merged.stream().limit(MAX_RECENT_ACTORS).toList();
+        }
+
+        private int countNew(List<String> previous) {
+            int added = 0;
+            for (String actorId : actorIds) {
+                if (!previous.contains(actorId)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        private Pending followedBy(Pending newer) {
+            for (String actorId : newer.actorIds) {
+                add(actorId, newer.relatedEntityId, newer.relatedEntityType);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.NotificationDTO;
+import com.lifeflow.backend.enums.NotificationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background fan-out of new-post notifications to an author's followers.
+ *
+ * Posting only records a notification_fanout_jobs row, so it costs the same for any follower
+ * count. After the post commits, a worker thread pages through the non-muted follower ids in
+ * follower_id order and writes each chunk of notifications with one JDBC batch insert. The job's
+ * progress advances in the same transaction as the chunk, so a job interrupted by a crash or
+ * restart is resumed by resumeStalled exactly after its last committed chunk.
+ * Recipients who are online get each notification on /user/queue/notifications once its chunk
+ * has committed.
+ */
+@Component
+public class NotificationFanoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationFanoutService.class);
+
+    private static final String INSERT_JOB = "INSERT INTO notification_fanout_jobs "
+            + "(id, feed_item_id, author_id, status, sent_count, created_at, updated_at) "
+            + "VALUES (?, ?, ?, 'PENDING', 0, ?, ?) ON CONFLICT (feed_item_id) DO NOTHING";
+    // A job is taken when it is new, or when its owner has made no progress for staleAfter
+    private static final String CLAIM_JOB = "UPDATE notification_fanout_jobs SET status = 'RUNNING', updated_at = ? "
+            + "WHERE id = ? AND (status = 'PENDING' OR (status = 'RUNNING' AND updated_at < ?))";
+    private static final String SELECT_JOB = "SELECT j.feed_item_id, j.author_id, j.last_follower_id, "
+            + "u.name, u.avatar FROM notification_fanout_jobs j LEFT JOIN users u ON u.id = j.author_id "
+            + "WHERE j.id = ?";
+    private static final String SELECT_FOLLOWERS = "SELECT follower_id FROM follows "
+            + "WHERE following_id = ? AND is_muted = false AND follower_id > ? ORDER BY follower_id LIMIT ?";
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notifications "
+            + "(id, recipient_id, actor_id, type, message, related_entity_id, related_entity_type, is_read, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, false, ?)";
+    private static final String ADVANCE_JOB = "UPDATE notification_fanout_jobs "
+            + "SET last_follower_id = ?, sent_count = sent_count + ?, status = ?, updated_at = ? WHERE id = ?";
+    private static final String SELECT_STALLED = "SELECT id FROM notification_fanout_jobs "
+            + "WHERE status <> 'DONE' AND updated_at < ? ORDER BY created_at LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final UnreadNotificationCounter unreadCounter;
+    private final int chunkSize;
+    private final int workers;
+    private final Duration staleAfter;
+    private final int resumeBatchSize;
+
+    // Jobs queued or running on this node, so resumeStalled never submits one twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+
+    public NotificationFanoutService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SimpMessagingTemplate messagingTemplate,
+            PresenceService presenceService,
+            UnreadNotificationCounter unreadCounter,
+            @Value("${notifications.fanout.chunk-size:1000}") int chunkSize,
+            @Value("${notifications.fanout.workers:2}") int workers,
+            @Value("${notifications.fanout.stale-after-ms:60000}") long staleAfterMs,
+            @Value("${notifications.fanout.resume-batch-size:100}") int resumeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.presenceService = presenceService;
+        this.unreadCounter = unreadCounter;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.resumeBatchSize = resumeBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "notification-fanout-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        // Unfinished jobs keep their progress and are resumed after restart
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Record a fan-out job for a new post. Within a transaction the job starts after commit;
+     * scheduling the same post twice is a no-op. Returns the job id, or null if one existed.
+     */
+    public String schedule(String feedItemId, String authorId) {
+        String jobId = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(INSERT_JOB, jobId, feedItemId, authorId, now, now) == 0) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(jobId);
+                }
+            });
+        } else {
+            submit(jobId);
+        }
+        return jobId;
+    }
+
+    /**
+     * Pick up jobs that never started or whose worker stopped making progress.
+     */
+    @Scheduled(initialDelayString = "${notifications.fanout.resume-initial-delay-ms:30000}",
+            fixedDelayString = "${notifications.fanout.resume-interval-ms:60000}")
+    public void resumeStalled() {
+        try {
+            Timestamp staleBefore = Timestamp.valueOf(LocalDateTime.now().minus(staleAfter));
+            List<String> stalled = jdbcTemplate.queryForList(SELECT_STALLED, String.class, staleBefore,
+                    resumeBatchSize);
+            for (String jobId : stalled) {
+                submit(jobId);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to resume notification fan-out jobs", e);
+        }
+    }
+
+    /**
+     * Run a job to completion on the calling thread, chunk by chunk.
+     * Returns the number of notifications written, or 0 if another worker owns the job.
+     */
+    public long run(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> jdbcTemplate.update(CLAIM_JOB,
+                Timestamp.valueOf(now), jobId, Timestamp.valueOf(now.minus(staleAfter))));
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        Map<String, Object> job = jdbcTemplate.queryForMap(SELECT_JOB, jobId);
+        Actor actor = new Actor((String) job.get("author_id"), (String) job.get("name"),
+                (String) job.get("avatar"), (String) job.get("feed_item_id"));
+        String after = job.get("last_follower_id") != null ? (String) job.get("last_follower_id") : "";
+
+        long sent = 0;
+        while (true) {
+            String from = after;
+            Chunk chunk = transactionTemplate.execute(status -> writeChunk(jobId, actor, from));
+            push(chunk.notifications);
+            sent += chunk.notifications.size();
+            if (chunk.done) {
+                break;
+            }
+            after = chunk.lastFollowerId;
+        }
+        logger.info("Fanned out {} new-post notifications for post {}", sent, actor.feedItemId);
+        return sent;
+    }
+
+    private void submit(String jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } catch (RuntimeException e) {
+                    logger.error("Notification fan-out job {} failed, will resume", jobId, e);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays pending and is resumed after restart
+            inFlight.remove(jobId);
+        }
+    }
+
+    // One chunk of followers: batch insert their notifications and advance the job, atomically
+    private Chunk writeChunk(String jobId, Actor actor, String after) {
+        // A job whose author no longer exists finishes without sending anything
+        List<String> followers = actor.name == null ? List.of()
+                : jdbcTemplate.queryForList(SELECT_FOLLOWERS, String.class, actor.id, after, chunkSize);
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        List<NotificationDTO> notifications = new ArrayList<>(followers.size());
+        for (String followerId : followers) {
+            notifications.add(NotificationDTO.builder()
+                    .id(UUID.randomUUID().toString())
+                    .recipientId(followerId)
+                    .actorId(actor.id)
+                    .actorName(actor.name)
+                    .actorAvatar(actor.avatar)
+                    .type(NotificationType.NEW_POST_FROM_FOLLOWING)
+                    .message(actor.name + " posted something new")
+                    .relatedEntityId(actor.feedItemId)
+                    .relatedEntityType("POST")
+                    .isRead(false)
+                    .createdAt(createdAt.toString())
+                    .build());
+        }
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, notifications, chunkSize, (ps, notification) -> {
+            ps.setString(1, notification.getId());
+            ps.setString(2, notification.getRecipientId());
+            ps.setString(3, notification.getActorId());
+            ps.setString(4, notification.getType().name());
+            ps.setString(5, notification.getMessage());
+            ps.setString(6, notification.getRelatedEntityId());
+            ps.setString(7, notification.getRelatedEntityType());
+            ps.setTimestamp(8, timestamp);
+        });
+        Map<String, Integer> unread = new HashMap<>();
+        followers.forEach(followerId -> unread.put(followerId, 1));
+        unreadCounter.adjust(unread);
+
+        boolean done = followers.size() < chunkSize;
+        String last = followers.isEmpty() ? after : followers.get(followers.size() - 1);
+        jdbcTemplate.update(ADVANCE_JOB, last, followers.size(),
+                done ? "DONE" : "RUNNING", timestamp, jobId);
+        return new Chunk(notifications, last, done);
+    }
+
+    private void push(List<NotificationDTO> notifications) {
+        for (NotificationDTO notification : notifications) {
+            if (presenceService.isOnline(notification.getRecipientId())) {
+                messagingTemplate.convertAndSendToUser(notification.getRecipientId(), "/queue/notifications",
+                        notification);
+            }
+        }
+    }
+
+    private record Actor(String id, String name, String avatar, String feedItemId) {
+    }
+
+    private record Chunk(List<NotificationDTO> notifications, String lastFollowerId, boolean done) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.enums.NotificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes expired notifications for all users, and finished fan-out jobs.
+ *
+ * Retention is set per NotificationType with notifications.retention.days.&lt;TYPE&gt;, falling back
+ * to notifications.retention.default-days; zero or less keeps that type forever. Each batch
+ * deletes at most batchSize rows by ctid in its own short transaction, using the
+ * (type, created_at) index, and takes the deleted unread rows off their recipients' unread
+ * counters in the same transaction. Types are swept round-robin, one batch each, until a run
+ * has spent maxBatches or maxRunTime; anything left over is picked up by the next run, so a
+ * large backlog drains steadily instead of in one long lock-heavy delete.
+ */
+@Component
+public class NotificationRetentionSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionSweeper.class);
+
+    // The outer predicate repeats the inner one in case a ctid was reused since the subselect
+    private static final String DELETE_EXPIRED = "DELETE FROM notifications WHERE ctid = ANY(ARRAY("
+            + "SELECT ctid FROM notifications WHERE type = ? AND created_at < ? LIMIT ?)) "
+            + "AND type = ? AND created_at < ? RETURNING recipient_id, is_read";
+    private static final String DELETE_FINISHED_JOBS = "DELETE FROM notification_fanout_jobs WHERE ctid = ANY(ARRAY("
+            + "SELECT ctid FROM notification_fanout_jobs WHERE status = 'DONE' AND updated_at < ? LIMIT ?)) "
+            + "AND status = 'DONE' AND updated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final Map<NotificationType, Duration> retention = new EnumMap<>(NotificationType.class);
+    private final Duration jobRetention;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration maxRunTime;
+
+    private final Map<NotificationType, LongAdder> deletedByType = new EnumMap<>(NotificationType.class);
+    private final LongAdder deletedJobs = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile boolean lastRunComplete = true;
+
+    public NotificationRetentionSweeper(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UnreadNotificationCounter unreadCounter,
+            Environment environment,
+            @Value("${notifications.retention.default-days:30}") int defaultDays,
+            @Value("${notifications.retention.fanout-job-days:7}") int jobDays,
+            @Value("${notifications.retention.batch-size:1000}") int batchSize,
+            @Value("${notifications.retention.max-batches-per-run:50}") int maxBatches,
+            @Value("${notifications.retention.max-run-ms:10000}") long maxRunMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounter = unreadCounter;
+        for (NotificationType type : NotificationType.values()) {
+            int days = environment.getProperty("notifications.retention.days." + type.name(), Integer.class,
+                    defaultDays);
+            if (days > 0) {
+                retention.put(type, Duration.ofDays(days));
+            }
+            deletedByType.put(type, new LongAdder());
+        }
+        this.jobRetention = Duration.ofDays(jobDays);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.maxRunTime = Duration.ofMillis(maxRunMs);
+    }
+
+    @Scheduled(initialDelayString = "${notifications.retention.initial-delay-ms:120000}",
+            fixedDelayString = "${notifications.retention.interval-ms:60000}")
+    public void scheduledSweep() {
+        try {
+            long deleted = sweep();
+            if (deleted > 0) {
+                logger.info("Notification retention removed {} rows in {} ms", deleted, lastRunMillis.get());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Notification retention sweep failed", e);
+        }
+    }
+
+    /**
+     * Run one bounded pass and return the number of notifications and fan-out jobs deleted.
+     */
+    public long sweep() {
+        long started = System.nanoTime();
+        long deadline = started + maxRunTime.toNanos();
+        LocalDateTime now = LocalDateTime.now();
+        int batches = 0;
+        long deleted = 0;
+
+        List<NotificationType> remaining = new ArrayList<>(retention.keySet());
+        while (!remaining.isEmpty() && batches < maxBatches && System.nanoTime() < deadline) {
+            for (NotificationType type : new ArrayList<>(remaining)) {
+                if (batches >= maxBatches || System.nanoTime() >= deadline) {
+                    break;
+                }
+                Timestamp cutoff = Timestamp.valueOf(now.minus(retention.get(type)));
+                int count = transactionTemplate.execute(status -> deleteBatch(type, cutoff));
+                batches++;
+                deleted += count;
+                deletedByType.get(type).add(count);
+                if (count < batchSize) {
+                    remaining.remove(type);
+                }
+            }
+        }
+
+        Timestamp jobCutoff = Timestamp.valueOf(now.minus(jobRetention));
+        boolean jobsDone = false;
+        while (batches < maxBatches && System.nanoTime() < deadline) {
+            int count = jdbcTemplate.update(DELETE_FINISHED_JOBS, jobCutoff, batchSize, jobCutoff);
+            batches++;
+            deleted += count;
+            deletedJobs.add(count);
+            if (count < batchSize) {
+                jobsDone = true;
+                break;
+            }
+        }
+
+        runs.increment();
+        lastRunAt = now;
+        lastRunDeleted.set(deleted);
+        lastRunMillis.set(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        lastRunComplete = remaining.isEmpty() && jobsDone;
+        return deleted;
+    }
+
+    /**
+     * Retention settings and deletion counters, shaped for JSON responses.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> byType = new LinkedHashMap<>();
+        deletedByType.forEach((type, count) -> byType.put(type.name(), count.sum()));
+        Map<String, Object> retentionDays = new LinkedHashMap<>();
+        retention.forEach((type, duration) -> retentionDays.put(type.name(), duration.toDays()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("retentionDays", retentionDays);
+        stats.put("runs", runs.sum());
+        stats.put("deletedByType", byType);
+        stats.put("deletedFanoutJobs", deletedJobs.sum());
+        stats.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        stats.put("lastRunDeleted", lastRunDeleted.get());
+        stats.put("lastRunMillis", lastRunMillis.get());
+        stats.put("lastRunComplete", lastRunComplete);
+        return stats;
+    }
+
+    private int deleteBatch(NotificationType type, Timestamp cutoff) {
+        Map<String, Integer> unread = new HashMap<>();
+        int[] deleted = new int[1];
+        jdbcTemplate.query(DELETE_EXPIRED, rs -> {
+            deleted[0]++;
+            if (!rs.getBoolean("is_read")) {
+                unread.merge(rs.getString("recipient_id"), -1, Integer::sum);
+            }
+        }, type.name(), cutoff, batchSize, type.name(), cutoff);
+        unreadCounter.adjust(unread);
+        return deleted[0];
+    }
+}
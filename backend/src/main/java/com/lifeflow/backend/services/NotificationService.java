@@ -1,17 +1,22 @@
 package com.lifeflow.backend.services;
 
 import com.lifeflow.backend.dto.NotificationDTO;
+import com.lifeflow.backend.dto.UserSummaryDTO;
 import com.lifeflow.backend.model.Notification;
 import com.lifeflow.backend.model.User;
 import com.lifeflow.backend.repository.NotificationRepository;
 import com.lifeflow.backend.repository.UserRepository;
 import com.lifeflow.backend.enums.NotificationType;
+import com.lifeflow.backend.util.KeysetCursor;
+import com.lifeflow.backend.util.Paging;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,27 +26,15 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final UserSummaryResolver userSummaryResolver;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
+            UnreadNotificationCounter unreadCounter, UserSummaryResolver userSummaryResolver) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
-    }
-
-    /**
-     * Create a new follower notification
-     */
-    public void createFollowerNotification(User follower, User following) {
-        Notification notification = Notification.builder()
-                .recipient(following)
-                .actor(follower)
-                .type(NotificationType.NEW_FOLLOWER)
-                .message(follower.getName() + " started following you")
-                .relatedEntityId(follower.getId())
-                .relatedEntityType("USER")
-                .isRead(false)
-                .build();
-
-        notificationRepository.save(notification);
+        this.unreadCounter = unreadCounter;
+        this.userSummaryResolver = userSummaryResolver;
     }
 
     /**
@@ -66,58 +59,7 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        notificationRepository.save(notification);
-    }
-
-    /**
-     * Create a post liked notification
-     */
-    public void createPostLikedNotification(User liker, User postAuthor, String postId) {
-        Notification notification = Notification.builder()
-                .recipient(postAuthor)
-                .actor(liker)
-                .type(NotificationType.POST_LIKED)
-                .message(liker.getName() + " liked your post")
-                .relatedEntityId(postId)
-                .relatedEntityType("POST")
-                .isRead(false)
-                .build();
-
-        notificationRepository.save(notification);
-    }
-
-    /**
-     * Create a post commented notification
-     */
-    public void createPostCommentedNotification(User commenter, User postAuthor, String postId, String commentId) {
-        Notification notification = Notification.builder()
-                .recipient(postAuthor)
-                .actor(commenter)
-                .type(NotificationType.POST_COMMENTED)
-                .message(commenter.getName() + " commented on your post")
-                .relatedEntityId(postId)
-                .relatedEntityType("COMMENT")
-                .isRead(false)
-                .build();
-
-        notificationRepository.save(notification);
-    }
-
-    /**
-     * Create a comment replied notification
-     */
-    public void createCommentRepliedNotification(User replier, User commentAuthor, String postId, String commentId) {
-        Notification notification = Notification.builder()
-                .recipient(commentAuthor)
-                .actor(replier)
-                .type(NotificationType.COMMENT_REPLIED)
-                .message(replier.getName() + " replied to your comment")
-                .relatedEntityId(commentId)
-                .relatedEntityType("COMMENT_REPLY")
-                .isRead(false)
-                .build();
-
-        notificationRepository.save(notification);
+        save(notification);
     }
 
     /**
@@ -134,7 +76,7 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        notificationRepository.save(notification);
+        save(notification);
     }
 
     /**
@@ -148,7 +90,7 @@ public class NotificationService {
 
         Page<Notification> notifications = notificationRepository.findByRecipientOrderByCreatedAtDesc(userOpt.get(),
                 pageable);
-        return notifications.map(this::convertToDTO);
+        return toDTOs(notifications);
     }
 
     /**
@@ -162,7 +104,7 @@ public class NotificationService {
 
         Page<Notification> notifications = notificationRepository
                 .findByRecipientAndIsReadOrderByCreatedAtDesc(userOpt.get(), false, pageable);
-        return notifications.map(this::convertToDTO);
+        return toDTOs(notifications);
     }
 
     /**
@@ -176,31 +118,71 @@ public class NotificationService {
 
         Page<Notification> notifications = notificationRepository
                 .findByRecipientAndTypeOrderByCreatedAtDesc(userOpt.get(), type, pageable);
-        return notifications.map(this::convertToDTO);
+        return toDTOs(notifications);
     }
 
     /**
-     * Get unread notification count
+     * One page of a user's inbox, newest first, optionally only read or unread notifications
+     * and only one type. Pass the previous page's nextCursor to continue; every page costs the
+     * same index range scan however deep it is.
      */
-    public long getUnreadCount(String userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
+    public NotificationPage getInbox(String userId, Boolean isRead, NotificationType type, String cursor, int limit) {
+        if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("User not found");
         }
 
-        return notificationRepository.countByRecipientAndIsRead(userOpt.get(), false);
+        int size = Paging.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size);
+        KeysetCursor after = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+        List<Notification> notifications;
+        if (isRead != null && type != null) {
+            notifications = after == null
+                    ? notificationRepository.findInboxByReadAndType(userId, isRead, type, page)
+                    : notificationRepository.findInboxByReadAndTypeBefore(userId, isRead, type,
+                            after.getCreatedAt(), after.getId(), page);
+        } else if (isRead != null) {
+            notifications = after == null
+                    ? notificationRepository.findInboxByRead(userId, isRead, page)
+                    : notificationRepository.findInboxByReadBefore(userId, isRead, after.getCreatedAt(),
+                            after.getId(), page);
+        } else if (type != null) {
+            notifications = after == null
+                    ? notificationRepository.findInboxByType(userId, type, page)
+                    : notificationRepository.findInboxByTypeBefore(userId, type, after.getCreatedAt(),
+                            after.getId(), page);
+        } else {
+            notifications = after == null
+                    ? notificationRepository.findInbox(userId, page)
+                    : notificationRepository.findInboxBefore(userId, after.getCreatedAt(), after.getId(), page);
+        }
+
+        Map<String, UserSummaryDTO> actors = resolveActors(notifications);
+        List<NotificationDTO> items = notifications.stream()
+                .map(notification -> convertToDTO(notification, actors))
+                .toList();
+        String nextCursor = null;
+        if (notifications.size() == size) {
+            Notification last = notifications.get(notifications.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new NotificationPage(items, nextCursor);
+    }
+
+    /**
+     * Get unread notification count
+     */
+    public long getUnreadCount(String userId) {
+        return unreadCounter.get(userId);
     }
 
     /**
      * Mark notification as read
      */
     public void markAsRead(String notificationId) {
-        Optional<Notification> notificationOpt = notificationRepository.findById(notificationId);
-        if (notificationOpt.isPresent()) {
-            Notification notification = notificationOpt.get();
-            notification.setIsRead(true);
-            notification.setReadAt(LocalDateTime.now());
-            notificationRepository.save(notification);
+        Optional<String> recipientId = notificationRepository.findRecipientId(notificationId);
+        // Conditional update, so concurrent reads of one notification decrement only once
+        if (recipientId.isPresent() && notificationRepository.markAsRead(notificationId) == 1) {
+            unreadCounter.decrement(recipientId.get());
         }
     }
 
@@ -211,6 +193,7 @@ public class NotificationService {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
             notificationRepository.markAllAsRead(userOpt.get());
+            unreadCounter.reset(userId);
         }
     }
 
@@ -218,7 +201,16 @@ public class NotificationService {
      * Delete a notification
      */
     public void deleteNotification(String notificationId) {
-        notificationRepository.deleteById(notificationId);
+        Optional<String> recipientId = notificationRepository.findRecipientId(notificationId);
+        if (recipientId.isEmpty()) {
+            return;
+        }
+        // Whichever statement removes the row decides the decrement, even if a read races it
+        if (notificationRepository.deleteByIdAndIsRead(notificationId, false) == 1) {
+            unreadCounter.decrement(recipientId.get());
+        } else {
+            notificationRepository.deleteByIdAndIsRead(notificationId, true);
+        }
     }
 
     /**
@@ -229,21 +221,25 @@ public class NotificationService {
         if (userOpt.isPresent()) {
             LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
             notificationRepository.deleteOldNotifications(userOpt.get(), thirtyDaysAgo);
+            unreadCounter.recount(List.of(userId));
         }
     }
 
     /**
-     * Get notification summary for dashboard
+     * Get notification summary for dashboard.
+     *
+     * The unread count comes from the counter. The total is still a COUNT, but a range scan of
+     * idx_notifications_recipient_created, and retention plus coalescing keep each user's rows
+     * few. A stored total would have to follow every insert and bulk delete path (aggregator,
+     * fan-out workers, retention sweep) for a figure only this summary shows.
      */
     public Map<String, Object> getNotificationSummary(String userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
+        if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("User not found");
         }
 
-        User user = userOpt.get();
-        long totalNotifications = notificationRepository.countByRecipient(user);
-        long unreadCount = notificationRepository.countByRecipientAndIsRead(user, false);
+        long totalNotifications = notificationRepository.countByRecipientId(userId);
+        long unreadCount = unreadCounter.get(userId);
 
         return java.util.Map.of(
                 "totalNotifications", totalNotifications,
@@ -251,16 +247,36 @@ public class NotificationService {
                 "readCount", totalNotifications - unreadCount);
     }
 
+    // Every new notification starts unread
+    private void save(Notification notification) {
+        notificationRepository.save(notification);
+        unreadCounter.increment(notification.getRecipient().getId());
+    }
+
+    private Page<NotificationDTO> toDTOs(Page<Notification> notifications) {
+        Map<String, UserSummaryDTO> actors = resolveActors(notifications.getContent());
+        return notifications.map(notification -> convertToDTO(notification, actors));
+    }
+
+    // Actors for a page in one cached lookup; the lazy actor and recipient are only asked for their ids
+    private Map<String, UserSummaryDTO> resolveActors(List<Notification> notifications) {
+        return userSummaryResolver.resolveAll(notifications.stream()
+                .map(notification -> notification.getActor().getId())
+                .toList());
+    }
+
     /**
      * Convert Notification entity to DTO
      */
-    private NotificationDTO convertToDTO(Notification notification) {
+    private NotificationDTO convertToDTO(Notification notification, Map<String, UserSummaryDTO> actors) {
+        String actorId = notification.getActor().getId();
+        UserSummaryDTO actor = actors.get(actorId);
         return NotificationDTO.builder()
                 .id(notification.getId())
                 .recipientId(notification.getRecipient().getId())
-                .actorId(notification.getActor().getId())
-                .actorName(notification.getActor().getName())
-                .actorAvatar(notification.getActor().getAvatar())
+                .actorId(actorId)
+                .actorName(actor != null ? actor.getName() : null)
+                .actorAvatar(actor != null ? actor.getAvatar() : null)
                 .type(notification.getType())
                 .message(notification.getMessage())
                 .relatedEntityId(notification.getRelatedEntityId())
@@ -268,6 +284,28 @@ public class NotificationService {
                 .isRead(notification.getIsRead())
                 .createdAt(notification.getCreatedAt().toString())
                 .readAt(notification.getReadAt() != null ? notification.getReadAt().toString() : null)
+                .actorCount(notification.getActorCount())
+                .recentActorIds(notification.getRecentActorIds() != null
+                        ? NotificationAggregator.parseActorIds(notification.getRecentActorIds())
+                        : List.of(actorId))
                 .build();
     }
+
+    public static class NotificationPage {
+        private final List<NotificationDTO> items;
+        private final String nextCursor;
+
+        public NotificationPage(List<NotificationDTO> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<NotificationDTO> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
 }
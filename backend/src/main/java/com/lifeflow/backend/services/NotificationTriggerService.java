@@ -1,69 +1,61 @@
 package com.lifeflow.backend.services;
 
+import com.lifeflow.backend.enums.NotificationType;
 import com.lifeflow.backend.model.User;
-import com.lifeflow.backend.repository.FollowRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 /**
- * Service to handle notification triggers for user engagement
+ * Service to handle notification triggers for user engagement.
+ * Likes, comments, replies and follows are coalesced by NotificationAggregator.
  */
 @Service
 @Transactional
 public class NotificationTriggerService {
 
     private final NotificationService notificationService;
-    private final FollowRepository followRepository;
+    private final NotificationFanoutService notificationFanoutService;
+    private final NotificationAggregator notificationAggregator;
 
-    public NotificationTriggerService(NotificationService notificationService, FollowRepository followRepository) {
+    public NotificationTriggerService(
+            NotificationService notificationService,
+            NotificationFanoutService notificationFanoutService,
+            NotificationAggregator notificationAggregator) {
         this.notificationService = notificationService;
-        this.followRepository = followRepository;
+        this.notificationFanoutService = notificationFanoutService;
+        this.notificationAggregator = notificationAggregator;
     }
 
     /**
-     * Trigger notifications when a user creates a new post
+     * Trigger notifications when a user creates a new post.
+     * Followers are notified by a background job once the post commits.
      */
     public void triggerNewPostNotifications(User postAuthor, String postId) {
-        // Get all users following this author
-        List<User> followers = followRepository.findByFollowing(postAuthor)
-                .stream()
-                .filter(f -> !f.getIsMuted())
-                .map(f -> f.getFollower())
-                .toList();
-
-        // Send notification to each follower
-        for (User follower : followers) {
-            notificationService.createNewPostNotification(postAuthor, postId, follower);
-        }
+        notificationFanoutService.schedule(postId, postAuthor.getId());
     }
 
     /**
-     * Trigger notification when a post is liked
+     * Trigger notification when a user gains a follower
      */
-    public void triggerPostLikedNotification(User liker, User postAuthor, String postId) {
-        if (!liker.getId().equals(postAuthor.getId())) {
-            notificationService.createPostLikedNotification(liker, postAuthor, postId);
-        }
+    public void triggerFollowerNotification(User follower, User following) {
+        notificationAggregator.record(following.getId(), follower.getId(), NotificationType.NEW_FOLLOWER,
+                follower.getId(), "USER");
     }
 
     /**
      * Trigger notification when a post is commented on
      */
     public void triggerPostCommentedNotification(User commenter, User postAuthor, String postId, String commentId) {
-        if (!commenter.getId().equals(postAuthor.getId())) {
-            notificationService.createPostCommentedNotification(commenter, postAuthor, postId, commentId);
-        }
+        notificationAggregator.record(postAuthor.getId(), commenter.getId(), NotificationType.POST_COMMENTED,
+                postId, "COMMENT");
     }
 
     /**
      * Trigger notification when a comment is replied to
      */
     public void triggerCommentRepliedNotification(User replier, User commentAuthor, String postId, String commentId) {
-        if (!replier.getId().equals(commentAuthor.getId())) {
-            notificationService.createCommentRepliedNotification(replier, commentAuthor, postId, commentId);
-        }
+        notificationAggregator.record(commentAuthor.getId(), replier.getId(), NotificationType.COMMENT_REPLIED,
+                commentId, "COMMENT_REPLY");
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.model.Page;
+import com.lifeflow.backend.model.PageBody;
+import com.lifeflow.backend.repository.PageBodyRepository;
+import com.lifeflow.backend.repository.PageRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Copy-on-write page content for template clones.
+ *
+ * A clone does not copy its template's blocks and cover image. Both are stored once in
+ * page_bodies, addressed by their SHA-256, and the clone points at that row with a reference
+ * count. Reads go through Page's getters, which fall back to the shared body. The first edit
+ * that actually changes the content writes it into the clone's own columns and drops the
+ * reference; the shared row is deleted with its last reference.
+ */
+@Service
+@Transactional
+public class PageBodyService {
+
+    private final PageBodyRepository bodyRepository;
+    private final PageRepository pageRepository;
+
+    public PageBodyService(PageBodyRepository bodyRepository, PageRepository pageRepository) {
+        this.bodyRepository = bodyRepository;
+        this.pageRepository = pageRepository;
+    }
+
+    /**
+     * Point a new page at the source page's content, storing that content once if needed.
+     */
+    public void shareContent(Page source, Page target) {
+        String blocksJson = source.getBlocksJson();
+        String coverImage = source.getCoverImage();
+        String hash = hash(blocksJson, coverImage);
+        bodyRepository.acquire(hash, blocksJson, coverImage, LocalDateTime.now());
+
+        target.setBodyHash(hash);
+        target.setBlocksJson(null);
+        target.setCoverImage(null);
+    }
+
+    /**
+     * Overwrite an existing page with updated. A shared body stays shared while the content
+     * is unchanged; otherwise the page gets its own copy and the reference is released.
+     */
+    public Page updatePage(Page existing, Page updated) {
+        String sharedHash = existing.getBodyHash();
+        if (sharedHash == null) {
+            return pageRepository.save(updated);
+        }
+        if (sharedHash.equals(hash(updated.getBlocksJson(), updated.getCoverImage()))) {
+            PageBody body = existing.getBody();
+            updated.setBodyHash(sharedHash);
+            updated.setBlocksJson(null);
+            updated.setCoverImage(null);
+            Page saved = pageRepository.save(updated);
+            // The merge copies the incoming null body over; reattach it so the response has the content
+            saved.setBody(body != null ? body : bodyRepository.getReferenceById(sharedHash));
+            return saved;
+        }
+
+        updated.setBodyHash(null);
+        // The page must stop referencing the body before the body can go
+        Page saved = pageRepository.saveAndFlush(updated);
+        release(sharedHash);
+        return saved;
+    }
+
+    public void release(String hash) {
+        bodyRepository.release(hash);
+        bodyRepository.deleteIfUnreferenced(hash);
+    }
+
+    // Length-prefixed so ("ab", "c") and ("a", "bc") cannot collide; null differs from empty
+    static String hash(String blocksJson, String coverImage) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, blocksJson);
+            update(digest, coverImage);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+}
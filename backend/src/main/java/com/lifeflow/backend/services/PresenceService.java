@@ -0,0 +1,189 @@
+package com.lifeflow.backend.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks which users are online across all of their WebSocket sessions.
+ *
+ * Sessions are reference-counted per user, so closing one of several tabs does not take a
+ * user offline. Status changes are debounced: a user whose status flips and flips back within
+ * the debounce window (a page reload, a reconnect) produces no frame at all. Settled changes
+ * are published on /topic/users/status as batched diffs of the form
+ * {"online": [...], "offline": [...], "timestamp": ...}, so a reconnect storm results in a
+ * handful of frames rather than one per session.
+ */
+@Component
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    public static final String STATUS_TOPIC = "/topic/users/status";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long debounceNanos;
+    private final long flushIntervalMs;
+    private final int maxUsersPerFrame;
+
+    // userId -> open session ids
+    private final Map<String, Set<String>> sessions = new ConcurrentHashMap<>();
+    // Users whose last published status was online
+    private final Set<String> published = ConcurrentHashMap.newKeySet();
+    // userId -> time of the latest unpublished transition
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public PresenceService(
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${messaging.presence.debounce-ms:2000}") long debounceMs,
+            @Value("${messaging.presence.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${messaging.presence.max-users-per-frame:1000}") int maxUsersPerFrame) {
+        this.messagingTemplate = messagingTemplate;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxUsersPerFrame = maxUsersPerFrame;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "presence-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+    }
+
+    /**
+     * Register a newly connected session. Only the user's first session marks a transition.
+     */
+    public void sessionConnected(String userId, String sessionId) {
+        boolean[] first = new boolean[1];
+        sessions.compute(userId, (id, open) -> {
+            if (open == null) {
+                open = ConcurrentHashMap.newKeySet();
+            }
+            first[0] = open.isEmpty();
+            open.add(sessionId);
+            return open;
+        });
+        if (first[0]) {
+            pending.put(userId, System.nanoTime());
+        }
+    }
+
+    /**
+     * Drop a closed session. Safe to call more than once for the same session.
+     */
+    public void sessionDisconnected(String userId, String sessionId) {
+        boolean[] last = new boolean[1];
+        sessions.computeIfPresent(userId, (id, open) -> {
+            last[0] = open.remove(sessionId) && open.isEmpty();
+            return open.isEmpty() ? null : open;
+        });
+        if (last[0]) {
+            pending.put(userId, System.nanoTime());
+        }
+    }
+
+    /**
+     * O(1) status lookup for DTO assembly. A user is online as soon as a session opens and
+     * stays online until going offline has been published, so reads never flicker on reload.
+     */
+    public boolean isOnline(String userId) {
+        return sessions.containsKey(userId) || published.contains(userId);
+    }
+
+    public String getStatus(String userId) {
+        return isOnline(userId) ? "online" : "offline";
+    }
+
+    public int getSessionCount(String userId) {
+        Set<String> open = sessions.get(userId);
+        return open == null ? 0 : open.size();
+    }
+
+    public int getOnlineUserCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Publish every transition that has been stable for the debounce window.
+     * Runs on the flusher thread; exposed for tests.
+     */
+    public void flush() {
+        long now = System.nanoTime();
+        List<String> cameOnline = new ArrayList<>();
+        List<String> wentOffline = new ArrayList<>();
+
+        for (Map.Entry<String, Long> entry : pending.entrySet()) {
+            String userId = entry.getKey();
+            long changedAt = entry.getValue();
+            if (now - changedAt < debounceNanos) {
+                continue;
+            }
+            // Leave the entry if a newer transition replaced it meanwhile
+            if (!pending.remove(userId, changedAt)) {
+                continue;
+            }
+
+            boolean online = sessions.containsKey(userId);
+            if (online && published.add(userId)) {
+                cameOnline.add(userId);
+            } else if (!online && published.remove(userId)) {
+                wentOffline.add(userId);
+            }
+        }
+
+        publish(cameOnline, wentOffline);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Error publishing presence updates", e);
+        }
+    }
+
+    private void publish(List<String> cameOnline, List<String> wentOffline) {
+        int online = 0;
+        int offline = 0;
+        while (online < cameOnline.size() || offline < wentOffline.size()) {
+            int onlineEnd = Math.min(cameOnline.size(), online + maxUsersPerFrame);
+            int offlineEnd = Math.min(wentOffline.size(), offline + maxUsersPerFrame - (onlineEnd - online));
+
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("online", new ArrayList<>(cameOnline.subList(online, onlineEnd)));
+            frame.put("offline", new ArrayList<>(wentOffline.subList(offline, offlineEnd)));
+            frame.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSend(STATUS_TOPIC, frame);
+
+            online = onlineEnd;
+            offline = offlineEnd;
+        }
+    }
+}
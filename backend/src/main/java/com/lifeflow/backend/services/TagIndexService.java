@@ -0,0 +1,273 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.TagCountDTO;
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.FeedItemTag;
+import com.lifeflow.backend.repository.FeedItemTagRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag index over the feed.
+ *
+ * Every normalized tag of a post gets a feed_tag_index row, so browsing a tag is a range
+ * scan over (tag, created_at) instead of a pass over feed_items. Post counts per tag, both
+ * all-time and within the trending window, are kept in memory and adjusted as posts are
+ * indexed and removed. The top-K list of each moves only the changed tag against its k-th
+ * entry, and is rescanned only when a tag in it falls below that entry.
+ * A periodic rebuild from the index ages posts out of the trending window and corrects
+ * any drift from adjustments that raced a rebuild.
+ */
+@Service
+@Transactional
+public class TagIndexService {
+
+    public static final int MAX_TAG_LENGTH = 100;
+
+    private final FeedItemTagRepository tagRepository;
+    private final Duration trendingWindow;
+    private final int topK;
+
+    private volatile TagCounts totals;
+    private volatile TagCounts trending;
+
+    public TagIndexService(
+            FeedItemTagRepository tagRepository,
+            @Value("${feed.tags.trending-window-hours:168}") long trendingWindowHours,
+            @Value("${feed.tags.top-k:50}") int topK) {
+        this.tagRepository = tagRepository;
+        this.trendingWindow = Duration.ofHours(trendingWindowHours);
+        this.topK = topK;
+        this.totals = new TagCounts(topK);
+        this.trending = new TagCounts(topK);
+    }
+
+    /**
+     * Canonical form used by the index: trimmed and lower-cased, or null if unusable.
+     */
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String normalized = tag.strip().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() || normalized.length() > MAX_TAG_LENGTH ? null : normalized;
+    }
+
+    /**
+     * Index a new post's tags. Counts move once the surrounding transaction commits.
+     */
+    public void index(FeedItem item) {
+        if (item.getTags() == null || item.getTags().isEmpty()) {
+            return;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        for (String tag : item.getTags()) {
+            String normalized = normalize(tag);
+            if (normalized != null) {
+                tags.add(normalized);
+            }
+        }
+
+        List<FeedItemTag> entries = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            FeedItemTag entry = new FeedItemTag();
+            entry.setTag(tag);
+            entry.setFeedItemId(item.getId());
+            entry.setCreatedAt(item.getCreatedAt() != null ? item.getCreatedAt() : LocalDateTime.now());
+            entries.add(entry);
+        }
+        tagRepository.saveAll(entries);
+        afterCommit(entries, 1);
+    }
+
+    /**
+     * Drop a deleted post from the index.
+     */
+    public void remove(String feedItemId) {
+        List<FeedItemTag> entries = tagRepository.findByFeedItemId(feedItemId);
+        if (entries.isEmpty()) {
+            return;
+        }
+        tagRepository.deleteByFeedItemId(feedItemId);
+        afterCommit(entries, -1);
+    }
+
+    /**
+     * Most used tags of all time, by post count.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TagCountDTO> getTopTags(int limit) {
+        return limit(totals.top(), limit);
+    }
+
+    /**
+     * Number of posts carrying a tag, or 0 for an unknown tag.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getTagCount(String tag) {
+        String normalized = normalize(tag);
+        return normalized != null ? totals.get(normalized) : 0;
+    }
+
+    /**
+     * Most used tags among posts inside the trending window.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TagCountDTO> getTrendingTags(int limit) {
+        return limit(trending.top(), limit);
+    }
+
+    @Scheduled(initialDelayString = "${feed.tags.refresh-initial-delay-ms:0}",
+            fixedDelayString = "${feed.tags.refresh-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rebuildCounts() {
+        TagCounts rebuiltTotals = new TagCounts(topK);
+        tagRepository.countByTag().forEach(row -> rebuiltTotals.put((String) row[0], (Long) row[1]));
+        TagCounts rebuiltTrending = new TagCounts(topK);
+        tagRepository.countByTagSince(LocalDateTime.now().minus(trendingWindow))
+                .forEach(row -> rebuiltTrending.put((String) row[0], (Long) row[1]));
+        totals = rebuiltTotals;
+        trending = rebuiltTrending;
+    }
+
+    private void afterCommit(List<FeedItemTag> entries, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust(entries, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                adjust(entries, delta);
+            }
+        });
+    }
+
+    private void adjust(List<FeedItemTag> entries, int delta) {
+        LocalDateTime windowStart = LocalDateTime.now().minus(trendingWindow);
+        TagCounts currentTotals = totals;
+        TagCounts currentTrending = trending;
+        for (FeedItemTag entry : entries) {
+            currentTotals.add(entry.getTag(), delta);
+            if (entry.getCreatedAt().isAfter(windowStart)) {
+                currentTrending.add(entry.getTag(), delta);
+            }
+        }
+    }
+
+    private static List<TagCountDTO> limit(List<TagCountDTO> top, int limit) {
+        int size = Math.max(0, Math.min(limit, top.size()));
+        return top.subList(0, size);
+    }
+
+    /**
+     * Post count per tag with a top-K snapshot kept in step with each change.
+     */
+    static final class TagCounts {
+        private static final Comparator<TagCountDTO> BY_COUNT = Comparator
+                .comparingLong(TagCountDTO::count)
+                .thenComparing(TagCountDTO::tag, Comparator.reverseOrder());
+        private static final Comparator<TagCountDTO> RANKED = BY_COUNT.reversed();
+
+        private final int k;
+        private final Map<String, Long> counts = new ConcurrentHashMap<>();
+        // Best k tags, highest first; null while it needs a full rescan
+        private volatile List<TagCountDTO> top;
+
+        TagCounts(int k) {
+            this.k = k;
+        }
+
+        // Bulk load for a rebuild; the first read computes the top-K once
+        void put(String tag, long count) {
+            if (count > 0) {
+                counts.put(tag, count);
+            }
+        }
+
+        synchronized void add(String tag, long delta) {
+            Long updated = counts.compute(tag, (key, count) -> {
+                long next = (count != null ? count : 0) + delta;
+                return next > 0 ? next : null;
+            });
+            if (top != null) {
+                top = adjustTop(top, tag, updated);
+            }
+        }
+
+        long get(String tag) {
+            return counts.getOrDefault(tag, 0L);
+        }
+
+        List<TagCountDTO> top() {
+            List<TagCountDTO> snapshot = top;
+            if (snapshot != null) {
+                return snapshot;
+            }
+            synchronized (this) {
+                if (top == null) {
+                    top = computeTop();
+                }
+                return top;
+            }
+        }
+
+        // Moves only the changed tag; null when a tag outside the list may now outrank it
+        private List<TagCountDTO> adjustTop(List<TagCountDTO> current, String tag, Long count) {
+            TagCountDTO changed = count != null ? new TagCountDTO(tag, count) : null;
+            TagCountDTO kth = current.isEmpty() ? null : current.get(current.size() - 1);
+            List<TagCountDTO> next = new ArrayList<>(current);
+            boolean listed = next.removeIf(entry -> entry.tag().equals(tag));
+            if (!listed) {
+                if (changed == null || (current.size() >= k && BY_COUNT.compare(changed, kth) <= 0)) {
+                    return current;
+                }
+            } else {
+                boolean outsiders = counts.size() > next.size() + (changed != null ? 1 : 0);
+                if (outsiders && (changed == null || BY_COUNT.compare(changed, kth) < 0)) {
+                    return null;
+                }
+            }
+            if (changed != null) {
+                int at = Collections.binarySearch(next, changed, RANKED);
+                next.add(at < 0 ? -at - 1 : at, changed);
+            }
+            if (next.size() > k) {
+                next.remove(next.size() - 1);
+            }
+            return List.copyOf(next);
+        }
+
+        private List<TagCountDTO> computeTop() {
+            // Min-heap of the k best seen so far: O(tags * log k)
+            PriorityQueue<TagCountDTO> heap = new PriorityQueue<>(k + 1, BY_COUNT);
+            counts.forEach((tag, count) -> {
+                heap.offer(new TagCountDTO(tag, count));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            });
+            List<TagCountDTO> result = new ArrayList<>(heap);
+            result.sort(RANKED);
+            return List.copyOf(result);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.lifeflow.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unread notification counts, kept in user_notification_counters and mirrored in memory.
+ *
+ * Every change to a notification's read state adjusts the counter row in the same transaction
+ * with an atomic UPDATE ... RETURNING, so the stored count never needs a COUNT(*). Once the
+ * transaction commits, the returned value is published to the in-memory map and pushed to the
+ * user on /user/queue/unread if they are online. Each row carries a version, and the map only
+ * ever moves to a newer version, so commits racing each other or a reload cannot leave an
+ * older count behind.
+ *
+ * Reads are served from the map; a miss costs one primary-key lookup. A transaction that has
+ * changed a user's count reads its own uncommitted value instead.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    public static final String UNREAD_QUEUE = "/queue/unread";
+
+    private static final String SELECT_COUNT = "SELECT COALESCE(c.unread_count, 0), COALESCE(c.version, 0) "
+            + "FROM users u LEFT JOIN user_notification_counters c ON c.user_id = u.id WHERE u.id = ?";
+    private static final String ENSURE_ROWS = "INSERT INTO user_notification_counters (user_id, unread_count, version) "
+            + "SELECT id, 0, 0 FROM unnest(?::text[]) AS ids(id) ON CONFLICT (user_id) DO NOTHING";
+    private static final String ADJUST = "UPDATE user_notification_counters c "
+            + "SET unread_count = GREATEST(c.unread_count + d.delta, 0), version = c.version + 1 "
+            + "FROM unnest(?::text[], ?::int[]) AS d(user_id, delta) WHERE c.user_id = d.user_id "
+            + "RETURNING c.user_id, c.unread_count, c.version";
+    private static final String RESET = "INSERT INTO user_notification_counters AS c (user_id, unread_count, version) "
+            + "VALUES (?, 0, 1) ON CONFLICT (user_id) DO UPDATE SET unread_count = 0, version = c.version + 1 "
+            + "RETURNING c.user_id, c.unread_count, c.version";
+    private static final String RECOUNT = "INSERT INTO user_notification_counters AS c (user_id, unread_count, version) "
+            + "SELECT ids.id, (SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = ids.id AND n.is_read = false), 1 "
+            + "FROM unnest(?::text[]) AS ids(id) JOIN users u ON u.id = ids.id "
+            + "ON CONFLICT (user_id) DO UPDATE SET unread_count = EXCLUDED.unread_count, version = c.version + 1 "
+            + "RETURNING c.user_id, c.unread_count, c.version";
+
+    private static final RowMapper<Snapshot> SNAPSHOT = (rs, row) -> new Snapshot(rs.getString(1), rs.getLong(2),
+            rs.getLong(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final int maxEntries;
+
+    private final Map<String, Snapshot> counts = new ConcurrentHashMap<>();
+
+    public UnreadNotificationCounter(
+            JdbcTemplate jdbcTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            PresenceService presenceService,
+            @Value("${notifications.unread-cache.max-entries:100000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.presenceService = presenceService;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Current unread count. Throws IllegalArgumentException if the user does not exist.
+     */
+    public long get(String userId) {
+        Snapshot own = changedInTransaction(userId);
+        if (own != null) {
+            return own.unreadCount;
+        }
+        Snapshot cached = counts.get(userId);
+        if (cached != null) {
+            return cached.unreadCount;
+        }
+        List<Snapshot> loaded = jdbcTemplate.query(SELECT_COUNT,
+                (rs, row) -> new Snapshot(userId, rs.getLong(1), rs.getLong(2)), userId);
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("User not found");
+        }
+        accept(loaded.get(0));
+        return loaded.get(0).unreadCount;
+    }
+
+    public void increment(String userId) {
+        adjust(Map.of(userId, 1));
+    }
+
+    public void decrement(String userId) {
+        adjust(Map.of(userId, -1));
+    }
+
+    /**
+     * Apply several users' deltas in two statements, e.g. for a chunk of fanned-out notifications.
+     */
+    public void adjust(Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Sorted so concurrent batches lock counter rows in the same order
+        Map<String, Integer> sorted = new TreeMap<>(deltas);
+        String[] userIds = sorted.keySet().toArray(new String[0]);
+        Integer[] values = sorted.values().toArray(new Integer[0]);
+        jdbcTemplate.update(ENSURE_ROWS, ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", userIds)));
+        List<Snapshot> changed = jdbcTemplate.query(ADJUST, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("text", userIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("int4", values));
+        }, SNAPSHOT);
+        changed(changed);
+    }
+
+    /**
+     * Everything read: set the count to zero.
+     */
+    public void reset(String userId) {
+        changed(jdbcTemplate.query(RESET, SNAPSHOT, userId));
+    }
+
+    /**
+     * Recompute counts from the notifications table, after bulk deletes that may have removed
+     * unread rows. Unknown user ids are ignored.
+     */
+    public void recount(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String[] sorted = userIds.stream().distinct().sorted().toArray(String[]::new);
+        changed(jdbcTemplate.query(RECOUNT, ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", sorted)),
+                SNAPSHOT));
+    }
+
+    public int getCachedCount() {
+        return counts.size();
+    }
+
+    // Committed values are published at once; inside a transaction they wait for the commit
+    private void changed(List<Snapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshots.forEach(this::publish);
+            return;
+        }
+        Map<String, Snapshot> pending = transactionChanges();
+        for (Snapshot snapshot : snapshots) {
+            pending.put(snapshot.userId, snapshot);
+        }
+    }
+
+    private Snapshot changedInTransaction(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Snapshot> pending = (Map<String, Snapshot>) TransactionSynchronizationManager.getResource(this);
+        return pending != null ? pending.get(userId) : null;
+    }
+
+    // Latest snapshot per user changed in the current transaction, published after commit
+    private Map<String, Snapshot> transactionChanges() {
+        @SuppressWarnings("unchecked")
+        Map<String, Snapshot> pending = (Map<String, Snapshot>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<String, Snapshot> bound = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bound.values().forEach(UnreadNotificationCounter.this::publish);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UnreadNotificationCounter.this);
+                }
+            });
+            pending = bound;
+        }
+        return pending;
+    }
+
+    private void publish(Snapshot snapshot) {
+        if (accept(snapshot) && presenceService.isOnline(snapshot.userId)) {
+            Map<String, Object> update = new HashMap<>();
+            update.put("userId", snapshot.userId);
+            update.put("unreadCount", snapshot.unreadCount);
+            update.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSendToUser(snapshot.userId, UNREAD_QUEUE, update);
+        }
+    }
+
+    // Keep the newer of the cached and the given value; true if the given one won
+    private boolean accept(Snapshot snapshot) {
+        boolean[] accepted = new boolean[1];
+        counts.compute(snapshot.userId, (id, current) -> {
+            if (current == null || snapshot.version > current.version) {
+                accepted[0] = true;
+                return snapshot;
+            }
+            return current;
+        });
+        if (counts.size() > maxEntries) {
+            evict();
+        }
+        return accepted[0];
+    }
+
+    // Drop an arbitrary tenth of the entries; they reload from the counter table on demand
+    private void evict() {
+        List<String> victims = new ArrayList<>();
+        Iterator<String> keys = counts.keySet().iterator();
+        while (keys.hasNext() && victims.size() < Math.max(1, maxEntries / 10)) {
+            victims.add(keys.next());
+        }
+        victims.forEach(counts::remove);
+    }
+
+    private record Snapshot(String userId, long unreadCount, long version) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.UserSummaryDTO;
+import com.lifeflow.backend.repository.UserRepository;
+import com.lifeflow.backend.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared cache of user summaries (name, email, avatar) for DTO assembly.
+ * Converters call resolveAll once per response so a page of messages costs at most
+ * one query for the users not already cached. Call invalidate whenever a user's
+ * profile fields change.
+ */
+@Component
+public class UserSummaryResolver {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<String, UserSummaryDTO> summaries;
+
+    public UserSummaryResolver(
+            UserRepository userRepository,
+            @Value("${users.summary-cache.max-size:10000}") int maxSize,
+            @Value("${users.summary-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.summaries = new BoundedCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * Resolve a single user, or null if the user does not exist.
+     */
+    public UserSummaryDTO resolve(String userId) {
+        return resolveAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * Resolve every distinct id with at most one query; unknown ids are absent from the result.
+     */
+    public Map<String, UserSummaryDTO> resolveAll(Collection<String> userIds) {
+        Map<String, UserSummaryDTO> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        // Read before the lookup, so a profile invalidated while the query runs is not cached stale
+        long observedGeneration = summaries.generation();
+        for (String userId : userIds) {
+            if (userId == null || resolved.containsKey(userId) || missing.contains(userId)) {
+                continue;
+            }
+            UserSummaryDTO cached = summaries.get(userId);
+            if (cached != null) {
+                resolved.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (UserSummaryDTO summary : userRepository.findSummariesByIdIn(new ArrayList<>(missing))) {
+                summaries.putIfGeneration(summary.getId(), summary, observedGeneration);
+                resolved.put(summary.getId(), summary);
+            }
+        }
+        return resolved;
+    }
+
+    public void invalidate(String userId) {
+        summaries.invalidate(userId);
+    }
+
+    public Map<String, Object> stats() {
+        return summaries.stats();
+    }
+}
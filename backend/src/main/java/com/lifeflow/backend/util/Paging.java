@@ -0,0 +1,19 @@
+package com.lifeflow.backend.util;
+
+/**
+ * Page size limits shared by every keyset-paged endpoint.
+ */
+public final class Paging {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private Paging() {
+    }
+
+    /**
+     * Clamp a client-supplied limit to 1..MAX_PAGE_SIZE.
+     */
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,41 @@
+-- PostgreSQL-specific indexes that JPA @Index cannot express.
+-- Runs after Hibernate updates the schema (spring.jpa.defer-datasource-initialization),
+-- so every statement must be idempotent.
+
+-- Full-text search over message content; maintained by PostgreSQL on every insert, edit and delete
+CREATE INDEX IF NOT EXISTS idx_messages_content_fts ON messages USING GIN (to_tsvector('simple', content));
+
+-- One reaction per (message, user, emoji), declared only here. The index cannot be built while
+-- older duplicates exist, so drop them first; the self-join only runs while the index is missing.
+DELETE FROM message_reactions a USING message_reactions b
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_message_reactions_message_user_emoji')
+    AND a.message_id = b.message_id AND a.user_id = b.user_id AND a.emoji = b.emoji AND a.id > b.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_message_reactions_message_user_emoji
+    ON message_reactions (message_id, user_id, emoji);
+
+-- Seed the tag index from existing posts the first time it is empty; from then on
+-- TagIndexService keeps it in step as posts are created and deleted.
+INSERT INTO feed_tag_index (id, tag, feed_item_id, created_at)
+SELECT gen_random_uuid()::text, t.tag, t.feed_item_id, t.created_at FROM (
+    SELECT DISTINCT lower(trim(ft.tags)) AS tag, f.id AS feed_item_id, COALESCE(f.created_at, now()) AS created_at
+    FROM feed_item_tags ft JOIN feed_items f ON f.id = ft.feed_item_id
+    WHERE trim(ft.tags) <> '' AND length(trim(ft.tags)) <= 100) t
+WHERE NOT EXISTS (SELECT 1 FROM feed_tag_index)
+ON CONFLICT (tag, feed_item_id) DO NOTHING;
+
+-- Superseded by idx_comments_feed_item_parent_created, which also serves the threaded comment pages
+DROP INDEX IF EXISTS idx_comments_feed_item_created;
+
+-- Superseded by idx_follows_following_muted_follower, which also orders followers for notification fan-out
+DROP INDEX IF EXISTS idx_follows_following_muted;
+
+-- Seed unread counters for users who have none yet; from then on UnreadNotificationCounter
+-- adjusts them with every notification written, read or deleted.
+INSERT INTO user_notification_counters (user_id, unread_count, version)
+SELECT recipient_id, COUNT(*), 1 FROM notifications WHERE is_read = false GROUP BY recipient_id
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Superseded by the idx_notifications_recipient_* composites, which serve the keyset inbox per filter
+DROP INDEX IF EXISTS idx_recipient;
+DROP INDEX IF EXISTS idx_is_read;
+DROP INDEX IF EXISTS idx_created_at;
@@ -0,0 +1,153 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.User;
+import com.lifeflow.backend.repository.FeedItemRepository;
+import com.lifeflow.backend.repository.FeedLikeRepository;
+import com.lifeflow.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a single post with concurrent likes while the counter reconciler runs alongside.
+ * Not transactional: every like commits on its own, the way it does behind the controller.
+ * Run with -Pbenchmark.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@DisplayName("Feed Like Load Tests")
+class FeedLikeLoadTest {
+
+    private static final int USERS = 2000;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private FeedLikeCounter likeCounter;
+
+    @Autowired
+    private FeedCounterReconciler counterReconciler;
+
+    @Autowired
+    private NotificationAggregator notificationAggregator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FeedItemRepository feedRepository;
+
+    @Autowired
+    private FeedLikeRepository feedLikeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private FeedItem post;
+
+    @BeforeEach
+    void setUp() {
+        String runId = UUID.randomUUID().toString();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .email("liker_" + i + "_" + runId + "@test.com")
+                    .password("password123")
+                    .name("Liker " + i)
+                    .build());
+        }
+        userRepository.saveAll(users);
+
+        FeedItem item = new FeedItem();
+        item.setTitle("Hot post");
+        item.setType("page");
+        item.setAuthor(users.get(0));
+        post = feedRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeCounter.flush();
+        // The likes queued POST_LIKED notifications for the author; write them now so they can be removed
+        notificationAggregator.flush();
+        String[] userIds = users.stream().map(User::getId).toArray(String[]::new);
+        jdbcTemplate.update("DELETE FROM notifications WHERE recipient_id = ANY(?::text[]) OR actor_id = ANY(?::text[])",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("text", userIds));
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", userIds));
+                });
+        jdbcTemplate.update("DELETE FROM user_notification_counters WHERE user_id = ANY(?::text[])",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", userIds)));
+        jdbcTemplate.update("DELETE FROM feed_likes WHERE feed_item_id = ?", post.getId());
+        feedRepository.deleteById(post.getId());
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    @DisplayName("Concurrent likes on one post are counted exactly once per user")
+    void testConcurrentLikes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean liking = new AtomicBoolean(true);
+        try {
+            // Recounts racing the likes must never count one twice
+            Future<?> reconciling = executor.submit(() -> {
+                while (liking.get()) {
+                    counterReconciler.reconcile();
+                }
+            });
+
+            // Every user likes twice, the second one racing the first
+            List<Callable<Integer>> likes = new ArrayList<>();
+            for (User user : users) {
+                likes.add(() -> feedService.like(post.getId(), user.getId()));
+                likes.add(() -> feedService.like(post.getId(), user.getId()));
+            }
+            for (Future<Integer> result : executor.invokeAll(likes)) {
+                result.get();
+            }
+            liking.set(false);
+            reconciling.get();
+
+            likeCounter.flush();
+            assertEquals(USERS, feedRepository.findLikes(post.getId()));
+            assertEquals(USERS, feedLikeRepository.countByFeedItemId(post.getId()));
+
+            // Half of them take it back, again twice each
+            List<Callable<Integer>> unlikes = new ArrayList<>();
+            for (User user : users.subList(0, USERS / 2)) {
+                unlikes.add(() -> feedService.unlike(post.getId(), user.getId()));
+                unlikes.add(() -> feedService.unlike(post.getId(), user.getId()));
+            }
+            for (Future<Integer> result : executor.invokeAll(unlikes)) {
+                result.get();
+            }
+
+            assertEquals(USERS - USERS / 2, feedService.getLikes(feedRepository.findById(post.getId()).orElseThrow()));
+            likeCounter.flush();
+            assertEquals(USERS - USERS / 2, feedRepository.findLikes(post.getId()));
+            assertFalse(likeCounter.hasPending(post.getId()));
+        } finally {
+            liking.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,655 @@
+package com.lifeflow.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.backend.dto.CommentDTO;
+import com.lifeflow.backend.dto.FeedAuthorDTO;
+import com.lifeflow.backend.dto.FeedItemDetailDTO;
+import com.lifeflow.backend.dto.FeedItemDTO;
+import com.lifeflow.backend.dto.TagCountDTO;
+import com.lifeflow.backend.event.FeedItemChangedEvent;
+import com.lifeflow.backend.model.Comment;
+import com.lifeflow.backend.model.FeedItem;
+import com.lifeflow.backend.model.FeedLike;
+import com.lifeflow.backend.model.User;
+import com.lifeflow.backend.repository.CommentRepository;
+import com.lifeflow.backend.repository.FeedItemRepository;
+import com.lifeflow.backend.repository.FeedLikeRepository;
+import com.lifeflow.backend.repository.HomeTimelineRepository;
+import com.lifeflow.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@DisplayName("Feed Service Tests")
+class FeedServiceTest {
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FeedItemRepository feedRepository;
+
+    @Autowired
+    private FeedLikeRepository feedLikeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private FeedCounterReconciler counterReconciler;
+
+    @Autowired
+    private FeedPageCache feedPageCache;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private HotRankingService hotRanking;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private HomeTimelineRepository timelineRepository;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User author;
+    private User viewer;
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString();
+        author = userRepository.save(User.builder()
+                .email("author_" + uniqueId + "@test.com")
+                .password("password123")
+                .name("Feed Author")
+                .build());
+        viewer = userRepository.save(User.builder()
+                .email("viewer_" + uniqueId + "@test.com")
+                .password("password123")
+                .name("Feed Viewer")
+                .build());
+    }
+
+    private List<FeedItem> createPosts(int count) {
+        List<FeedItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FeedItem item = new FeedItem();
+            item.setTitle("Post " + i);
+            item.setDescription("Description " + i);
+            item.setType("blog");
+            item.setAuthor(author);
+            item.setTags(new ArrayList<>(List.of("tag" + (i % 3), "common")));
+            items.add(item);
+        }
+        return feedRepository.saveAll(items);
+    }
+
+    private Statistics resetStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    @DisplayName("Should assemble a feed page with a fixed number of queries")
+    void testFeedPageUsesFixedQueries() {
+        createPosts(30);
+        Statistics statistics = resetStatistics();
+        feedService.getFeedPage(viewer.getId(), author.getId(), null, 5);
+        long smallPage = statistics.getPrepareStatementCount();
+
+        statistics = resetStatistics();
+        feedService.getFeedPage(viewer.getId(), author.getId(), null, 25);
+
+        assertEquals(smallPage, statistics.getPrepareStatementCount());
+        assertTrue(smallPage <= 5);
+    }
+
+    @Test
+    @DisplayName("Should return counts, tags and liked flags for the viewer")
+    void testFeedPageContent() {
+        FeedItem post = createPosts(1).get(0);
+        FeedLike like = new FeedLike();
+        like.setFeedItem(post);
+        like.setUser(viewer);
+        feedLikeRepository.save(like);
+        feedRepository.adjustLikes(post.getId(), 1);
+        Comment comment = new Comment();
+        comment.setText("Nice");
+        comment.setAuthor(viewer);
+        comment.setFeedItem(post);
+        commentRepository.save(comment);
+        feedRepository.adjustCommentCount(post.getId(), 1);
+        resetStatistics();
+
+        FeedItemDTO item = feedService.getFeedPage(viewer.getId(), author.getId(), null, 10).getItems().get(0);
+        assertEquals(1, item.likes());
+        assertEquals(1, item.commentCount());
+        assertTrue(item.isLiked());
+        assertEquals(Set.of("tag0", "common"), new HashSet<>(item.tags()));
+        assertEquals("Feed Author", item.author().name());
+
+        FeedItemDTO anonymous = feedService.getFeedPage(null, author.getId(), null, 10).getItems().get(0);
+        assertFalse(anonymous.isLiked());
+    }
+
+    @Test
+    @DisplayName("Should walk the feed with keyset cursors without gaps or repeats")
+    void testFeedCursorPagination() {
+        createPosts(7);
+        resetStatistics();
+
+        Set<Object> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FeedService.FeedPage page = feedService.getFeedPage(viewer.getId(), author.getId(), cursor, 3);
+            page.getItems().forEach(item -> assertTrue(seen.add(item.id())));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(7, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    @DisplayName("Should serve cached feed pages without queries and overlay the viewer's likes")
+    void testFeedPageCache() {
+        FeedItem post = createPosts(3).get(0);
+        FeedLike like = new FeedLike();
+        like.setFeedItem(post);
+        like.setUser(viewer);
+        feedLikeRepository.save(like);
+
+        Statistics statistics = resetStatistics();
+        FeedService.FeedPage first = feedPageCache.getPage(null, author.getId(), null, null, 10);
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        assertNotNull(first.getEtag());
+
+        statistics = resetStatistics();
+        FeedService.FeedPage cached = feedPageCache.getPage(null, author.getId(), null, null, 10);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(first.getEtag(), cached.getEtag());
+
+        FeedService.FeedPage personal = feedPageCache.getPage(viewer.getId(), author.getId(), null, null, 10);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNotEquals(first.getEtag(), personal.getEtag());
+        for (FeedItemDTO item : personal.getItems()) {
+            assertEquals(post.getId().equals(item.id()), item.isLiked());
+        }
+        cached.getItems().forEach(item -> assertFalse(item.isLiked()));
+
+        // A like on an item of the page drops it; the next read sees the new count
+        feedRepository.adjustLikes(post.getId(), 1);
+        entityManager.clear();
+        feedPageCache.onFeedItemChanged(
+                new FeedItemChangedEvent(post.getId(), null, FeedItemChangedEvent.Change.LIKED));
+        FeedService.FeedPage refreshed = feedPageCache.getPage(null, author.getId(), null, null, 10);
+        assertNotEquals(first.getEtag(), refreshed.getEtag());
+        assertTrue(refreshed.getItems().stream()
+                .anyMatch(item -> post.getId().equals(item.id()) && item.likes() == 1));
+    }
+
+    @Test
+    @DisplayName("Should page posts by tag from the tag index and count tags")
+    void testTagIndex() {
+        String rare = "rare-" + UUID.randomUUID();
+        String popular = "popular-" + UUID.randomUUID();
+        List<FeedItem> posts = createPosts(5);
+        for (int i = 0; i < posts.size(); i++) {
+            FeedItem post = posts.get(i);
+            post.setTags(new ArrayList<>(i == 0 ? List.of(rare.toUpperCase(), popular) : List.of(popular, " " + popular)));
+            tagIndexService.index(post);
+        }
+        resetStatistics();
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            FeedService.FeedPage page = feedService.getFeedPage(viewer.getId(), null, popular, cursor, 2);
+            page.getItems().forEach(item -> assertTrue(seen.add(item.id())));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(posts.stream().map(FeedItem::getId).collect(Collectors.toSet()), seen);
+
+        List<FeedItemDTO> rarePosts = feedService.getFeedPage(null, null, rare, null, 10).getItems();
+        assertEquals(1, rarePosts.size());
+        assertEquals(posts.get(0).getId(), rarePosts.get(0).id());
+        assertThrows(IllegalArgumentException.class,
+                () -> feedService.getFeedPage(null, author.getId(), rare, null, 10));
+
+        tagIndexService.remove(posts.get(0).getId());
+        assertTrue(feedService.getFeedPage(null, null, rare, null, 10).getItems().isEmpty());
+
+        tagIndexService.rebuildCounts();
+        assertEquals(4, tagIndexService.getTagCount(popular));
+        assertEquals(0, tagIndexService.getTagCount(rare));
+        List<TagCountDTO> top = tagIndexService.getTopTags(10);
+        assertTrue(top.size() <= 10);
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).count() >= top.get(i).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the top tags in step with count changes without rescanning")
+    void testTopTagsIncremental() {
+        TagIndexService.TagCounts counts = new TagIndexService.TagCounts(3);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        assertTrue(counts.top().isEmpty());
+        for (int i = 0; i < 2000; i++) {
+            String tag = "tag-" + random.nextInt(8);
+            // Mostly new posts, with removals to push tags out of the top-K and back
+            long delta = random.nextInt(3) == 0 ? -1 : 1;
+            counts.add(tag, delta);
+            expected.compute(tag, (key, count) -> {
+                long next = (count != null ? count : 0) + delta;
+                return next > 0 ? next : null;
+            });
+
+            List<TagCountDTO> ranked = expected.entrySet().stream()
+                    .map(entry -> new TagCountDTO(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparingLong(TagCountDTO::count).reversed()
+                            .thenComparing(TagCountDTO::tag))
+                    .limit(3)
+                    .toList();
+            assertEquals(ranked, counts.top());
+        }
+    }
+
+    @Test
+    @DisplayName("Should rank posts by decayed engagement and restore scores from a checkpoint")
+    void testHotRanking() {
+        List<FeedItem> posts = createPosts(3);
+        List<String> ids = posts.stream().map(FeedItem::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            ids.forEach(id -> hotRanking.recordCreated(id, now));
+            hotRanking.recordEngagement(ids.get(2), 3, now);
+            hotRanking.recordEngagement(ids.get(1), 1, now);
+            assertTrue(hotRanking.getScore(ids.get(2)) > hotRanking.getScore(ids.get(1)));
+            assertTrue(hotRanking.getScore(ids.get(1)) > hotRanking.getScore(ids.get(0)));
+
+            // Taking a like back returns the post to its creation score, never below
+            hotRanking.recordEngagement(ids.get(1), -1, now);
+            hotRanking.recordEngagement(ids.get(1), -1, now);
+            assertEquals(hotRanking.getScore(ids.get(0)), hotRanking.getScore(ids.get(1)), 1e-9);
+
+            // Four half-lives old, three comments' worth weighs less than one fresh like
+            hotRanking.recordEngagement(ids.get(0), 3, now.minusDays(2));
+            hotRanking.recordEngagement(ids.get(1), 1, now);
+            assertTrue(hotRanking.getScore(ids.get(1)) > hotRanking.getScore(ids.get(0)));
+
+            resetStatistics();
+            List<String> order = new ArrayList<>();
+            String cursor = null;
+            do {
+                FeedService.FeedPage page = feedService.getHotPage(viewer.getId(), cursor, 50);
+                page.getItems().stream().map(FeedItemDTO::id).filter(ids::contains).forEach(order::add);
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)), order);
+
+            hotRanking.checkpoint();
+            HotRankingService restored = new HotRankingService(jdbcTemplate, transactionManager, 1.0, 3.0, 12, 10000, 30);
+            restored.load();
+            for (String id : ids) {
+                assertEquals(hotRanking.getScore(id), restored.getScore(id));
+            }
+        } finally {
+            ids.forEach(hotRanking::remove);
+        }
+    }
+
+    @Test
+    @DisplayName("Should take back old likes and comments at the time they were added")
+    void testHotRankingTakeBack() {
+        String id = createPosts(1).get(0).getId();
+        // Engagement from two days (four half-lives) ago, taken back now
+        LocalDateTime then = LocalDateTime.now().minusDays(2);
+        try {
+            hotRanking.recordCreated(id, then);
+            hotRanking.onFeedItemChanged(new FeedItemChangedEvent(id, null, FeedItemChangedEvent.Change.LIKED,
+                    1, List.of(then)));
+            double oneLike = hotRanking.getScore(id);
+            hotRanking.onFeedItemChanged(new FeedItemChangedEvent(id, null, FeedItemChangedEvent.Change.LIKED,
+                    1, List.of(then.plusMinutes(1))));
+            hotRanking.onFeedItemChanged(new FeedItemChangedEvent(id, null, FeedItemChangedEvent.Change.COMMENTED,
+                    2, List.of(then, then)));
+
+            hotRanking.onFeedItemChanged(new FeedItemChangedEvent(id, null, FeedItemChangedEvent.Change.COMMENTED,
+                    -2, List.of(then, then)));
+            hotRanking.onFeedItemChanged(new FeedItemChangedEvent(id, null, FeedItemChangedEvent.Change.LIKED,
+                    -1, List.of(then.plusMinutes(1))));
+            assertEquals(oneLike, hotRanking.getScore(id), 1e-9);
+        } finally {
+            hotRanking.remove(id);
+        }
+    }
+
+    @Test
+    @DisplayName("Should repair drifted like and comment counters")
+    void testCounterReconciliation() {
+        FeedItem post = createPosts(1).get(0);
+        FeedLike like = new FeedLike();
+        like.setFeedItem(post);
+        like.setUser(viewer);
+        feedLikeRepository.save(like);
+        // Counter drift: a like without its increment, and a comment count with no comment
+        feedRepository.adjustCommentCount(post.getId(), 3);
+        entityManager.flush();
+
+        assertTrue(counterReconciler.reconcile() >= 1);
+        entityManager.clear();
+
+        FeedItem reconciled = feedRepository.findById(post.getId()).orElseThrow();
+        assertEquals(1, reconciled.getLikes());
+        assertEquals(0, reconciled.getCommentCount());
+        assertEquals(0, counterReconciler.reconcile());
+    }
+
+    @Test
+    @DisplayName("Should fall back safely for nameless authors and malformed page content")
+    void testDetailFallbacks() {
+        User nameless = User.builder().id("nameless").email("nameless@test.com").build();
+        assertEquals(FeedAuthorDTO.ANONYMOUS.avatar(), FeedAuthorDTO.of(nameless).avatar());
+
+        assertEquals("[{\"type\":\"p\"}]", FeedItemDetailDTO.rawContent(" [{\"type\":\"p\"}] "));
+        assertEquals("\"[{\\\"type\\\":\"", FeedItemDetailDTO.rawContent("[{\"type\":"));
+        assertEquals("\"{} trailing\"", FeedItemDetailDTO.rawContent("{} trailing"));
+    }
+
+    @Test
+    @DisplayName("Should drop every like on a post in one delete")
+    void testDeleteAllLikes() {
+        List<FeedItem> posts = createPosts(2);
+        feedService.like(posts.get(0).getId(), viewer.getId());
+        feedService.like(posts.get(0).getId(), author.getId());
+        feedService.like(posts.get(1).getId(), viewer.getId());
+
+        assertEquals(2, feedService.deleteAllLikes(posts.get(0).getId()));
+        assertEquals(0, feedLikeRepository.countByFeedItemId(posts.get(0).getId()));
+        assertEquals(1, feedLikeRepository.countByFeedItemId(posts.get(1).getId()));
+    }
+
+    @Test
+    @DisplayName("Should page comment threads by cursor with reply counters and fetched authors")
+    void testThreadedComments() {
+        FeedItem post = createPosts(1).get(0);
+        List<CommentDTO> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            threads.add(commentService.addComment(post, viewer, "Comment " + i, null));
+        }
+        CommentDTO thread = threads.get(0);
+        for (int i = 0; i < 7; i++) {
+            commentService.addComment(post, author, "Reply " + i, thread.id());
+        }
+        CommentDTO reply = commentService.getReplies(post.getId(), thread.id(), null, 1).getItems().get(0);
+        // Replying to a reply joins the same thread
+        commentService.addComment(post, viewer, "Nested", reply.id());
+        assertThrows(IllegalArgumentException.class,
+                () -> commentService.addComment(post, viewer, "Orphan", "missing"));
+        Statistics statistics = resetStatistics();
+
+        List<CommentDTO> topLevel = new ArrayList<>();
+        String cursor = null;
+        do {
+            CommentService.CommentPage page = commentService.getComments(post.getId(), cursor, 2);
+            topLevel.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(5, topLevel.size());
+        assertEquals("Comment 4", topLevel.get(0).text());
+        assertEquals("Feed Viewer", topLevel.get(0).author().name());
+        assertEquals(8, topLevel.get(4).replyCount());
+        // One query per page, authors included
+        assertTrue(statistics.getPrepareStatementCount() <= 4);
+
+        List<CommentDTO> replies = new ArrayList<>();
+        cursor = null;
+        do {
+            CommentService.CommentPage page = commentService.getReplies(post.getId(), thread.id(), cursor, 3);
+            replies.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(8, replies.size());
+        assertEquals("Reply 0", replies.get(0).text());
+        assertEquals("Nested", replies.get(7).text());
+        assertTrue(replies.stream().allMatch(r -> thread.id().equals(r.parentId())));
+
+        commentService.deleteComment(commentRepository.findById(replies.get(1).id()).orElseThrow());
+        entityManager.clear();
+        Comment threadComment = commentRepository.findById(thread.id()).orElseThrow();
+        assertEquals(7, threadComment.getReplyCount());
+        // Deleting a thread takes its replies with it
+        assertEquals(8, commentService.deleteComment(threadComment));
+        entityManager.clear();
+        assertEquals(4, feedRepository.findById(post.getId()).orElseThrow().getCommentCount());
+        assertEquals(4, commentRepository.countByFeedItemId(post.getId()));
+    }
+
+    @Test
+    @DisplayName("Should fan new posts out to non-muted followers' home timelines")
+    void testHomeTimelineFanOut() {
+        followService.followUser(viewer.getId(), author.getId());
+        List<FeedItem> posts = createPosts(3);
+        posts.forEach(homeTimelineService::fanOut);
+        resetStatistics();
+
+        List<FeedItemDTO> timeline = homeTimelineService.getHomeTimeline(viewer.getId(), null, 10).getItems();
+        assertEquals(posts.stream().map(FeedItem::getId).collect(Collectors.toSet()),
+                timeline.stream().map(FeedItemDTO::id).collect(Collectors.toSet()));
+
+        followService.muteUser(viewer.getId(), author.getId());
+        FeedItem afterMute = createPosts(1).get(0);
+        homeTimelineService.fanOut(afterMute);
+        assertTrue(homeTimelineService.getHomeTimeline(viewer.getId(), null, 10).getItems().isEmpty());
+
+        // The author always sees their own posts
+        assertEquals(4, homeTimelineService.getHomeTimeline(author.getId(), null, 10).getItems().size());
+    }
+
+    @Test
+    @DisplayName("Should trim only the listed users' timelines down to the cap")
+    void testHomeTimelineTrim() {
+        followService.followUser(viewer.getId(), author.getId());
+        List<FeedItem> posts = createPosts(5);
+        posts.forEach(homeTimelineService::fanOut);
+        resetStatistics();
+
+        List<String> newest = homeTimelineService.getHomeTimeline(viewer.getId(), null, 10).getItems().stream()
+                .map(FeedItemDTO::id).limit(2).toList();
+        assertEquals(3, timelineRepository.trimToCap(List.of(viewer.getId(), "missing-user"), 2));
+        entityManager.clear();
+
+        assertEquals(newest, homeTimelineService.getHomeTimeline(viewer.getId(), null, 10).getItems().stream()
+                .map(FeedItemDTO::id).toList());
+        // The author was not listed
+        assertEquals(5, homeTimelineService.getHomeTimeline(author.getId(), null, 10).getItems().size());
+        assertEquals(0, timelineRepository.trimToCap(List.of(viewer.getId()), 2));
+    }
+
+    @Test
+    @DisplayName("Should backfill recent posts when following an author")
+    void testHomeTimelineBackfillOnFollow() {
+        createPosts(5);
+        entityManager.flush();
+
+        followService.followUser(viewer.getId(), author.getId());
+        resetStatistics();
+
+        FeedService.FeedPage first = homeTimelineService.getHomeTimeline(viewer.getId(), null, 3);
+        assertEquals(3, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(2, homeTimelineService.getHomeTimeline(viewer.getId(), first.getNextCursor(), 3).getItems().size());
+
+        followService.unfollowUser(viewer.getId(), author.getId());
+        assertTrue(homeTimelineService.getHomeTimeline(viewer.getId(), null, 3).getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep the feed page query count flat as feed_items grows")
+    void testFeedPageQueryCountIsFlat() {
+        createPosts(100);
+        Statistics statistics = resetStatistics();
+        medianNanos(20);
+        long smallQueries = statistics.getPrepareStatementCount() / 20;
+
+        createPosts(1900);
+        statistics = resetStatistics();
+        medianNanos(20);
+        long largeQueries = statistics.getPrepareStatementCount() / 20;
+
+        assertEquals(smallQueries, largeQueries);
+    }
+
+    @Test
+    @DisplayName("Should serialize typed feed DTOs to the same JSON as the nested-map shape")
+    void testTypedDtoSerialization() throws Exception {
+        createPosts(100);
+        List<FeedItemDTO> items = feedService.getFeedPage(viewer.getId(), author.getId(), null, 100).getItems();
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(asMaps(items))),
+                objectMapper.readTree(objectMapper.writeValueAsBytes(items)));
+    }
+
+    /**
+     * Benchmark: first-page latency with a small and a 20x larger feed. Keyset pages are an
+     * index range scan, so it should not grow with the table. Run with -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Benchmark: feed page latency stays flat as feed_items grows")
+    void benchmarkFeedPageLatencyIsFlat() {
+        createPosts(100);
+        long smallTable = medianNanos(20);
+
+        createPosts(1900);
+        long largeTable = medianNanos(20);
+
+        // Generous bound: a full scan over 20x the rows would blow well past it
+        assertTrue(largeTable < smallTable * 4 + 25_000_000L,
+                "Latency grew with table size: " + smallTable + "ns -> " + largeTable + "ns");
+    }
+
+    private long medianNanos(int runs) {
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            feedService.getFeedPage(viewer.getId(), null, null, 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[runs / 2];
+    }
+
+    /**
+     * Benchmark: bytes allocated serializing a 100-item page from typed DTOs against the
+     * nested-map shape the feed used before. Run with -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Benchmark: typed feed DTOs serialize with less allocation than nested maps")
+    void benchmarkTypedDtoSerialization() throws Exception {
+        createPosts(100);
+        List<FeedItemDTO> items = feedService.getFeedPage(viewer.getId(), author.getId(), null, 100).getItems();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int runs = 200;
+        long mapBytes = 0;
+        long typedBytes = 0;
+        for (int i = 0; i < runs; i++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            objectMapper.writeValueAsBytes(asMaps(items));
+            mapBytes += threads.getCurrentThreadAllocatedBytes() - allocated;
+
+            allocated = threads.getCurrentThreadAllocatedBytes();
+            objectMapper.writeValueAsBytes(items);
+            typedBytes += threads.getCurrentThreadAllocatedBytes() - allocated;
+        }
+
+        assertTrue(typedBytes < mapBytes, "Typed DTOs allocated " + typedBytes + " bytes vs " + mapBytes);
+    }
+
+    // The response shape FeedService built before typed DTOs: a HashMap per item and per author
+    private static List<Map<String, Object>> asMaps(List<FeedItemDTO> items) {
+        List<Map<String, Object>> response = new ArrayList<>(items.size());
+        for (FeedItemDTO item : items) {
+            Map<String, Object> itemData = new HashMap<>();
+            itemData.put("id", item.id());
+            itemData.put("title", item.title());
+            itemData.put("description", item.description());
+            itemData.put("type", item.type());
+            itemData.put("sourcePageId", item.sourcePageId());
+            itemData.put("tags", item.tags());
+            itemData.put("createdAt", item.createdAt());
+            Map<String, String> authorData = new HashMap<>();
+            authorData.put("id", item.author().id());
+            authorData.put("name", item.author().name());
+            authorData.put("email", item.author().email());
+            authorData.put("avatar", item.author().avatar());
+            itemData.put("author", authorData);
+            itemData.put("likes", item.likes());
+            itemData.put("isLiked", item.isLiked());
+            itemData.put("commentCount", item.commentCount());
+            response.add(itemData);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,196 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.MessageDTO;
+import com.lifeflow.backend.model.Conversation;
+import com.lifeflow.backend.model.ConversationParticipant;
+import com.lifeflow.backend.model.User;
+import com.lifeflow.backend.repository.ConversationParticipantRepository;
+import com.lifeflow.backend.repository.ConversationRepository;
+import com.lifeflow.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives a dedicated pipeline against the real database. Not transactional: the writer thread
+ * commits on its own, so everything created here is removed again in tearDown.
+ */
+@SpringBootTest
+@DisplayName("Message Ingest Pipeline Tests")
+class MessageIngestPipelineTest {
+
+    private static final long ACK_TIMEOUT_MS = 5000;
+
+    @Autowired
+    private MessagingService messagingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationParticipantRepository participantRepository;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private MessageIngestPipeline pipeline;
+    private User sender;
+    private User recipient;
+    private final List<String> conversationIds = new ArrayList<>();
+    // Whether each message's row was already committed when its ack went out
+    private final Map<String, Boolean> persistedAtAck = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString();
+        sender = userRepository.save(User.builder()
+                .email("ingest_sender_" + uniqueId + "@test.com")
+                .password("password123")
+                .name("Ingest Sender")
+                .build());
+        recipient = userRepository.save(User.builder()
+                .email("ingest_recipient_" + uniqueId + "@test.com")
+                .password("password123")
+                .name("Ingest Recipient")
+                .build());
+
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            Map<?, ?> ack = invocation.getArgument(2);
+            Object messageId = ack.get("messageId");
+            if (messageId != null) {
+                Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM messages WHERE id = ?",
+                        Integer.class, messageId);
+                persistedAtAck.put((String) messageId, rows != null && rows == 1);
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSendToUser(anyString(), eq("/queue/chat/ack"), any(Object.class));
+
+        // The writer is started by each test once its messages are queued, so they share one batch
+        pipeline = new MessageIngestPipeline(messagingService, messagingTemplate, jdbcTemplate, transactionManager,
+                true, 500, 20, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+        for (String conversationId : conversationIds) {
+            jdbcTemplate.update("DELETE FROM messages WHERE conversation_id = ?", conversationId);
+            jdbcTemplate.update("DELETE FROM conversation_participants WHERE conversation_id = ?", conversationId);
+            jdbcTemplate.update("DELETE FROM conversations WHERE id = ?", conversationId);
+        }
+        userRepository.deleteAll(List.of(sender, recipient));
+    }
+
+    private Conversation createConversation() {
+        Conversation conversation = conversationRepository.save(new Conversation("direct", sender.getId()));
+        participantRepository.save(new ConversationParticipant(conversation, sender.getId()));
+        participantRepository.save(new ConversationParticipant(conversation, recipient.getId()));
+        conversationIds.add(conversation.getId());
+        return conversation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> acks(int expected) {
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(ACK_TIMEOUT_MS).times(expected))
+                .convertAndSendToUser(eq(sender.getId()), eq("/queue/chat/ack"), frames.capture());
+        return frames.getAllValues().stream().map(frame -> (Map<String, Object>) frame).toList();
+    }
+
+    @Test
+    @DisplayName("Should persist a queued batch in order and acknowledge only after commit")
+    void testBatchPersistedInOrder() {
+        Conversation conversation = createConversation();
+        List<MessageDTO> submitted = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            submitted.add(pipeline.submit(conversation.getId(), sender.getId(), "message " + i, "client-" + i));
+        }
+        pipeline.start();
+
+        List<Map<String, Object>> acks = acks(50);
+        assertTrue(acks.stream().allMatch(ack -> "persisted".equals(ack.get("status"))));
+        assertEquals("client-0", acks.get(0).get("clientMessageId"));
+        assertEquals(50, persistedAtAck.size());
+        assertTrue(persistedAtAck.values().stream().allMatch(Boolean::booleanValue));
+
+        // Broadcast order, submit order and the (created_at, id) sort key all agree
+        ArgumentCaptor<Object> broadcasts = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(50)).convertAndSend(eq("/topic/conversation/" + conversation.getId()),
+                broadcasts.capture());
+        List<String> broadcastIds = broadcasts.getAllValues().stream().map(m -> ((MessageDTO) m).getId()).toList();
+        List<String> storedIds = jdbcTemplate.queryForList(
+                "SELECT id FROM messages WHERE conversation_id = ? ORDER BY created_at, id", String.class,
+                conversation.getId());
+        assertEquals(submitted.stream().map(MessageDTO::getId).toList(), broadcastIds);
+        assertEquals(broadcastIds, storedIds);
+
+        // The batch's conversation and unread updates are folded into one each
+        assertEquals(50, jdbcTemplate.queryForObject("SELECT unread_count FROM conversation_participants "
+                + "WHERE conversation_id = ? AND user_id = ?", Integer.class, conversation.getId(), recipient.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT unread_count FROM conversation_participants "
+                + "WHERE conversation_id = ? AND user_id = ?", Integer.class, conversation.getId(), sender.getId()));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT last_message_at FROM conversations WHERE id = ?",
+                Object.class, conversation.getId()));
+    }
+
+    @Test
+    @DisplayName("Should retract only the messages a failed batch cannot save")
+    void testFailedBatchRetracts() {
+        Conversation kept = createConversation();
+        Conversation removed = createConversation();
+        MessageDTO saved = pipeline.submit(kept.getId(), sender.getId(), "kept", "client-kept");
+        MessageDTO lost = pipeline.submit(removed.getId(), sender.getId(), "lost", "client-lost");
+
+        // The conversation disappears before the writer gets to it, so its insert fails the batch
+        jdbcTemplate.update("DELETE FROM conversation_participants WHERE conversation_id = ?", removed.getId());
+        jdbcTemplate.update("DELETE FROM conversations WHERE id = ?", removed.getId());
+        pipeline.start();
+
+        List<Map<String, Object>> acks = acks(2);
+        Map<String, Object> keptAck = acks.stream()
+                .filter(ack -> "client-kept".equals(ack.get("clientMessageId"))).findFirst().orElseThrow();
+        Map<String, Object> lostAck = acks.stream()
+                .filter(ack -> "client-lost".equals(ack.get("clientMessageId"))).findFirst().orElseThrow();
+        assertEquals("persisted", keptAck.get("status"));
+        assertEquals("failed", lostAck.get("status"));
+        assertTrue(persistedAtAck.get(saved.getId()));
+        assertFalse(persistedAtAck.get(lost.getId()));
+
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(ACK_TIMEOUT_MS).times(2)).convertAndSend(
+                eq("/topic/conversation/" + removed.getId()),
+                frames.capture());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> retraction = (Map<String, Object>) frames.getAllValues().get(1);
+        assertEquals("retracted", retraction.get("type"));
+        assertEquals(lost.getId(), retraction.get("messageId"));
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/conversation/" + kept.getId()), any(Object.class));
+    }
+}
@@ -0,0 +1,334 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.dto.ConversationPreviewDTO;
+import com.lifeflow.backend.dto.InboxStatsDTO;
+import com.lifeflow.backend.dto.MessageDTO;
+import com.lifeflow.backend.dto.ReactionSummaryDTO;
+import com.lifeflow.backend.model.Conversation;
+import com.lifeflow.backend.model.ConversationParticipant;
+import com.lifeflow.backend.model.Message;
+import com.lifeflow.backend.model.User;
+import com.lifeflow.backend.repository.ConversationParticipantRepository;
+import com.lifeflow.backend.repository.ConversationRepository;
+import com.lifeflow.backend.repository.MessageRepository;
+import com.lifeflow.backend.repository.UserRepository;
+import com.lifeflow.backend.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@DisplayName("Messaging Service Tests")
+class MessagingServiceTest {
+
+    @Autowired
+    private MessagingService messagingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationParticipantRepository participantRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationMembershipCache membershipCache;
+
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private ConversationExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private List<User> partners;
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString();
+        owner = userRepository.save(User.builder()
+                .email("owner_" + uniqueId + "@test.com")
+                .password("password123")
+                .name("Inbox Owner")
+                .build());
+
+        partners = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            partners.add(userRepository.save(User.builder()
+                    .email("partner" + i + "_" + uniqueId + "@test.com")
+                    .password("password123")
+                    .name("Partner " + i)
+                    .avatar("avatar" + i + ".jpg")
+                    .build()));
+        }
+    }
+
+    private Conversation createDirectConversation(User partner, int messageCount) {
+        Conversation conversation = conversationRepository.save(new Conversation("direct", owner.getId()));
+        participantRepository.save(new ConversationParticipant(conversation, owner.getId()));
+        participantRepository.save(new ConversationParticipant(conversation, partner.getId()));
+
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < messageCount; i++) {
+            Message message = new Message();
+            message.setConversation(conversation);
+            message.setSenderId(i % 2 == 0 ? owner.getId() : partner.getId());
+            message.setContent("message " + i);
+            message.setCreatedAt(base.plusMinutes(i));
+            message.setUpdatedAt(base.plusMinutes(i));
+            messageRepository.save(message);
+        }
+        return conversation;
+    }
+
+    private Statistics resetStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    @DisplayName("Should build conversation previews from a single query")
+    void testConversationPreviewsUseSingleQuery() {
+        for (User partner : partners) {
+            createDirectConversation(partner, 20);
+        }
+
+        Statistics statistics = resetStatistics();
+        List<ConversationPreviewDTO> previews = messagingService.getConversationPreviews(owner.getId(), 50, 0);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(partners.size(), previews.size());
+    }
+
+    @Test
+    @DisplayName("Should keep preview query count independent of history length")
+    void testConversationPreviewQueryCountIndependentOfHistory() {
+        for (User partner : partners) {
+            createDirectConversation(partner, 2);
+        }
+        Statistics statistics = resetStatistics();
+        messagingService.getConversationPreviews(owner.getId(), 50, 0);
+        long shortHistoryQueries = statistics.getPrepareStatementCount();
+
+        createDirectConversation(partners.get(0), 200);
+        statistics = resetStatistics();
+        messagingService.getConversationPreviews(owner.getId(), 50, 0);
+
+        assertEquals(shortHistoryQueries, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should resolve partner and latest message in previews")
+    void testConversationPreviewContent() {
+        User partner = partners.get(0);
+        Conversation conversation = createDirectConversation(partner, 3);
+
+        resetStatistics();
+        ConversationPreviewDTO preview = messagingService.getConversationPreviews(owner.getId(), 50, 0)
+                .stream()
+                .filter(p -> p.getId().equals(conversation.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(partner.getName(), preview.getName());
+        assertEquals(partner.getAvatar(), preview.getAvatar());
+        assertEquals(2, preview.getParticipantCount());
+        assertEquals("message 2", preview.getLastMessage());
+        assertEquals(owner.getName(), preview.getLastMessageAuthor());
+    }
+
+    @Test
+    @DisplayName("Should page conversation previews")
+    void testConversationPreviewsArePaged() {
+        for (User partner : partners) {
+            createDirectConversation(partner, 1);
+        }
+
+        resetStatistics();
+        assertEquals(2, messagingService.getConversationPreviews(owner.getId(), 2, 0).size());
+        assertEquals(1, messagingService.getConversationPreviews(owner.getId(), 2, 4).size());
+    }
+
+    @Test
+    @DisplayName("Should page message history with keyset cursors")
+    void testMessageKeysetPagination() {
+        Conversation conversation = createDirectConversation(partners.get(0), 5);
+        resetStatistics();
+
+        List<MessageDTO> latest = messagingService.getMessagesBefore(conversation.getId(), owner.getId(), null, 2);
+        assertEquals(List.of("message 4", "message 3"), latest.stream().map(MessageDTO::getContent).toList());
+
+        MessageDTO oldest = latest.get(latest.size() - 1);
+        String before = KeysetCursor.of(oldest.getCreatedAt(), oldest.getId()).encode();
+        List<MessageDTO> older = messagingService.getMessagesBefore(conversation.getId(), owner.getId(), before, 2);
+        assertEquals(List.of("message 2", "message 1"), older.stream().map(MessageDTO::getContent).toList());
+
+        MessageDTO newest = older.get(0);
+        String after = KeysetCursor.of(newest.getCreatedAt(), newest.getId()).encode();
+        List<MessageDTO> newer = messagingService.getMessagesAfter(conversation.getId(), owner.getId(), after, 10);
+        assertEquals(List.of("message 4", "message 3"), newer.stream().map(MessageDTO::getContent).toList());
+    }
+
+    @Test
+    @DisplayName("Should maintain unread counters on send and mark as read")
+    void testUnreadCounters() {
+        User partner = partners.get(0);
+        Conversation conversation = createDirectConversation(partner, 0);
+
+        messagingService.sendMessage(conversation.getId(), partner.getId(), "first");
+        messagingService.sendMessage(conversation.getId(), partner.getId(), "second");
+        messagingService.sendMessage(conversation.getId(), owner.getId(), "reply");
+
+        InboxStatsDTO ownerStats = messagingService.getInboxStats(owner.getId());
+        assertEquals(2, ownerStats.getTotalUnread());
+        assertEquals(1, ownerStats.getTotalConversations());
+        assertEquals(1, messagingService.getInboxStats(partner.getId()).getTotalUnread());
+
+        resetStatistics();
+        assertEquals(2, messagingService.getConversationPreviews(owner.getId(), 50, 0).get(0).getUnreadCount());
+
+        messagingService.markAsRead(conversation.getId(), owner.getId());
+        assertEquals(0, messagingService.getInboxStats(owner.getId()).getTotalUnread());
+    }
+
+    @Test
+    @DisplayName("Should authorize repeat participant checks from the membership cache")
+    void testMembershipCache() {
+        Conversation conversation = createDirectConversation(partners.get(0), 1);
+        membershipCache.invalidate(conversation.getId());
+
+        messagingService.getMessagesBefore(conversation.getId(), owner.getId(), null, 10);
+        long hitsBefore = (long) membershipCache.stats().get("hits");
+
+        messagingService.markAsRead(conversation.getId(), owner.getId());
+        assertEquals(hitsBefore + 1, (long) membershipCache.stats().get("hits"));
+
+        assertThrows(RuntimeException.class,
+                () -> messagingService.getMessagesBefore(conversation.getId(), partners.get(1).getId(), null, 10));
+    }
+
+    @Test
+    @DisplayName("Should resolve each distinct sender once per message page")
+    void testUserSummariesResolvedOncePerPage() {
+        User partner = partners.get(0);
+        Conversation conversation = createDirectConversation(partner, 20);
+        userSummaryResolver.invalidate(owner.getId());
+        userSummaryResolver.invalidate(partner.getId());
+        long missesBefore = (long) userSummaryResolver.stats().get("misses");
+
+        List<MessageDTO> messages = messagingService.getMessagesBefore(conversation.getId(), owner.getId(), null, 20);
+
+        assertEquals(20, messages.size());
+        assertEquals(missesBefore + 2, (long) userSummaryResolver.stats().get("misses"));
+        assertEquals(partner.getName(), messages.get(0).getSender().getName());
+    }
+
+    @Test
+    @DisplayName("Should pick up profile changes after invalidation")
+    void testUserSummaryInvalidation() {
+        assertEquals("Partner 0", userSummaryResolver.resolve(partners.get(0).getId()).getName());
+
+        User partner = partners.get(0);
+        partner.setName("Renamed Partner");
+        userRepository.saveAndFlush(partner);
+        userSummaryResolver.invalidate(partner.getId());
+
+        assertEquals("Renamed Partner", userSummaryResolver.resolve(partner.getId()).getName());
+        assertNull(userSummaryResolver.resolve(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    @DisplayName("Should aggregate reactions and report idempotent deltas")
+    void testReactionAggregation() {
+        User partner = partners.get(0);
+        Conversation conversation = createDirectConversation(partner, 1);
+        String messageId = messageRepository.findLatestByConversationId(conversation.getId(),
+                PageRequest.of(0, 1)).get(0).getId();
+
+        assertEquals(1, messagingService.addReaction(conversation.getId(), messageId, owner.getId(), "👍").getDelta());
+        assertEquals(0, messagingService.addReaction(conversation.getId(), messageId, owner.getId(), "👍").getDelta());
+        assertEquals(1, messagingService.addReaction(conversation.getId(), messageId, partner.getId(), "👍").getDelta());
+        messagingService.addReaction(conversation.getId(), messageId, partner.getId(), "🎉");
+
+        List<ReactionSummaryDTO> summary = messagingService
+                .getMessagesBefore(conversation.getId(), owner.getId(), null, 1).get(0).getReactionSummary();
+        assertEquals(2, summary.size());
+        assertEquals("👍", summary.get(0).getEmoji());
+        assertEquals(2, summary.get(0).getCount());
+        assertTrue(summary.get(0).getReactedByMe());
+        assertFalse(summary.get(1).getReactedByMe());
+
+        assertEquals(-1, messagingService.removeReaction(conversation.getId(), messageId, owner.getId(), "👍").getDelta());
+        assertEquals(0, messagingService.removeReaction(conversation.getId(), messageId, owner.getId(), "👍").getDelta());
+    }
+
+    @Test
+    @DisplayName("Should stream the full history as NDJSON and CSV")
+    void testConversationExport() throws Exception {
+        Conversation conversation = createDirectConversation(partners.get(0), 12);
+        String messageId = messageRepository.findLatestByConversationId(conversation.getId(),
+                PageRequest.of(0, 1)).get(0).getId();
+        messagingService.addReaction(conversation.getId(), messageId, owner.getId(), "👍");
+        entityManager.flush();
+
+        exportService.checkExport(conversation.getId(), owner.getId(), "ndjson");
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.export(conversation.getId(), "ndjson", ndjson);
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(12, lines.length);
+        assertTrue(lines[0].contains("\"content\":\"message 0\""));
+        assertTrue(lines[11].contains("\"emoji\":\"👍\""));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.export(conversation.getId(), "csv", csv);
+        String[] rows = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(13, rows.length);
+        assertTrue(rows[0].startsWith("id,created_at"));
+
+        assertThrows(RuntimeException.class,
+                () -> exportService.checkExport(conversation.getId(), partners.get(1).getId(), "csv"));
+    }
+
+    @Test
+    @DisplayName("Should export just the CSV header for an empty conversation")
+    void testEmptyConversationCsvExport() throws Exception {
+        Conversation conversation = createDirectConversation(partners.get(0), 0);
+        entityManager.flush();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.export(conversation.getId(), "csv", csv);
+        assertEquals("id,created_at,updated_at,sender_id,content,is_edited,reactions,attachments\r\n",
+                csv.toString(StandardCharsets.UTF_8));
+    }
+}
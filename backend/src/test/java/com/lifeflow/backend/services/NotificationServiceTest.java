@@ -1,10 +1,17 @@
 package com.lifeflow.backend.services;
 
 import com.lifeflow.backend.enums.NotificationType;
+import com.lifeflow.backend.model.Follow;
 import com.lifeflow.backend.model.Notification;
 import com.lifeflow.backend.model.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
+import com.lifeflow.backend.repository.FollowRepository;
 import com.lifeflow.backend.repository.NotificationRepository;
+import jakarta.persistence.EntityManager;
 import com.lifeflow.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +20,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +40,24 @@ class NotificationServiceTest {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationFanoutService notificationFanoutService;
+
+    @Autowired
+    private NotificationAggregator notificationAggregator;
+
+    @Autowired
+    private NotificationRetentionSweeper notificationRetentionSweeper;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User actor;
     private User recipient;
 
@@ -53,10 +80,27 @@ class NotificationServiceTest {
         recipient = userRepository.save(recipient);
     }
 
+    // Likes and follows only arrive through the aggregator; write one straight away
+    private void aggregate(NotificationType type, String relatedEntityId, String relatedEntityType) {
+        // The aggregator writes through JDBC
+        entityManager.flush();
+        notificationAggregator.add(recipient.getId(), actor.getId(), type, relatedEntityId, relatedEntityType);
+        assertEquals(1, notificationAggregator.flush());
+        entityManager.clear();
+    }
+
+    private void follow() {
+        aggregate(NotificationType.NEW_FOLLOWER, actor.getId(), "USER");
+    }
+
+    private void like(String postId) {
+        aggregate(NotificationType.POST_LIKED, postId, "POST");
+    }
+
     @Test
     @DisplayName("Should create follower notification")
     void testCreateFollowerNotification() {
-        notificationService.createFollowerNotification(actor, recipient);
+        follow();
 
         long notificationCount = notificationRepository.countByRecipient(recipient);
         assertEquals(1, notificationCount);
@@ -67,8 +111,9 @@ class NotificationServiceTest {
                 .orElseThrow();
 
         assertEquals(NotificationType.NEW_FOLLOWER, notification.getType());
-        assertEquals(actor, notification.getActor());
-        assertEquals(recipient, notification.getRecipient());
+        assertEquals(actor.getId(), notification.getActor().getId());
+        assertEquals(recipient.getId(), notification.getRecipient().getId());
+        assertEquals("Actor User started following you", notification.getMessage());
         assertFalse(notification.getIsRead());
     }
 
@@ -76,7 +121,7 @@ class NotificationServiceTest {
     @DisplayName("Should create post liked notification")
     void testCreatePostLikedNotification() {
         String postId = "post-123";
-        notificationService.createPostLikedNotification(actor, recipient, postId);
+        like(postId);
 
         long notificationCount = notificationRepository.countByRecipient(recipient);
         assertEquals(1, notificationCount);
@@ -94,7 +139,7 @@ class NotificationServiceTest {
     @Test
     @DisplayName("Should mark notification as read")
     void testMarkAsRead() {
-        notificationService.createFollowerNotification(actor, recipient);
+        follow();
 
         Notification notification = notificationRepository.findByRecipientAndIsRead(recipient, false)
                 .stream()
@@ -115,8 +160,8 @@ class NotificationServiceTest {
     @Test
     @DisplayName("Should get unread notification count")
     void testGetUnreadCount() {
-        notificationService.createFollowerNotification(actor, recipient);
-        notificationService.createFollowerNotification(actor, recipient);
+        like("post-1");
+        like("post-2");
 
         long unreadCount = notificationService.getUnreadCount(recipient.getId());
         assertEquals(2, unreadCount);
@@ -125,8 +170,8 @@ class NotificationServiceTest {
     @Test
     @DisplayName("Should mark all notifications as read")
     void testMarkAllAsRead() {
-        notificationService.createFollowerNotification(actor, recipient);
-        notificationService.createFollowerNotification(actor, recipient);
+        like("post-1");
+        like("post-2");
 
         assertEquals(2, notificationService.getUnreadCount(recipient.getId()));
 
@@ -138,8 +183,8 @@ class NotificationServiceTest {
     @Test
     @DisplayName("Should get notifications by type")
     void testGetNotificationsByType() {
-        notificationService.createFollowerNotification(actor, recipient);
-        notificationService.createPostLikedNotification(actor, recipient, "post-123");
+        follow();
+        like("post-123");
 
         var notifications = notificationService.getNotificationsByType(
                 recipient.getId(),
@@ -152,8 +197,8 @@ class NotificationServiceTest {
     @Test
     @DisplayName("Should get notification summary")
     void testGetNotificationSummary() {
-        notificationService.createFollowerNotification(actor, recipient);
-        notificationService.createFollowerNotification(actor, recipient);
+        like("post-1");
+        like("post-2");
 
         var notification = notificationRepository.findByRecipientAndIsRead(recipient, false)
                 .stream()
@@ -167,12 +212,13 @@ class NotificationServiceTest {
         assertEquals(2L, summary.get("totalNotifications"));
         assertEquals(1L, summary.get("unreadCount"));
         assertEquals(1L, summary.get("readCount"));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getNotificationSummary("missing-user"));
     }
 
     @Test
     @DisplayName("Should delete old notifications")
     void testDeleteOldNotifications() {
-        notificationService.createFollowerNotification(actor, recipient);
+        follow();
 
         long beforeDelete = notificationRepository.countByRecipient(recipient);
         assertEquals(1, beforeDelete);
@@ -184,4 +230,243 @@ class NotificationServiceTest {
         // In real scenario with actual old data, this would delete them
         assertEquals(1, afterDelete); // Still exists since it's recent
     }
+
+    @Test
+    @DisplayName("Should fan new-post notifications out to followers in the background and resume after a crash")
+    void testNewPostFanOut() {
+        List<User> followers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            User follower = userRepository.save(User.builder()
+                    .email("follower_" + i + "_" + UUID.randomUUID() + "@test.com")
+                    .password("password123")
+                    .name("Follower " + i)
+                    .build());
+            followRepository.save(Follow.builder()
+                    .follower(follower)
+                    .following(actor)
+                    .isMuted(i == 0)
+                    .build());
+            followers.add(follower);
+        }
+        User muted = followers.get(0);
+        List<String> notified = followers.subList(1, followers.size()).stream().map(User::getId).sorted().toList();
+        // The fan-out writes through JDBC
+        entityManager.flush();
+
+        // Scheduling only records the job; the worker starts after commit
+        String jobId = notificationFanoutService.schedule("post-1", actor.getId());
+        assertNotNull(jobId);
+        assertNull(notificationFanoutService.schedule("post-1", actor.getId()));
+        assertEquals(0, notificationRepository.countByRecipient(followers.get(1)));
+
+        assertEquals(29, notificationFanoutService.run(jobId));
+        assertEquals(0, notificationFanoutService.run(jobId));
+        assertEquals(0, notificationRepository.countByRecipient(muted));
+        Notification notification = notificationRepository.findByRecipientAndIsRead(followers.get(1), false).get(0);
+        assertEquals(NotificationType.NEW_POST_FROM_FOLLOWING, notification.getType());
+        assertEquals("post-1", notification.getRelatedEntityId());
+
+        // Crash after the first 10 followers' chunk committed: the job is left RUNNING and goes stale
+        String resumedJobId = notificationFanoutService.schedule("post-2", actor.getId());
+        jdbcTemplate.update("UPDATE notification_fanout_jobs SET status = 'RUNNING', last_follower_id = ?, "
+                + "sent_count = 10, updated_at = ? WHERE id = ?",
+                notified.get(9), LocalDateTime.now().minusHours(1), resumedJobId);
+
+        assertEquals(19, notificationFanoutService.run(resumedJobId));
+        assertEquals(29L, jdbcTemplate.queryForObject(
+                "SELECT sent_count FROM notification_fanout_jobs WHERE id = ?", Long.class, resumedJobId));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications "
+                + "WHERE related_entity_id = 'post-2' AND recipient_id = ?", Long.class, notified.get(9)));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications "
+                + "WHERE related_entity_id = 'post-2' AND recipient_id = ?", Long.class, notified.get(10)));
+    }
+
+    @Test
+    @DisplayName("Should coalesce likes and follows on the same target into one notification")
+    void testNotificationCoalescing() {
+        List<User> likers = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            likers.add(userRepository.save(User.builder()
+                    .email("liker_" + i + "_" + UUID.randomUUID() + "@test.com")
+                    .password("password123")
+                    .name("Liker " + i)
+                    .build()));
+        }
+        entityManager.flush();
+
+        for (int i = 0; i < 42; i++) {
+            notificationAggregator.add(recipient.getId(), likers.get(i).getId(), NotificationType.POST_LIKED,
+                    "post-1", "POST");
+        }
+        // Liking again is not another actor
+        notificationAggregator.add(recipient.getId(), likers.get(5).getId(), NotificationType.POST_LIKED,
+                "post-1", "POST");
+        notificationAggregator.add(recipient.getId(), likers.get(0).getId(), NotificationType.NEW_FOLLOWER,
+                likers.get(0).getId(), "USER");
+        notificationAggregator.add(recipient.getId(), likers.get(1).getId(), NotificationType.NEW_FOLLOWER,
+                likers.get(1).getId(), "USER");
+        assertEquals(2, notificationAggregator.flush());
+        entityManager.clear();
+
+        assertEquals(2, notificationRepository.countByRecipient(recipient));
+        Notification liked = notificationRepository.findByRecipientAndTypeOrderByCreatedAtDesc(recipient,
+                NotificationType.POST_LIKED, PageRequest.of(0, 1)).getContent().get(0);
+        assertEquals(42, liked.getActorCount());
+        assertEquals("Liker 5 and 41 others liked your post", liked.getMessage());
+        assertEquals(List.of(likers.get(5).getId(), likers.get(41).getId(), likers.get(40).getId()),
+                NotificationAggregator.parseActorIds(liked.getRecentActorIds()));
+        Notification followed = notificationRepository.findByRecipientAndTypeOrderByCreatedAtDesc(recipient,
+                NotificationType.NEW_FOLLOWER, PageRequest.of(0, 1)).getContent().get(0);
+        assertEquals("Liker 1 and 1 other started following you", followed.getMessage());
+
+        // Two new likers and one already counted fold into the same row
+        notificationAggregator.add(recipient.getId(), likers.get(42).getId(), NotificationType.POST_LIKED,
+                "post-1", "POST");
+        notificationAggregator.add(recipient.getId(), likers.get(43).getId(), NotificationType.POST_LIKED,
+                "post-1", "POST");
+        notificationAggregator.add(recipient.getId(), likers.get(41).getId(), NotificationType.POST_LIKED,
+                "post-1", "POST");
+        assertEquals(1, notificationAggregator.flush());
+        entityManager.clear();
+
+        assertEquals(2, notificationRepository.countByRecipient(recipient));
+        Notification updated = notificationRepository.findById(liked.getId()).orElseThrow();
+        assertEquals(44, updated.getActorCount());
+        assertEquals("Liker 41 and 43 others liked your post", updated.getMessage());
+
+        // Once read, new activity starts a new row
+        notificationService.markAllAsRead(recipient.getId());
+        notificationAggregator.add(recipient.getId(), likers.get(44).getId(), NotificationType.POST_LIKED,
+                "post-1", "POST");
+        assertEquals(1, notificationAggregator.flush());
+        entityManager.clear();
+        assertEquals(3, notificationRepository.countByRecipient(recipient));
+        assertEquals(1, notificationService.getUnreadCount(recipient.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should drop coalesced groups whose users are gone without blocking the rest")
+    void testCoalescingDropsGroupsForMissingUsers() {
+        try {
+            // Each flush transaction commits on its own here, so a failing group cannot poison the test's
+            notificationAggregator.add(recipient.getId(), "deleted-user-" + UUID.randomUUID(),
+                    NotificationType.POST_LIKED, "post-1", "POST");
+            notificationAggregator.add(recipient.getId(), actor.getId(), NotificationType.POST_LIKED,
+                    "post-2", "POST");
+            notificationAggregator.flush();
+
+            assertEquals(0, notificationAggregator.getPendingCount());
+            assertEquals(1L, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM notifications WHERE recipient_id = ?", Long.class, recipient.getId()));
+        } finally {
+            jdbcTemplate.update("DELETE FROM notifications WHERE recipient_id = ?", recipient.getId());
+            jdbcTemplate.update("DELETE FROM user_notification_counters WHERE user_id = ?", recipient.getId());
+            userRepository.deleteAll(List.of(actor, recipient));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the unread counter in step with reads and deletes")
+    void testUnreadCounter() {
+        follow();
+        like("post-1");
+        notificationService.createMentionNotification(actor, recipient, "post-2", "");
+        assertEquals(3, notificationService.getUnreadCount(recipient.getId()));
+
+        List<Notification> unread = notificationRepository.findByRecipientAndIsRead(recipient, false);
+        notificationService.markAsRead(unread.get(0).getId());
+        // Reading twice only counts once
+        notificationService.markAsRead(unread.get(0).getId());
+        assertEquals(2, notificationService.getUnreadCount(recipient.getId()));
+
+        notificationService.deleteNotification(unread.get(1).getId());
+        notificationService.deleteNotification(unread.get(0).getId());
+        assertEquals(1, notificationService.getUnreadCount(recipient.getId()));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT unread_count FROM user_notification_counters WHERE user_id = ?", Long.class,
+                recipient.getId()));
+
+        notificationService.markAllAsRead(recipient.getId());
+        assertEquals(0, notificationService.getUnreadCount(recipient.getId()));
+        entityManager.flush();
+        assertEquals(0, notificationService.getUnreadCount(actor.getId()));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getUnreadCount("missing-user"));
+    }
+
+    @Test
+    @DisplayName("Should sweep expired notifications by per-type retention and fix unread counters")
+    void testRetentionSweep() {
+        notificationService.createNewPostNotification(actor, "post-1", recipient);
+        notificationService.createMentionNotification(actor, recipient, "post-2", "");
+        like("post-1");
+        follow();
+        Notification follow = notificationRepository.findByRecipientAndTypeOrderByCreatedAtDesc(recipient,
+                NotificationType.NEW_FOLLOWER, PageRequest.of(0, 1)).getContent().get(0);
+        notificationService.markAsRead(follow.getId());
+        assertEquals(3, notificationService.getUnreadCount(recipient.getId()));
+        entityManager.flush();
+
+        // New-post notifications are kept 14 days, everything else 30
+        jdbcTemplate.update("UPDATE notifications SET created_at = now() - interval '20 days' "
+                + "WHERE recipient_id = ? AND type IN ('NEW_POST_FROM_FOLLOWING', 'POST_LIKED')", recipient.getId());
+        jdbcTemplate.update("UPDATE notifications SET created_at = now() - interval '40 days' "
+                + "WHERE recipient_id = ? AND type IN ('MENTION', 'NEW_FOLLOWER')", recipient.getId());
+        String jobId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO notification_fanout_jobs "
+                + "(id, feed_item_id, author_id, status, sent_count, created_at, updated_at) "
+                + "VALUES (?, ?, ?, 'DONE', 0, now() - interval '10 days', now() - interval '10 days')",
+                jobId, UUID.randomUUID().toString(), actor.getId());
+
+        assertTrue(notificationRetentionSweeper.sweep() >= 4);
+        entityManager.clear();
+
+        List<Notification> left = notificationRepository.findByRecipientOrderByCreatedAtDesc(recipient,
+                PageRequest.of(0, 10)).getContent();
+        assertEquals(1, left.size());
+        assertEquals(NotificationType.POST_LIKED, left.get(0).getType());
+        assertEquals(1, notificationService.getUnreadCount(recipient.getId()));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_fanout_jobs WHERE id = ?",
+                Long.class, jobId));
+    }
+
+    @Test
+    @DisplayName("Should page the inbox by cursor with read and type filters")
+    void testInboxKeysetPaging() {
+        for (int i = 0; i < 3; i++) {
+            like("post-" + i);
+        }
+        notificationService.createMentionNotification(actor, recipient, "post-3", "");
+        follow();
+        Notification liked = notificationRepository.findByRecipientAndTypeOrderByCreatedAtDesc(recipient,
+                NotificationType.POST_LIKED, PageRequest.of(0, 1)).getContent().get(0);
+        notificationService.markAsRead(liked.getId());
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            NotificationService.NotificationPage page = notificationService.getInbox(recipient.getId(), null, null,
+                    cursor, 2);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(5, seen.size());
+        assertEquals(5, new HashSet<>(seen).size());
+
+        NotificationService.NotificationPage unreadLikes = notificationService.getInbox(recipient.getId(), false,
+                NotificationType.POST_LIKED, null, 10);
+        assertEquals(2, unreadLikes.getItems().size());
+        assertNull(unreadLikes.getNextCursor());
+        assertEquals("Actor User", unreadLikes.getItems().get(0).getActorName());
+        assertFalse(unreadLikes.getItems().stream().anyMatch(item -> item.getId().equals(liked.getId())));
+
+        assertEquals(4, notificationService.getInbox(recipient.getId(), false, null, null, 10).getItems().size());
+        assertEquals(1, notificationService.getInbox(recipient.getId(), null, NotificationType.MENTION, null, 10)
+                .getItems().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationService.getInbox(recipient.getId(), null, null, "not-a-cursor", 10));
+    }
 }
@@ -0,0 +1,149 @@
+package com.lifeflow.backend.services;
+
+import com.lifeflow.backend.controller.PageController;
+import com.lifeflow.backend.model.Page;
+import com.lifeflow.backend.model.PageBody;
+import com.lifeflow.backend.repository.PageBodyRepository;
+import com.lifeflow.backend.repository.PageRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@DisplayName("Page Body Service Tests")
+class PageBodyServiceTest {
+
+    @Autowired
+    private PageBodyService pageBodyService;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private PageBodyRepository bodyRepository;
+
+    @Autowired
+    private PageController pageController;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Page template;
+
+    @BeforeEach
+    void setUp() {
+        template = new Page();
+        template.setId(UUID.randomUUID().toString());
+        template.setTitle("Template");
+        template.setUserId("owner");
+        // Unique content per run so the shared body starts unreferenced
+        template.setBlocksJson("[{\"type\":\"paragraph\",\"content\":\"" + UUID.randomUUID() + "\"}]");
+        template.setCoverImage("data:image/png;base64,AAAA");
+        pageRepository.save(template);
+    }
+
+    private Page cloneFor(String userId) {
+        Page clone = new Page();
+        clone.setId(UUID.randomUUID().toString());
+        clone.setTitle("Template (Copy)");
+        clone.setUserId(userId);
+        pageBodyService.shareContent(template, clone);
+        return pageRepository.save(clone);
+    }
+
+    private Page reload(String id) {
+        entityManager.flush();
+        entityManager.clear();
+        return pageRepository.findById(id).orElseThrow();
+    }
+
+    private Page edited(Page page, String blocksJson) {
+        Page updated = new Page();
+        updated.setId(page.getId());
+        updated.setTitle(page.getTitle());
+        updated.setUserId(page.getUserId());
+        updated.setBlocksJson(blocksJson);
+        updated.setCoverImage(page.getCoverImage());
+        return updated;
+    }
+
+    @Test
+    @DisplayName("Should store cloned content once and share it by reference")
+    void testClonesShareOneBody() {
+        Page first = cloneFor("user-a");
+        Page second = cloneFor("user-b");
+        assertEquals(first.getBodyHash(), second.getBodyHash());
+
+        PageBody body = bodyRepository.findById(first.getBodyHash()).orElseThrow();
+        assertEquals(2, body.getRefCount());
+
+        Page loaded = reload(first.getId());
+        assertEquals(template.getBlocksJson(), loaded.getBlocksJson());
+        assertEquals(template.getCoverImage(), loaded.getCoverImage());
+    }
+
+    @Test
+    @DisplayName("Should copy content on the first edit that changes it and drop unreferenced bodies")
+    void testCopyOnWrite() {
+        Page first = cloneFor("user-a");
+        Page second = cloneFor("user-b");
+        String hash = first.getBodyHash();
+
+        // Saving unchanged content (e.g. a title edit) keeps the page shared
+        Page loaded = reload(first.getId());
+        Page renamed = edited(loaded, loaded.getBlocksJson());
+        renamed.setTitle("Renamed");
+        pageBodyService.updatePage(loaded, renamed);
+        assertEquals(hash, reload(first.getId()).getBodyHash());
+
+        loaded = reload(first.getId());
+        pageBodyService.updatePage(loaded, edited(loaded, "[]"));
+        Page copied = reload(first.getId());
+        assertNull(copied.getBodyHash());
+        assertEquals("[]", copied.getBlocksJson());
+        assertEquals(template.getCoverImage(), copied.getCoverImage());
+        assertEquals(1, bodyRepository.findById(hash).orElseThrow().getRefCount());
+
+        loaded = reload(second.getId());
+        pageBodyService.updatePage(loaded, edited(loaded, "[{}]"));
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(bodyRepository.findById(hash).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep copy-on-write when the editor saves an existing clone through POST")
+    void testEditorSaveOfClone() {
+        Page first = cloneFor("user-a");
+        cloneFor("user-b");
+        String hash = first.getBodyHash();
+
+        // The editor posts the whole page back; bodyHash is not part of the JSON
+        Page loaded = reload(first.getId());
+        Page renamed = edited(loaded, loaded.getBlocksJson());
+        renamed.setTitle("Renamed");
+        Page response = (Page) pageController.savePage(renamed, "user-a").getBody();
+        assertEquals(template.getBlocksJson(), response.getBlocksJson());
+        assertEquals(template.getCoverImage(), response.getCoverImage());
+        assertEquals(hash, reload(first.getId()).getBodyHash());
+        assertEquals(2, bodyRepository.findById(hash).orElseThrow().getRefCount());
+
+        loaded = reload(first.getId());
+        response = (Page) pageController.savePage(edited(loaded, "[]"), "user-a").getBody();
+        assertEquals("[]", response.getBlocksJson());
+        Page copied = reload(first.getId());
+        assertNull(copied.getBodyHash());
+        assertEquals(1, bodyRepository.findById(hash).orElseThrow().getRefCount());
+
+        assertEquals(403, pageController.savePage(edited(copied, "[{}]"), "user-b").getStatusCode().value());
+    }
+}
@@ -0,0 +1,99 @@
+package com.lifeflow.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Presence Service Tests")
+class PresenceServiceTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        // No debounce so flush() publishes whatever has settled; the flusher thread is never started
+        presenceService = new PresenceService(messagingTemplate, 0, 500, 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> publishedFrames() {
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeast(0)).convertAndSend(eq(PresenceService.STATUS_TOPIC), frames.capture());
+        return frames.getAllValues().stream().map(f -> (Map<String, Object>) f).toList();
+    }
+
+    @Test
+    @DisplayName("Should keep a user online while any session is open")
+    void testSessionsAreReferenceCounted() {
+        presenceService.sessionConnected("alice", "tab-1");
+        presenceService.sessionConnected("alice", "tab-2");
+        presenceService.flush();
+
+        presenceService.sessionDisconnected("alice", "tab-1");
+        presenceService.flush();
+
+        assertTrue(presenceService.isOnline("alice"));
+        assertEquals(1, presenceService.getSessionCount("alice"));
+
+        presenceService.sessionDisconnected("alice", "tab-2");
+        presenceService.sessionDisconnected("alice", "tab-2");
+        presenceService.flush();
+
+        assertFalse(presenceService.isOnline("alice"));
+        List<Map<String, Object>> frames = publishedFrames();
+        assertEquals(2, frames.size());
+        assertEquals(List.of("alice"), frames.get(0).get("online"));
+        assertEquals(List.of("alice"), frames.get(1).get("offline"));
+    }
+
+    @Test
+    @DisplayName("Should not publish a status flap that settles back")
+    void testFlapIsCoalesced() {
+        presenceService.sessionConnected("bob", "s1");
+        presenceService.flush();
+        clearInvocations(messagingTemplate);
+
+        presenceService.sessionDisconnected("bob", "s1");
+        presenceService.sessionConnected("bob", "s2");
+        presenceService.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(eq(PresenceService.STATUS_TOPIC), any(Object.class));
+        assertTrue(presenceService.isOnline("bob"));
+    }
+
+    @Test
+    @DisplayName("Should hold back transitions inside the debounce window")
+    void testDebounceWindow() {
+        PresenceService debounced = new PresenceService(messagingTemplate, 60_000, 500, 1000);
+        debounced.sessionConnected("carol", "s1");
+        debounced.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(eq(PresenceService.STATUS_TOPIC), any(Object.class));
+        assertTrue(debounced.isOnline("carol"));
+    }
+
+    @Test
+    @DisplayName("Should batch a reconnect storm into a few frames")
+    void testReconnectStormIsBatched() {
+        for (int i = 0; i < 5; i++) {
+            presenceService.sessionConnected("user" + i, "session" + i);
+        }
+        presenceService.flush();
+
+        List<Map<String, Object>> frames = publishedFrames();
+        assertEquals(3, frames.size());
+        assertEquals(5, frames.stream().mapToInt(f -> ((List<?>) f.get("online")).size()).sum());
+    }
+}
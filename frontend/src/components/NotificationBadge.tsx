@@ -38,15 +38,15 @@ export function NotificationBadge({ userId, className = '' }: NotificationBadgeP
       // Add to notifications list
       setNotifications((prev) => [notification, ...prev].slice(0, 10)); // Keep last 10
 
-      // Increment unread count
-      setUnreadCount((prev) => prev + 1);
-
       // Show toast for follow notifications
       if (notification.type === 'FOLLOW' && notification.followerName) {
         toast.info(`${notification.followerName} followed you!`);
       }
     });
 
+    // The server pushes the unread count whenever it changes
+    const unsubscribeUnread = webSocketNotificationService.onUnreadCount(setUnreadCount);
+
     // Listen for connection status changes
     const unsubscribeStatus = webSocketNotificationService.onStatusChange((status) => {
       setIsConnected(status === 'connected');
@@ -54,6 +54,7 @@ export function NotificationBadge({ userId, className = '' }: NotificationBadgeP
 
     return () => {
       unsubscribeNotification();
+      unsubscribeUnread();
       unsubscribeStatus();
     };
   }, [userId]);
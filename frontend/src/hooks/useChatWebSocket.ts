@@ -1,12 +1,18 @@
 import { useEffect, useRef, useState, useCallback } from 'react';
 import SockJS from 'sockjs-client';
 import { Client, IMessage } from '@stomp/stompjs';
-import { Message } from '../types';
+import { ChatAck, Message, ReactionDelta } from '../types';
 
 interface ChatWebSocketHook {
   isConnected: boolean;
-  sendMessage: (conversationId: string, content: string) => void;
-  subscribeToConversation: (conversationId: string, callback: (message: Message) => void) => () => void;
+  sendMessage: (conversationId: string, content: string) => string | null;
+  onAck: (callback: (ack: ChatAck) => void) => () => void;
+  subscribeToConversation: (
+    conversationId: string,
+    callback: (message: Message) => void,
+    onRetract?: (messageId: string) => void
+  ) => () => void;
+  subscribeToReactions: (conversationId: string, callback: (delta: ReactionDelta) => void) => () => void;
 }
 
 /**
@@ -17,12 +23,16 @@ export function useChatWebSocket(): ChatWebSocketHook {
   const [isConnected, setIsConnected] = useState(false);
   const clientRef = useRef<Client | null>(null);
   const subscriptionsRef = useRef<Map<string, any>>(new Map());
+  const ackCallbacksRef = useRef<Set<(ack: ChatAck) => void>>(new Set());
 
   useEffect(() => {
     // Create STOMP client with SockJS
     const socket = new SockJS('http://localhost:8080/ws/chat');
+    const token = localStorage.getItem('lifeflow-token');
     const stompClient = new Client({
       webSocketFactory: () => socket as any,
+      // Identifies the sender to the server and routes /user/queue/chat/ack back to us
+      connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -31,6 +41,14 @@ export function useChatWebSocket(): ChatWebSocketHook {
       },
       onConnect: () => {
         console.log('Connected to chat WebSocket');
+        stompClient.subscribe('/user/queue/chat/ack', (message: IMessage) => {
+          try {
+            const ack = JSON.parse(message.body) as ChatAck;
+            ackCallbacksRef.current.forEach((callback) => callback(ack));
+          } catch (err) {
+            console.error('Error parsing chat ack:', err);
+          }
+        });
         setIsConnected(true);
       },
       onDisconnect: () => {
@@ -61,21 +79,32 @@ export function useChatWebSocket(): ChatWebSocketHook {
     };
   }, []);
 
-  const sendMessage = useCallback((conversationId: string, content: string) => {
+  // Returns the clientMessageId the server echoes on the broadcast and the ack, or null if not sent
+  const sendMessage = useCallback((conversationId: string, content: string): string | null => {
     if (!clientRef.current || !isConnected) {
       console.error('WebSocket not connected');
-      return;
+      return null;
     }
 
+    const clientMessageId = crypto.randomUUID();
     clientRef.current.publish({
       destination: `/app/chat/send/${conversationId}`,
-      body: JSON.stringify({ content }),
+      body: JSON.stringify({ content, clientMessageId }),
     });
+    return clientMessageId;
   }, [isConnected]);
 
+  const onAck = useCallback((callback: (ack: ChatAck) => void): (() => void) => {
+    ackCallbacksRef.current.add(callback);
+    return () => {
+      ackCallbacksRef.current.delete(callback);
+    };
+  }, []);
+
   const subscribeToConversation = useCallback((
     conversationId: string,
-    callback: (message: Message) => void
+    callback: (message: Message) => void,
+    onRetract?: (messageId: string) => void
   ): (() => void) => {
     if (!clientRef.current || !isConnected) {
       console.warn('Cannot subscribe: WebSocket not connected');
@@ -93,8 +122,13 @@ export function useChatWebSocket(): ChatWebSocketHook {
       `/topic/conversation/${conversationId}`,
       (message: IMessage) => {
         try {
-          const parsedMessage: Message = JSON.parse(message.body);
-          callback(parsedMessage);
+          const parsed = JSON.parse(message.body);
+          // A broadcast message that could not be saved is taken back by the server
+          if (parsed.type === 'retracted') {
+            onRetract?.(parsed.messageId);
+            return;
+          }
+          callback(parsed as Message);
         } catch (err) {
           console.error('Error parsing message:', err);
         }
@@ -110,9 +144,46 @@ export function useChatWebSocket(): ChatWebSocketHook {
     };
   }, [isConnected]);
 
+  const subscribeToReactions = useCallback((
+    conversationId: string,
+    callback: (delta: ReactionDelta) => void
+  ): (() => void) => {
+    if (!clientRef.current || !isConnected) {
+      console.warn('Cannot subscribe: WebSocket not connected');
+      return () => {};
+    }
+
+    const key = `${conversationId}/reactions`;
+    const existingSub = subscriptionsRef.current.get(key);
+    if (existingSub) {
+      existingSub.unsubscribe();
+    }
+
+    // Reaction count changes made by any participant
+    const subscription = clientRef.current.subscribe(
+      `/topic/conversation/${conversationId}/reactions`,
+      (message: IMessage) => {
+        try {
+          callback(JSON.parse(message.body) as ReactionDelta);
+        } catch (err) {
+          console.error('Error parsing reaction delta:', err);
+        }
+      }
+    );
+
+    subscriptionsRef.current.set(key, subscription);
+
+    return () => {
+      subscription.unsubscribe();
+      subscriptionsRef.current.delete(key);
+    };
+  }, [isConnected]);
+
   return {
     isConnected,
     sendMessage,
+    onAck,
     subscribeToConversation,
+    subscribeToReactions,
   };
 }
@@ -151,26 +151,25 @@ export function useMessaging() {
   const addReaction = useCallback(
     async (conversationId: string, messageId: string, emoji: string) => {
       try {
-        await messagingService.addReaction(conversationId, messageId, emoji);
-        // Optimistically update local state
+        const { delta } = await messagingService.addReaction(conversationId, messageId, emoji);
+        if (delta === 0) {
+          return;
+        }
+        // Apply the count change locally
         setMessages(prev =>
-          prev.map(msg =>
-            msg.id === messageId
-              ? {
-                  ...msg,
-                  reactions: [
-                    ...(msg.reactions || []),
-                    {
-                      id: `temp-${Date.now()}`,
-                      messageId,
-                      userId: 'current-user',
-                      emoji,
-                      createdAt: new Date().toISOString(),
-                    },
-                  ],
-                }
-              : msg
-          )
+          prev.map(msg => {
+            if (msg.id !== messageId) {
+              return msg;
+            }
+            const summary = msg.reactionSummary || [];
+            const existing = summary.find(r => r.emoji === emoji);
+            return {
+              ...msg,
+              reactionSummary: existing
+                ? summary.map(r => (r.emoji === emoji ? { ...r, count: r.count + delta, reactedByMe: true } : r))
+                : [...summary, { emoji, count: delta, reactedByMe: true }],
+            };
+          })
         );
       } catch (err) {
         const message = err instanceof Error ? err.message : 'Failed to add reaction';
@@ -13,6 +13,8 @@ export function FeedPage() {
   const [searchQuery, setSearchQuery] = useState('');
   const [filterType, setFilterType] = useState<'all' | 'template' | 'blog' | 'workspace_update'>('all');
   const [currentUserId, setCurrentUserId] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     const fetchFeedItems = async () => {
@@ -24,6 +26,7 @@ export function FeedPage() {
         }
         const data: FeedItem[] = await response.json();
         setFeedItems(data);
+        setNextCursor(response.headers.get('X-Next-Cursor'));
         setError(null);
       } catch (err) {
         console.error('Error loading feed:', err);
@@ -37,6 +40,25 @@ export function FeedPage() {
     fetchFeedItems();
   }, []);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const response = await fetch(`/api/feed?cursor=${encodeURIComponent(nextCursor)}`);
+      if (!response.ok) {
+        throw new Error('Failed to load feed');
+      }
+      const data: FeedItem[] = await response.json();
+      setFeedItems(prev => [...prev, ...data]);
+      setNextCursor(response.headers.get('X-Next-Cursor'));
+    } catch (err) {
+      console.error('Error loading more posts:', err);
+      toast.error('Failed to load more posts');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filteredItems = feedItems.filter(item => {
     const matchesType = filterType === 'all' || item.type === filterType;
     const matchesSearch = item.title.toLowerCase().includes(searchQuery.toLowerCase()) ||
@@ -382,6 +404,17 @@ export function FeedPage() {
                 </motion.div>
               </motion.article>
             ))}
+            {nextCursor && (
+              <div className="flex justify-center">
+                <button
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="px-4 py-2 text-sm text-gray-600 dark:text-gray-400 border border-gray-200 dark:border-[#2F2F2F] rounded-lg hover:bg-gray-50 dark:hover:bg-[#2F2F2F] disabled:opacity-50"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>
@@ -17,7 +17,7 @@ import {
   Paperclip,
 } from 'lucide-react';
 import { toast } from 'sonner';
-import { Conversation, ConversationPreview, Message, ChatUser } from '../types';
+import { Conversation, ConversationPreview, Message, ChatUser, ChatAck, ReactionDelta } from '../types';
 import { messagingService } from '../services/messagingService';
 import { useChatWebSocket } from '../hooks/useChatWebSocket';
 
@@ -36,7 +36,13 @@ export function InboxPage() {
   const [initialRecipientEmail, setInitialRecipientEmail] = useState('');
   
   // Initialize WebSocket for real-time messaging
-  const { isConnected, subscribeToConversation } = useChatWebSocket();
+  const {
+    isConnected,
+    sendMessage: sendChatMessage,
+    onAck,
+    subscribeToConversation,
+    subscribeToReactions,
+  } = useChatWebSocket();
 
   // Handle conversation URL param for direct navigation
   useEffect(() => {
@@ -94,17 +100,76 @@ export function InboxPage() {
         selectedConversationId,
         (newMessage: Message) => {
           console.log('Received real-time message:', newMessage);
-          setMessages((prev) => [...prev, newMessage]);
+          setMessages((prev) => {
+            // Our own send: replace the optimistic copy, keeping it pending until the ack
+            const optimistic = newMessage.clientMessageId
+              ? prev.find((message) => message.clientMessageId === newMessage.clientMessageId)
+              : undefined;
+            if (optimistic) {
+              return prev.map((message) =>
+                message === optimistic ? { ...newMessage, pending: optimistic.pending } : message
+              );
+            }
+            return [...prev, newMessage];
+          });
           scrollToBottom();
+        },
+        (messageId: string) => {
+          setMessages((prev) => prev.filter((message) => message.id !== messageId));
         }
       );
 
+      // Reaction count changes from every participant, including our own from other tabs
+      const unsubscribeReactions = subscribeToReactions(selectedConversationId, applyReactionDelta);
+
       // Cleanup subscription when conversation changes
       return () => {
         unsubscribe();
+        unsubscribeReactions();
       };
     }
-  }, [selectedConversationId, subscribeToConversation]);
+  }, [selectedConversationId, subscribeToConversation, subscribeToReactions]);
+
+  // Saved messages stop being pending; rejected or unsaved ones are taken back out
+  useEffect(() => {
+    return onAck((ack: ChatAck) => {
+      if (!ack.clientMessageId) return;
+      if (ack.status === 'persisted') {
+        setMessages((prev) =>
+          prev.map((message) =>
+            message.clientMessageId === ack.clientMessageId ? { ...message, pending: false } : message
+          )
+        );
+      } else {
+        setMessages((prev) => prev.filter((message) => message.clientMessageId !== ack.clientMessageId));
+        toast.error(ack.error || 'Failed to send message');
+      }
+    });
+  }, [onAck]);
+
+  const applyReactionDelta = (change: ReactionDelta) => {
+    if (change.delta === 0) return;
+    const storedUser = localStorage.getItem('lifeflow-user');
+    const mine = storedUser ? JSON.parse(storedUser).id === change.userId : false;
+
+    setMessages((prev) =>
+      prev.map((message) => {
+        if (message.id !== change.messageId) {
+          return message;
+        }
+        const summary = message.reactionSummary || [];
+        const existing = summary.find((r) => r.emoji === change.emoji);
+        const updated = existing
+          ? summary.map((r) =>
+              r.emoji === change.emoji
+                ? { ...r, count: r.count + change.delta, reactedByMe: mine ? change.delta > 0 : r.reactedByMe }
+                : r
+            )
+          : [...summary, { emoji: change.emoji, count: change.delta, reactedByMe: mine && change.delta > 0 }];
+        return { ...message, reactionSummary: updated.filter((r) => r.count > 0) };
+      })
+    );
+  };
 
   const loadMessages = async () => {
     if (!selectedConversationId) return;
@@ -136,6 +201,28 @@ export function InboxPage() {
     e.preventDefault();
     if (!messageText.trim() || !selectedConversationId) return;
 
+    // Over WebSocket the message shows immediately as pending and is confirmed by its ack
+    const clientMessageId = isConnected ? sendChatMessage(selectedConversationId, messageText) : null;
+    if (clientMessageId) {
+      const storedUser = localStorage.getItem('lifeflow-user');
+      const me = storedUser ? JSON.parse(storedUser) : null;
+      const now = new Date().toISOString();
+      setMessages(prev => [...prev, {
+        id: clientMessageId,
+        clientMessageId,
+        conversationId: selectedConversationId,
+        senderId: me?.id,
+        sender: me ? { id: me.id, name: me.name, email: me.email, status: 'online' } : null,
+        content: messageText,
+        createdAt: now,
+        updatedAt: now,
+        pending: true,
+      }]);
+      setMessageText('');
+      scrollToBottom();
+      return;
+    }
+
     try {
       const newMessage = await messagingService.sendMessage(selectedConversationId, messageText);
       setMessages(prev => [...prev, newMessage]);
@@ -511,19 +598,20 @@ function MessageBubble({ message, onDelete }: MessageBubbleProps) {
             {message.sender?.name || 'Unknown User'}
           </span>
           <span className="text-xs text-gray-500">
-            {new Date(message.createdAt).toLocaleTimeString()}
+            {message.pending ? 'Sending…' : new Date(message.createdAt).toLocaleTimeString()}
           </span>
         </div>
 
-        <div className="bg-gray-100 dark:bg-[#2F2F2F] rounded-lg px-3 py-2 text-sm text-[#37352F] dark:text-[#E3E3E3] break-words">
+        <div className={`${message.pending ? 'opacity-60 ' : ''}bg-gray-100 dark:bg-[#2F2F2F] rounded-lg px-3 py-2 text-sm text-[#37352F] dark:text-[#E3E3E3] break-words`}>
           {message.content}
         </div>
 
-        {message.reactions && message.reactions.length > 0 && (
+        {message.reactionSummary && message.reactionSummary.length > 0 && (
           <div className="flex gap-1 mt-2 flex-wrap">
-            {message.reactions.map(reaction => (
-              <span key={reaction.id} className="text-lg">
+            {message.reactionSummary.map(reaction => (
+              <span key={reaction.emoji} className="text-lg">
                 {reaction.emoji}
+                {reaction.count > 1 && <span className="text-xs ml-0.5">{reaction.count}</span>}
               </span>
             ))}
           </div>
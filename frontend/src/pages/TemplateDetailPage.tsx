@@ -17,6 +17,8 @@ interface Comment {
   text: string;
   author: Author;
   createdAt: string;
+  parentId: string | null;
+  replyCount: number;
 }
 
 interface Template {
@@ -41,6 +43,8 @@ export function TemplateDetailPage() {
   const navigate = useNavigate();
   const [template, setTemplate] = useState<Template | null>(null);
   const [comments, setComments] = useState<Comment[]>([]);
+  const [commentsCursor, setCommentsCursor] = useState<string | null>(null);
+  const [loadingMoreComments, setLoadingMoreComments] = useState(false);
   const [loading, setLoading] = useState(true);
   const [commentText, setCommentText] = useState('');
   const [submittingComment, setSubmittingComment] = useState(false);
@@ -84,12 +88,32 @@ export function TemplateDetailPage() {
       if (response.ok) {
         const data = await response.json();
         setComments(data);
+        setCommentsCursor(response.headers.get('X-Next-Cursor'));
       }
     } catch (err) {
       console.error('Error loading comments:', err);
     }
   };
 
+  const loadMoreComments = async () => {
+    if (!commentsCursor || loadingMoreComments) return;
+    try {
+      setLoadingMoreComments(true);
+      const response = await fetch(`/api/feed/${id}/comments?cursor=${encodeURIComponent(commentsCursor)}`);
+      if (!response.ok) {
+        throw new Error('Failed to load comments');
+      }
+      const data: Comment[] = await response.json();
+      setComments(prev => [...prev, ...data]);
+      setCommentsCursor(response.headers.get('X-Next-Cursor'));
+    } catch (err) {
+      console.error('Error loading more comments:', err);
+      toast.error('Failed to load more comments');
+    } finally {
+      setLoadingMoreComments(false);
+    }
+  };
+
   const handleLike = async () => {
     try {
       const token = localStorage.getItem('lifeflow-token');
@@ -386,7 +410,7 @@ export function TemplateDetailPage() {
         {/* Comments Section */}
         <div>
           <h2 className="text-2xl font-bold text-[#37352F] dark:text-[#E3E3E3] mb-6">
-            Comments ({comments.length})
+            Comments ({template.commentCount})
           </h2>
 
           {/* Comment Form */}
@@ -449,6 +473,17 @@ export function TemplateDetailPage() {
               ))
             )}
           </div>
+          {commentsCursor && (
+            <div className="flex justify-center mt-6">
+              <button
+                onClick={loadMoreComments}
+                disabled={loadingMoreComments}
+                className="px-4 py-2 text-sm text-gray-600 dark:text-gray-400 border border-gray-200 dark:border-[#2F2F2F] rounded-lg hover:bg-gray-50 dark:hover:bg-[#2F2F2F] disabled:opacity-50"
+              >
+                {loadingMoreComments ? 'Loading...' : 'Load more comments'}
+              </button>
+            </div>
+          )}
         </div>
       </div>
     </div>
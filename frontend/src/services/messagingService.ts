@@ -1,4 +1,4 @@
-import { Message, Conversation, ConversationPreview, InboxStats } from '../types';
+import { Message, Conversation, ConversationPreview, InboxStats, ReactionDelta } from '../types';
 
 const API_BASE_URL = '/api';
 
@@ -249,7 +249,7 @@ export const messagingService = {
     conversationId: string,
     messageId: string,
     emoji: string
-  ): Promise<Message> {
+  ): Promise<ReactionDelta> {
     const token = localStorage.getItem('lifeflow-token');
     const response = await fetch(
       `${API_BASE_URL}/messages/conversations/${conversationId}/messages/${messageId}/reactions`,
@@ -274,7 +274,7 @@ export const messagingService = {
     conversationId: string,
     messageId: string,
     emoji: string
-  ): Promise<Message> {
+  ): Promise<ReactionDelta> {
     const token = localStorage.getItem('lifeflow-token');
     const response = await fetch(
       `${API_BASE_URL}/messages/conversations/${conversationId}/messages/${messageId}/reactions/${emoji}`,
@@ -21,6 +21,7 @@ class WebSocketNotificationService {
   private connectionPromise: Promise<void> | null = null;
   private notificationCallbacks: Set<(notification: WebSocketNotification) => void> = new Set();
   private statusCallbacks: Set<(status: 'connected' | 'disconnected' | 'error') => void> = new Set();
+  private unreadCountCallbacks: Set<(count: number) => void> = new Set();
   private userId: string | null = null;
 
   /**
@@ -48,6 +49,7 @@ class WebSocketNotificationService {
             console.log('WebSocket connected:', frame);
             this.notifyStatusChange('connected');
             this.subscribeToNotifications();
+            this.subscribeToUnreadCount();
             this.subscribeToUserStatus();
             resolve();
           },
@@ -114,6 +116,31 @@ class WebSocketNotificationService {
     };
   }
 
+  /**
+   * Subscribe to unread count changes, pushed by the server whenever the count changes
+   */
+  private subscribeToUnreadCount(): NotificationSubscription {
+    if (!this.client?.connected || !this.userId) {
+      console.warn('WebSocket not connected');
+      return { unsubscribe: () => {} };
+    }
+
+    const subscription = this.client.subscribe(`/user/${this.userId}/queue/unread`, (message: Message) => {
+      try {
+        const data = JSON.parse(message.body);
+        if (typeof data.unreadCount === 'number') {
+          this.notifyUnreadCount(data.unreadCount);
+        }
+      } catch (error) {
+        console.error('Error parsing unread count:', error);
+      }
+    });
+
+    return {
+      unsubscribe: () => subscription.unsubscribe(),
+    };
+  }
+
   /**
    * Subscribe to user status updates
    */
@@ -123,15 +150,21 @@ class WebSocketNotificationService {
       return { unsubscribe: () => {} };
     }
 
+    // Presence arrives as batched diffs: {online: [ids], offline: [ids], timestamp}
     const subscription = this.client.subscribe('/topic/users/status', (message: Message) => {
       try {
-        const status = JSON.parse(message.body);
-        console.log('User status update:', status);
-        this.notifyNotification({
-          type: 'USER_STATUS',
-          ...status,
-          timestamp: Date.now(),
-        });
+        const diff = JSON.parse(message.body);
+        const timestamp = typeof diff.timestamp === 'number' ? diff.timestamp : Date.now();
+        const publish = (userIds: unknown, status: 'online' | 'offline') => {
+          if (!Array.isArray(userIds)) {
+            return;
+          }
+          userIds
+            .filter((userId) => userId !== this.userId)
+            .forEach((userId) => this.notifyNotification({ type: 'USER_STATUS', userId, status, timestamp }));
+        };
+        publish(diff.online, 'online');
+        publish(diff.offline, 'offline');
       } catch (error) {
         console.error('Error parsing status update:', error);
       }
@@ -298,6 +331,18 @@ class WebSocketNotificationService {
     };
   }
 
+  /**
+   * Register callback for unread count changes
+   */
+  onUnreadCount(callback: (count: number) => void): () => void {
+    this.unreadCountCallbacks.add(callback);
+
+    // Return unsubscribe function
+    return () => {
+      this.unreadCountCallbacks.delete(callback);
+    };
+  }
+
   /**
    * Register callback for connection status changes
    */
@@ -330,6 +375,19 @@ class WebSocketNotificationService {
     });
   }
 
+  /**
+   * Notify all registered unread count callbacks
+   */
+  private notifyUnreadCount(count: number): void {
+    this.unreadCountCallbacks.forEach((callback) => {
+      try {
+        callback(count);
+      } catch (error) {
+        console.error('Error in unread count callback:', error);
+      }
+    });
+  }
+
   /**
    * Notify all registered status change callbacks
    */
@@ -96,7 +96,9 @@ export interface Message {
   createdAt: string;
   updatedAt: string;
   isEdited?: boolean;
-  reactions?: MessageReaction[];
+  reactionSummary?: ReactionSummary[];
+  clientMessageId?: string; // echoed on WebSocket broadcasts of our own sends
+  pending?: boolean; // sent over WebSocket, not yet acknowledged as saved
 }
 
 export interface Attachment {
@@ -117,6 +119,30 @@ export interface MessageReaction {
   createdAt: string;
 }
 
+export interface ReactionSummary {
+  emoji: string;
+  count: number;
+  reactedByMe: boolean;
+}
+
+export interface ReactionDelta {
+  conversationId: string;
+  messageId: string;
+  userId: string;
+  emoji: string;
+  delta: number;
+}
+
+// Sent to the sender on /user/queue/chat/ack once a WebSocket message is saved, or when it is not
+export interface ChatAck {
+  messageId?: string;
+  conversationId: string;
+  clientMessageId?: string;
+  status: 'persisted' | 'failed' | 'rejected';
+  error?: string;
+  timestamp: number;
+}
+
 export interface Conversation {
   id: string;
   type: 'direct' | 'group' | 'team';